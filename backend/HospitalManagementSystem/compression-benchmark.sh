@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Compares bytes on the wire and time-to-first-byte with and without compression
+# for a few typical requests against a running backend.
+#
+# Usage: ./compression-benchmark.sh [base-url]
+
+BASE=${1:-http://localhost:8081}
+PATHS=(
+    "/"
+    "/api/doctors"
+    "/api/patients"
+    "/api/appointments"
+)
+
+# Add the largest hashed bundle if the SPA is being served
+BUNDLE=$(curl -s "$BASE/" | grep -o '/assets/[^"]*\.js' | head -1)
+if [ -n "$BUNDLE" ]; then
+    PATHS+=("$BUNDLE")
+fi
+
+probe() {
+    curl -s -o /dev/null -H "Accept-Encoding: $2" -w "%{size_download} %{time_starttransfer}" "$BASE$1"
+}
+
+printf "%-40s %12s %10s %12s %10s %12s %10s\n" "path" "identity(B)" "ttfb(s)" "gzip(B)" "ttfb(s)" "br(B)" "ttfb(s)"
+for path in "${PATHS[@]}"; do
+    read -r id_size id_ttfb <<< "$(probe "$path" identity)"
+    read -r gz_size gz_ttfb <<< "$(probe "$path" gzip)"
+    read -r br_size br_ttfb <<< "$(probe "$path" "br, gzip")"
+    printf "%-40s %12s %10s %12s %10s %12s %10s\n" "$path" "$id_size" "$id_ttfb" "$gz_size" "$gz_ttfb" "$br_size" "$br_ttfb"
+done
@@ -1,22 +1,53 @@
 package com.hospital.backend;
 
+import com.hospital.backend.exceptions.MailDeliveryException;
+import com.hospital.backend.service.MailDeliveryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Service
+@Lazy
 public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
-    public void sendAppointmentConfirmation(String toEmail, String patientName, String doctorName,
+    // Queued and sent over pooled SMTP connections; each send method returns the delivery outcome
+    @Autowired
+    private MailDeliveryService mailDeliveryService;
+
+    public CompletableFuture<Void> sendAppointmentConfirmation(String toEmail, String patientName, String doctorName,
             String specialization, String appointmentDate, String appointmentTime,
             String description, String appointmentId) {
+        // Plain text, sent if the HTML version cannot be built or is refused
+        SimpleMailMessage fallbackMessage = new SimpleMailMessage();
+        fallbackMessage.setTo(toEmail);
+        fallbackMessage.setSubject("Appointment Confirmation - Dr. " + doctorName);
+        fallbackMessage.setText("Hello " + patientName + ",\n\n" +
+                "Your appointment has been confirmed!\n\n" +
+                "Details:\n" +
+                "Appointment ID: #" + appointmentId + "\n" +
+                "Doctor: Dr. " + doctorName + "\n" +
+                "Specialization: " + (specialization != null ? specialization : "General") + "\n" +
+                "Date: " + appointmentDate + "\n" +
+                "Time: " + appointmentTime + "\n" +
+                (description != null && !description.isEmpty() ? "Description: " + description + "\n" : "") +
+                "\nPlease arrive 10 minutes before your scheduled time.\n" +
+                "Bring any relevant medical records or test results.\n\n" +
+                "Thank you for choosing our Hospital Management System!\n" +
+                "Hospital Management Team");
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -107,33 +138,33 @@ public class EmailService {
                     "</html>";
 
             helper.setText(htmlContent, true);
-            mailSender.send(message);
+            return sendWithFallback(message, fallbackMessage, "appointment confirmation");
         } catch (MessagingException e) {
             System.err.println("Error sending HTML email: " + e.getMessage());
-            // Fallback to simple text email
-            SimpleMailMessage fallbackMessage = new SimpleMailMessage();
-            fallbackMessage.setTo(toEmail);
-            fallbackMessage.setSubject("Appointment Confirmation - Dr. " + doctorName);
-            fallbackMessage.setText("Hello " + patientName + ",\n\n" +
-                    "Your appointment has been confirmed!\n\n" +
-                    "Details:\n" +
-                    "Appointment ID: #" + appointmentId + "\n" +
-                    "Doctor: Dr. " + doctorName + "\n" +
-                    "Specialization: " + (specialization != null ? specialization : "General") + "\n" +
-                    "Date: " + appointmentDate + "\n" +
-                    "Time: " + appointmentTime + "\n" +
-                    (description != null && !description.isEmpty() ? "Description: " + description + "\n" : "") +
-                    "\nPlease arrive 10 minutes before your scheduled time.\n" +
-                    "Bring any relevant medical records or test results.\n\n" +
-                    "Thank you for choosing our Hospital Management System!\n" +
-                    "Hospital Management Team");
-            mailSender.send(fallbackMessage);
+            return sendPlain(fallbackMessage);
         }
     }
 
-    public void sendPrescriptionEmail(String toEmail, String patientName, String doctorName,
+    public CompletableFuture<Void> sendPrescriptionEmail(String toEmail, String patientName, String doctorName,
             String specialization, String medicine, String advice, String remark,
-            String prescriptionId, String dateIssued) {
+            String prescriptionId, String dateIssued, byte[] pdf) {
+        SimpleMailMessage fallbackMessage = new SimpleMailMessage();
+        fallbackMessage.setTo(toEmail);
+        fallbackMessage.setSubject("Your Prescription from Dr. " + doctorName);
+        fallbackMessage.setText("Hello " + patientName + ",\n\n" +
+                "Your prescription has been issued!\n\n" +
+                "Details:\n" +
+                "Prescription ID: #" + prescriptionId + "\n" +
+                "Doctor: Dr. " + doctorName + "\n" +
+                "Specialization: " + (specialization != null ? specialization : "General") + "\n" +
+                "Date Issued: " + dateIssued + "\n\n" +
+                "Medicine: " + medicine + "\n\n" +
+                "Instructions: " + advice + "\n" +
+                (remark != null && !remark.isEmpty() ? "\nRemarks: " + remark + "\n" : "") +
+                "\nPlease follow the prescribed dosage and instructions carefully.\n" +
+                "Contact your doctor if you experience any side effects.\n\n" +
+                "Thank you for choosing our Hospital Management System!\n" +
+                "Hospital Management Team");
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -248,32 +279,22 @@ public class EmailService {
                     "</html>";
 
             helper.setText(htmlContent, true);
-            mailSender.send(message);
+            if (pdf != null) {
+                helper.addAttachment("prescription-" + prescriptionId + ".pdf", new ByteArrayResource(pdf),
+                        "application/pdf");
+            }
+            return sendWithFallback(message, fallbackMessage, "prescription");
         } catch (MessagingException e) {
             System.err.println("Error sending prescription email: " + e.getMessage());
-            // Fallback to simple text email
-            SimpleMailMessage fallbackMessage = new SimpleMailMessage();
-            fallbackMessage.setTo(toEmail);
-            fallbackMessage.setSubject("Your Prescription from Dr. " + doctorName);
-            fallbackMessage.setText("Hello " + patientName + ",\n\n" +
-                    "Your prescription has been issued!\n\n" +
-                    "Details:\n" +
-                    "Prescription ID: #" + prescriptionId + "\n" +
-                    "Doctor: Dr. " + doctorName + "\n" +
-                    "Specialization: " + (specialization != null ? specialization : "General") + "\n" +
-                    "Date Issued: " + dateIssued + "\n\n" +
-                    "Medicine: " + medicine + "\n\n" +
-                    "Instructions: " + advice + "\n" +
-                    (remark != null && !remark.isEmpty() ? "\nRemarks: " + remark + "\n" : "") +
-                    "\nPlease follow the prescribed dosage and instructions carefully.\n" +
-                    "Contact your doctor if you experience any side effects.\n\n" +
-                    "Thank you for choosing our Hospital Management System!\n" +
-                    "Hospital Management Team");
-            mailSender.send(fallbackMessage);
+            return sendPlain(fallbackMessage);
         }
     }
 
-    public void sendPasswordResetEmail(String toEmail, String token) {
+    public CompletableFuture<Void> sendPasswordResetEmail(String toEmail, String token) {
+        SimpleMailMessage fallbackMessage = new SimpleMailMessage();
+        fallbackMessage.setTo(toEmail);
+        fallbackMessage.setSubject("Password Reset Request");
+        fallbackMessage.setText("Your password reset token is: " + token + "\n\nThis token expires in 15 minutes.");
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -317,15 +338,38 @@ public class EmailService {
                     "</html>";
 
             helper.setText(htmlContent, true);
-            mailSender.send(message);
+            return sendWithFallback(message, fallbackMessage, "password reset");
         } catch (MessagingException e) {
             System.err.println("Error sending password reset email: " + e.getMessage());
-            // Fallback to simple text email
-            SimpleMailMessage fallbackMessage = new SimpleMailMessage();
-            fallbackMessage.setTo(toEmail);
-            fallbackMessage.setSubject("Password Reset Request");
-            fallbackMessage.setText("Your password reset token is: " + token + "\n\nThis token expires in 15 minutes.");
-            mailSender.send(fallbackMessage);
+            return sendPlain(fallbackMessage);
+        }
+    }
+
+    // Completes once the server has accepted the HTML message or, failing that, the plain-text one.
+    // No fallback when the outcome is unknown: the patient may already have the HTML copy.
+    private CompletableFuture<Void> sendWithFallback(MimeMessage message, SimpleMailMessage fallbackMessage,
+            String kind) {
+        return mailDeliveryService.send(message).handle((sent, error) -> {
+            if (error == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof MailDeliveryException failure && failure.isOutcomeUnknown()) {
+                return CompletableFuture.<Void>failedFuture(cause);
+            }
+            System.err.println("Error sending HTML " + kind + " email, sending plain text: " + cause.getMessage());
+            return sendPlain(fallbackMessage);
+        }).thenCompose(next -> next);
+    }
+
+    private CompletableFuture<Void> sendPlain(SimpleMailMessage fallbackMessage) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            fallbackMessage.copyTo(new MimeMailMessage(new MimeMessageHelper(message, "UTF-8")));
+            return mailDeliveryService.send(message);
+        } catch (MailException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 }
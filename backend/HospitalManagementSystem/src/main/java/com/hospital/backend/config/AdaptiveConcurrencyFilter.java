@@ -0,0 +1,303 @@
+package com.hospital.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit in front of the controllers. The limit follows a
+ * gradient: when recent request latency rises above the long-run baseline, or
+ * threads are queueing for a Hikari connection, it shrinks; while latency holds
+ * steady it grows by about sqrt(limit) per adjustment.
+ *
+ * Requests are admitted by priority. Booking and login may use the whole limit,
+ * ordinary traffic 90% of it and reporting, analytics, bulk imports and PDF
+ * downloads half, so under pressure the low-priority work is squeezed out first.
+ * A request over its share waits up to its priority's budget for a slot and then
+ * gets 503; low priority is shed straight away once measured queueing latency is
+ * above the target.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    enum Priority {
+        HIGH(1.0, 40), NORMAL(0.9, 10), LOW(0.5, 1);
+
+        // Fraction of the limit this priority may occupy, and its wait budget in multiples of the target
+        final double share;
+        final int waitTargets;
+
+        Priority(double share, int waitTargets) {
+            this.share = share;
+            this.waitTargets = waitTargets;
+        }
+    }
+
+    @Value("${hospital.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hospital.concurrency.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${hospital.concurrency.min-limit:4}")
+    private int minLimit;
+
+    @Value("${hospital.concurrency.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${hospital.concurrency.queue-target-ms:50}")
+    private long queueTargetMillis;
+
+    // Recent latency may reach this multiple of the baseline before the limit is cut
+    @Value("${hospital.concurrency.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> highPriority = List.of("POST /api/appointments", "POST /api/auth/**");
+    private final List<String> lowPriority = List.of("* /api/admin/reports/**", "* /api/admin/analytics/**",
+            "POST /api/*/import", "GET /api/prescriptions/*/pdf");
+
+    private final Object monitor = new Object();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder latencySamples = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder queueSamples = new LongAdder();
+    private volatile double baselineRttNanos;
+    private volatile double recentRttNanos;
+    private volatile double queueLatencyNanos;
+
+    private final Map<Priority, LongAdder> shed = new LinkedHashMap<>();
+
+    private HikariDataSource hikari;
+
+    @PostConstruct
+    void init() {
+        limit = initialLimit;
+        hikari = primaryPool(dataSource);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod())
+                || !path(request).startsWith("/api/")
+                || path(request).startsWith("/api/admin/load");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+        if (!acquire(priority)) {
+            shed.get(priority).increment();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            latencyNanos.add(System.nanoTime() - start);
+            latencySamples.increment();
+            release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.concurrency.adjust-ms:250}")
+    public void adjust() {
+        long queued = queueSamples.sumThenReset();
+        long queuedNanos = queueNanos.sumThenReset();
+        queueLatencyNanos = queued == 0 ? queueLatencyNanos * 0.5 : 0.5 * queueLatencyNanos + 0.5 * queuedNanos / queued;
+
+        long samples = latencySamples.sumThenReset();
+        long totalNanos = latencyNanos.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+        double rtt = (double) totalNanos / samples;
+        recentRttNanos = rtt;
+        // Slow-moving baseline; it follows improvements at once so a quiet spell resets it
+        baselineRttNanos = baselineRttNanos == 0 || rtt < baselineRttNanos ? rtt : 0.95 * baselineRttNanos + 0.05 * rtt;
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baselineRttNanos / rtt));
+        if (threadsAwaitingConnection() > 0) {
+            gradient = Math.min(gradient, 0.9);
+        }
+        // Only grow when the limit was actually being used, otherwise it drifts up while idle
+        double headroom = peak >= current / 2 ? Math.sqrt(current) : 0;
+        double target = current * gradient + headroom;
+        double next = Math.max(minLimit, Math.min(maxLimit, 0.8 * current + 0.2 * target));
+        limit = next;
+        if (next > current) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", (int) limit);
+        stats.put("inFlight", inFlight.get());
+        stats.put("waiting", waiting.get());
+        stats.put("baselineLatencyMs", round(baselineRttNanos));
+        stats.put("recentLatencyMs", round(recentRttNanos));
+        stats.put("queueLatencyMs", round(queueLatencyNanos));
+        stats.put("queueTargetMs", queueTargetMillis);
+        stats.put("threadsAwaitingConnection", threadsAwaitingConnection());
+        Map<String, Long> shedCounts = new LinkedHashMap<>();
+        shed.forEach((priority, count) -> shedCounts.put(priority.name(), count.sum()));
+        stats.put("shed", shedCounts);
+        return stats;
+    }
+
+    Priority classify(HttpServletRequest request) {
+        String path = path(request);
+        if (matches(highPriority, request.getMethod(), path)) {
+            return Priority.HIGH;
+        }
+        if (matches(lowPriority, request.getMethod(), path)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    private boolean acquire(Priority priority) {
+        if (tryAcquire(priority)) {
+            return true;
+        }
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(queueTargetMillis);
+        if (priority == Priority.LOW && queueLatencyNanos > targetNanos) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + targetNanos * priority.waitTargets;
+        waiting.incrementAndGet();
+        try {
+            synchronized (monitor) {
+                while (!tryAcquire(priority)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+            queueNanos.add(System.nanoTime() - start);
+            queueSamples.increment();
+        }
+    }
+
+    private boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (waiting.get() > 0) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now() + "\",\"status\":503," +
+                "\"error\":\"Service Unavailable\",\"message\":\"Server is busy, please retry shortly\"}");
+    }
+
+    private int threadsAwaitingConnection() {
+        if (hikari != null) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        }
+        return 0;
+    }
+
+    // The primary's pool, also when it sits behind the read replica router
+    private static HikariDataSource primaryPool(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private boolean matches(List<String> rules, String method, String path) {
+        for (String rule : rules) {
+            int space = rule.indexOf(' ');
+            String ruleMethod = rule.substring(0, space);
+            if (("*".equals(ruleMethod) || ruleMethod.equals(method))
+                    && pathMatcher.match(rule.substring(space + 1), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static double round(double nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
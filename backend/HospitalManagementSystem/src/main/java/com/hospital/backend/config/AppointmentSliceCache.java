@@ -0,0 +1,241 @@
+package com.hospital.backend.config;
+
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.repository.SliceInvalidationRepository;
+import com.hospital.backend.service.AppointmentSliceStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of a doctor's appointments for one day, the slice polled by the
+ * reception screens. Tier one is a local map; tier two is an optional shared
+ * AppointmentSliceStore. Writes to the appointment table invalidate the affected
+ * (doctor, date) keys precisely, both immediately and again after commit, and a
+ * generation counter stops a load that raced with a write from being cached.
+ *
+ * Every invalidation is also logged to slice_invalidations in the writing
+ * transaction. Each instance polls that log and evicts the keys other instances
+ * wrote, so its local tier trails their writes by about one poll interval rather
+ * than the local TTL. Entries hold copies of the loaded appointments and every
+ * hit hands out fresh copies, so a caller mutating its result cannot change what
+ * the next caller sees.
+ */
+@Component
+public class AppointmentSliceCache {
+
+    @Value("${hospital.slice-cache.local-ttl-ms:60000}")
+    private long localTtlMillis;
+
+    @Value("${hospital.slice-cache.shared-ttl-ms:300000}")
+    private long sharedTtlMillis;
+
+    @Value("${hospital.slice-cache.max-entries:5000}")
+    private int maxEntries;
+
+    // Overlap between polls: covers transactions that commit after a later-stamped one, and clock skew
+    @Value("${hospital.slice-cache.invalidation-overlap-ms:10000}")
+    private long invalidationOverlapMillis;
+
+    // Empty for no shared tier
+    @Value("${hospital.slice-cache.shared-tier:}")
+    private String sharedTier;
+
+    @Autowired
+    private ObjectProvider<AppointmentSliceStore> sharedStores;
+
+    // Null without a shared tier
+    private AppointmentSliceStore sharedStore;
+
+    @Autowired
+    private SliceInvalidationRepository sliceInvalidationRepository;
+
+    private final String origin = UUID.randomUUID().toString();
+    private volatile long lastPollMillis = System.currentTimeMillis();
+    private volatile long lastPurgeMillis;
+
+    private final ConcurrentHashMap<String, AppointmentSliceStore.Entry> local = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a load that overlapped any write is served but not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+    private final LongAdder servedAgeMillis = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final AtomicLong maxServedAgeMillis = new AtomicLong();
+
+    // Picked here from the property rather than by a bean condition, which the AOT build (-Pstartup)
+    // would evaluate at build time
+    @PostConstruct
+    void selectSharedStore() {
+        if (sharedTier.isBlank()) {
+            return;
+        }
+        sharedStore = sharedStores.orderedStream()
+                .filter(store -> store.tier().equals(sharedTier.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No AppointmentSliceStore for hospital.slice-cache.shared-tier="
+                        + sharedTier));
+    }
+
+    public List<Appointment> get(int doctorId, LocalDate date, Supplier<List<Appointment>> loader) {
+        String key = key(doctorId, date);
+        long now = System.currentTimeMillis();
+
+        AppointmentSliceStore.Entry entry = local.get(key);
+        if (entry != null && now - entry.loadedAtMillis() < localTtlMillis) {
+            localHits.increment();
+            return serve(entry, now);
+        }
+
+        long version = generation.get();
+        AppointmentSliceStore store = sharedStore;
+        if (store != null) {
+            entry = store.get(key).orElse(null);
+            if (entry != null) {
+                sharedHits.increment();
+                cacheLocally(key, entry, version);
+                return serve(entry, now);
+            }
+        }
+
+        misses.increment();
+        List<Appointment> loaded = loader.get();
+        entry = new AppointmentSliceStore.Entry(copy(loaded), now);
+        if (cacheLocally(key, entry, version) && store != null) {
+            store.put(key, entry, Duration.ofMillis(sharedTtlMillis));
+        }
+        return loaded;
+    }
+
+    /** Drops the slice an appointment belongs to, now and once the current transaction commits. */
+    public void invalidate(Appointment appointment) {
+        if (appointment == null || appointment.getDrId() == null || appointment.getAppointmentDate() == null) {
+            return;
+        }
+        String key = key(appointment.getDrId(), appointment.getAppointmentDate().toLocalDate());
+        invalidations.increment();
+        evict(key);
+        // Same transaction as the write, so other instances only see it once the write is visible
+        sliceInvalidationRepository.record(key, origin, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    /** Evicts the slices other instances have written since the last poll. */
+    @Scheduled(fixedDelayString = "${hospital.slice-cache.invalidation-poll-ms:1000}")
+    public void pollInvalidations() {
+        long now = System.currentTimeMillis();
+        long since = lastPollMillis - invalidationOverlapMillis;
+        try {
+            // Nothing cached here, nothing to evict; the shared tier is evicted by the writer
+            if (!local.isEmpty()) {
+                for (String key : sliceInvalidationRepository.findSince(since, origin)) {
+                    remoteInvalidations.increment();
+                    generation.incrementAndGet();
+                    local.remove(key);
+                }
+            }
+            lastPollMillis = now;
+            if (now - lastPurgeMillis > 60_000) {
+                lastPurgeMillis = now;
+                sliceInvalidationRepository.purgeBefore(now - 3_600_000);
+            }
+        } catch (Exception e) {
+            // Keep lastPollMillis, so the next poll covers this window too
+            System.err.println("Error polling appointment slice invalidations: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitsLocal = localHits.sum();
+        long hitsShared = sharedHits.sum();
+        long missCount = misses.sum();
+        long lookups = hitsLocal + hitsShared + missCount;
+        long servedCount = served.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", local.size());
+        stats.put("sharedTier", sharedStore != null);
+        stats.put("localHits", hitsLocal);
+        stats.put("sharedHits", hitsShared);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) (hitsLocal + hitsShared) / lookups);
+        stats.put("invalidations", invalidations.sum());
+        stats.put("remoteInvalidations", remoteInvalidations.sum());
+        stats.put("discardedLoads", discardedLoads.sum());
+        // Age of cached slices when they were served, i.e. how stale a hit can be
+        stats.put("avgServedAgeMillis", servedCount == 0 ? 0 : servedAgeMillis.sum() / servedCount);
+        stats.put("maxServedAgeMillis", maxServedAgeMillis.get());
+        return stats;
+    }
+
+    private List<Appointment> serve(AppointmentSliceStore.Entry entry, long now) {
+        long age = Math.max(0, now - entry.loadedAtMillis());
+        served.increment();
+        servedAgeMillis.add(age);
+        maxServedAgeMillis.accumulateAndGet(age, Math::max);
+        return copy(entry.appointments());
+    }
+
+    private static List<Appointment> copy(List<Appointment> appointments) {
+        return appointments.stream().map(Appointment::new).toList();
+    }
+
+    private boolean cacheLocally(String key, AppointmentSliceStore.Entry entry, long version) {
+        if (generation.get() != version) {
+            discardedLoads.increment();
+            return false;
+        }
+        if (local.size() >= maxEntries) {
+            local.clear();
+        }
+        local.put(key, entry);
+        // An invalidation that landed between the check and the put wins
+        if (generation.get() != version) {
+            local.remove(key, entry);
+            discardedLoads.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void evict(String key) {
+        generation.incrementAndGet();
+        local.remove(key);
+        AppointmentSliceStore store = sharedStore;
+        if (store != null) {
+            store.evict(key);
+        }
+    }
+
+    private static String key(int doctorId, LocalDate date) {
+        return "appointments:" + doctorId + ":" + date;
+    }
+}
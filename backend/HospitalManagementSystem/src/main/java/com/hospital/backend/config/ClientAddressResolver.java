@@ -0,0 +1,27 @@
+package com.hospital.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client IP used to key per-client limits (rate limiting, login attempts).
+ */
+@Component
+public class ClientAddressResolver {
+
+    // Only honour X-Forwarded-For behind a proxy that sets it; otherwise it is client-controlled
+    @Value("${hospital.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    public String resolve(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,45 @@
+package com.hospital.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * gzip for JSON and text responses above a size threshold. Precompressed static
+ * files already carry Content-Encoding and are passed through untouched.
+ * Set server.compression.enabled=false to turn it off.
+ *
+ * The defaults live here because application.properties is not shipped. The
+ * flag is read when the customizer runs rather than in a condition, which the
+ * AOT build (-Pstartup) would fix at build time.
+ */
+@Configuration
+public class CompressionConfig {
+
+    @Value("${server.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${server.compression.mime-types:application/json,text/html,text/css,text/plain,application/javascript,image/svg+xml}")
+    private String[] mimeTypes;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer() {
+        return factory -> {
+            if (!enabled) {
+                return;
+            }
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMimeTypes(mimeTypes);
+            compression.setMinResponseSize(minResponseSize);
+            factory.setCompression(compression);
+        };
+    }
+}
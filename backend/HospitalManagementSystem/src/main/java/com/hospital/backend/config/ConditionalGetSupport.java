@@ -0,0 +1,123 @@
+package com.hospital.backend.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers read-mostly GETs with an ETag derived from {@link EntityVersions}.
+ * A matching If-None-Match gets a 304 before the body supplier runs; the only
+ * query is the one-row version lookup.
+ *
+ * Cache-Control is configured per endpoint with hospital.cache-control.&lt;endpoint&gt;,
+ * defaulting to no-cache (always revalidate).
+ *
+ * Single rows with a version column (patient, appointment) use that version as
+ * their ETag instead, and take it back in If-Match on updates.
+ */
+@Component
+public class ConditionalGetSupport {
+
+    private static final String DEFAULT_POLICY = "no-cache";
+    private static final String PRIVATE_POLICY = "private, no-cache";
+
+    // Weak tags: the body is the same data whether or not Tomcat gzips it, and
+    // Tomcat refuses to compress responses that carry a strong ETag.
+    private static final String WEAK_PREFIX = "W/";
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private Environment environment;
+
+    public <T> ResponseEntity<T> respond(WebRequest request, String endpoint, String resource, Supplier<T> body) {
+        String etag = entityVersions.etag(resource);
+        String cacheControl = environment.getProperty("hospital.cache-control." + endpoint, DEFAULT_POLICY);
+
+        if (matchesIfNoneMatch(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(WEAK_PREFIX + etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(WEAK_PREFIX + etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .body(body.get());
+    }
+
+    /** 304 or 200 for one versioned row; these hold personal data, so only private caches may keep them. */
+    public <T> ResponseEntity<T> respondVersioned(WebRequest request, T body, Integer version) {
+        String etag = versionTag(version);
+        if (matchesIfNoneMatch(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(WEAK_PREFIX + etag)
+                    .header(HttpHeaders.CACHE_CONTROL, PRIVATE_POLICY)
+                    .build();
+        }
+        return versioned(body, version);
+    }
+
+    /** 200 carrying the row's version as its ETag, e.g. after an update. */
+    public <T> ResponseEntity<T> versioned(T body, Integer version) {
+        return ResponseEntity.ok()
+                .eTag(WEAK_PREFIX + versionTag(version))
+                .header(HttpHeaders.CACHE_CONTROL, PRIVATE_POLICY)
+                .body(body);
+    }
+
+    /**
+     * The version an If-Match header expects, or null when there is no header or it
+     * is "*". Takes back the tags handed out by respondVersioned, weak or strong.
+     */
+    public Integer ifMatchVersion(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String tag = header.trim();
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Integer.parseInt(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through to the error below
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be the single ETag of the version being updated");
+    }
+
+    private static String versionTag(Integer version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    // Checked by hand rather than with WebRequest.checkNotModified, which writes the
+    // ETag onto the response before we know whether the body call will succeed.
+    public boolean matchesIfNoneMatch(WebRequest request, String etag) {
+        String[] headers = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (headers == null) {
+            return false;
+        }
+        for (String header : headers) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith(WEAK_PREFIX)) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
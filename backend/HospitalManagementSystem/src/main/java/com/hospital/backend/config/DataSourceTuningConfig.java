@@ -0,0 +1,26 @@
+package com.hospital.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceTuningConfig {
+
+    // Lets Connector/J collapse a JDBC batch into multi-row INSERTs (bulk import) instead of
+    // one round trip per row. Set in code because application.properties is not versioned.
+    @Bean
+    public static BeanPostProcessor mysqlBatchRewriting() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getJdbcUrl() != null
+                        && hikari.getJdbcUrl().startsWith("jdbc:mysql:")) {
+                    hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
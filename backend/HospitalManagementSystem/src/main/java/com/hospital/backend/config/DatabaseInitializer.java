@@ -1,40 +1,253 @@
 package com.hospital.backend.config;
 
+import com.hospital.backend.entity.AppointmentStatus;
+import com.hospital.backend.repository.AnalyticsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
-import jakarta.annotation.PostConstruct;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Brings an existing database up to the current schema. Runs as the first
+ * lifecycle phase, after the context is refreshed but before the scheduler and
+ * the web server start, so the first request already finds every table and
+ * column. Any failure stops startup: the app cannot serve a half-migrated
+ * schema. Context refresh itself stays free of DB access, which keeps the CDS
+ * training run (spring.context.exit=onRefresh, no lifecycle start) DB-free.
+ */
 @Configuration
-public class DatabaseInitializer {
+public class DatabaseInitializer implements SmartLifecycle {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    @PostConstruct
-    public void initialize() {
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
         System.out.println("Checking and updating database schema...");
 
+        step("checking/creating password_reset_tokens table", this::checkAndCreatePasswordResetTable);
+
         try {
-            // Check if reset_token column exists in patient table
-            addShortTextColumnIfNotExists("patient", "reset_token");
+            // Reset tokens used to be stored in plaintext on patient; they are no longer read
+            int cleared = jdbcTemplate.update("UPDATE patient SET reset_token = NULL, reset_token_expiry = NULL " +
+                    "WHERE reset_token IS NOT NULL");
+            System.out.println("Cleared " + cleared + " legacy patient reset tokens");
         } catch (Exception e) {
-            System.err.println("Error checking/adding reset_token column: " + e.getMessage());
+            // Columns not present (new database); nothing to clear
         }
 
+        step("checking/creating reviews table", this::checkAndCreateReviewsTable);
+        step("migrating appointment status to status_code", this::migrateAppointmentStatus);
+        // Optimistic locking: updates compare and bump these
+        step("checking/adding version columns", () -> {
+            addColumnIfNotExists("appointment", "version", "INT NOT NULL DEFAULT 0");
+            addColumnIfNotExists("patient", "version", "INT NOT NULL DEFAULT 0");
+        });
+        // Patient timeline reads appointments newest first per patient
+        step("checking/adding idx_appt_patient_date index", () -> addIndexIfNotExists("appointment",
+                "idx_appt_patient_date", "P_ID, appointment_date, appointment_time"));
+        // Status listings filter on the status and read in date order
+        step("checking/adding idx_appt_status_date index", () -> addIndexIfNotExists("appointment",
+                "idx_appt_status_date", "status_code, appointment_date"));
+        step("checking/creating analytics rollup tables", this::checkAndCreateAnalyticsTables);
+        step("checking/creating idempotency_keys table", this::checkAndCreateIdempotencyTable);
+        step("checking/creating medicine_stock table", this::checkAndCreateMedicineStockTable);
+        step("checking/creating replica_heartbeat table", this::checkAndCreateReplicaHeartbeatTable);
+        step("checking/creating entity_versions table", this::checkAndCreateEntityVersionsTable);
+        step("checking/creating slice_invalidations table", this::checkAndCreateSliceInvalidationsTable);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lowest phase: before the task scheduler and the web server (DEFAULT_PHASE - 2048)
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    private static void step(String description, Runnable action) {
         try {
-            // Check if reset_token_expiry column exists in patient table
-            addTimestampColumnIfNotExists("patient", "reset_token_expiry");
+            action.run();
         } catch (Exception e) {
-            System.err.println("Error checking/adding reset_token_expiry column: " + e.getMessage());
+            throw new IllegalStateException("Error " + description + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Copies the free-text status column into the TINYINT status_code of AppointmentStatus. The old
+    // column stays, and AppointmentRepositoryImpl keeps writing it, so instances on the previous release
+    // keep working during a rolling deploy; a later release drops it once this one is everywhere.
+    // Runs on every start while the column exists, which also picks up writes made by those instances.
+    private void migrateAppointmentStatus() {
+        addColumnIfNotExists("appointment", "status_code", "TINYINT NOT NULL DEFAULT 0");
+        if (!hasColumn("appointment", "status")) {
+            return;
+        }
+
+        // Map every value before changing anything: an unknown one stops startup rather than being guessed
+        Map<String, AppointmentStatus> mapping = new LinkedHashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String value : jdbcTemplate.queryForList(
+                "SELECT DISTINCT status FROM appointment WHERE status IS NOT NULL", String.class)) {
+            if (value.isBlank()) {
+                continue;
+            }
+            try {
+                mapping.put(value, AppointmentStatus.parse(value));
+            } catch (IllegalArgumentException e) {
+                unknown.add(value);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Unrecognised appointment status values " + unknown
+                    + "; correct those rows, or add the spelling to AppointmentStatus.parse, and restart");
         }
 
+        int migrated = 0;
+        for (Map.Entry<String, AppointmentStatus> entry : mapping.entrySet()) {
+            int code = entry.getValue().getCode();
+            migrated += jdbcTemplate.update("UPDATE appointment SET status_code = ? WHERE status = ? AND status_code <> ?",
+                    code, entry.getKey(), code);
+        }
+        if (migrated == 0) {
+            return;
+        }
+        System.out.println("Migrated " + migrated + " appointment statuses to status_code");
+
         try {
-            checkAndCreateReviewsTable();
+            // Rollup rows were keyed on the old spellings
+            analyticsRepository.rebuild();
         } catch (Exception e) {
-            System.err.println("Error checking/creating reviews table: " + e.getMessage());
+            // Rollup tables not created yet; checkAndCreateAnalyticsTables() populates them
+        }
+    }
+
+    private void addColumnIfNotExists(String table, String column, String definition) {
+        if (hasColumn(table, column)) {
+            return;
         }
+        System.out.println("Adding missing column " + column + " to table " + table);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    private boolean hasColumn(String table, String column) {
+        String[] columns = jdbcTemplate.queryForRowSet("SELECT * FROM " + table + " WHERE 1 = 0")
+                .getMetaData().getColumnNames();
+        for (String name : columns) {
+            if (name.equalsIgnoreCase(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkAndCreateAnalyticsTables() {
+        // Replaces appointment_daily_stats, which keyed on the status name. The old table is
+        // left for instances of the previous release during a rolling deploy; drop it after.
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS appointment_status_daily_stats (" +
+                "stat_date DATE NOT NULL, " +
+                "DR_ID INT NOT NULL, " +
+                "status_code TINYINT NOT NULL, " +
+                "appointment_count INT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (stat_date, DR_ID, status_code), " +
+                "INDEX idx_appt_status_stats_doctor (DR_ID, stat_date)" +
+                ")");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS review_daily_stats (" +
+                "stat_date DATE NOT NULL, " +
+                "DR_ID INT NOT NULL, " +
+                "review_count INT NOT NULL DEFAULT 0, " +
+                "rating_sum INT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (stat_date, DR_ID), " +
+                "INDEX idx_review_stats_doctor (DR_ID, stat_date)" +
+                ")");
+
+        // First start against an existing database: backfill from the source tables
+        if (analyticsRepository.needsRebuild()) {
+            System.out.println("Populating analytics rollup tables...");
+            analyticsRepository.rebuild();
+        }
+    }
+
+    private void checkAndCreatePasswordResetTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS password_reset_tokens (" +
+                "token_hash CHAR(64) NOT NULL PRIMARY KEY, " +
+                "user_type VARCHAR(10) NOT NULL, " +
+                "user_id INT NOT NULL, " +
+                "expires_at TIMESTAMP NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL, " +
+                "INDEX idx_reset_user (user_type, user_id), " +
+                "INDEX idx_reset_expires (expires_at)" +
+                ")");
+    }
+
+    private void checkAndCreateMedicineStockTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS medicine_stock (" +
+                "Med_ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                "name VARCHAR(100) NOT NULL, " +
+                "quantity INT NOT NULL DEFAULT 0, " +
+                "reorder_level INT NOT NULL DEFAULT 0, " +
+                "updated_at TIMESTAMP NULL, " +
+                "UNIQUE KEY uk_medicine_stock_name (name)" +
+                ")");
+    }
+
+    private void checkAndCreateReplicaHeartbeatTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (" +
+                "id TINYINT PRIMARY KEY, " +
+                "beat_millis BIGINT NOT NULL" +
+                ")");
+    }
+
+    private void checkAndCreateEntityVersionsTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS entity_versions (" +
+                "resource VARCHAR(50) PRIMARY KEY, " +
+                "version BIGINT NOT NULL DEFAULT 0" +
+                ")");
+    }
+
+    private void checkAndCreateSliceInvalidationsTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS slice_invalidations (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "slice_key VARCHAR(64) NOT NULL, " +
+                "origin CHAR(36) NOT NULL, " +
+                "created_millis BIGINT NOT NULL, " +
+                "INDEX idx_slice_invalidations_created (created_millis)" +
+                ")");
+    }
+
+    private void checkAndCreateIdempotencyTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS idempotency_keys (" +
+                "scope VARCHAR(50) NOT NULL, " +
+                "idem_key VARCHAR(100) NOT NULL, " +
+                "request_hash CHAR(64) NOT NULL, " +
+                "response_body MEDIUMTEXT NOT NULL, " +
+                "pending BOOLEAN NOT NULL DEFAULT FALSE, " +
+                "created_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (scope, idem_key), " +
+                "INDEX idx_idempotency_created (created_at)" +
+                ")");
+        // Claimed before the request runs, completed after; rows from before this are all complete
+        addColumnIfNotExists("idempotency_keys", "pending", "BOOLEAN NOT NULL DEFAULT FALSE");
     }
 
     private void checkAndCreateReviewsTable() {
@@ -58,25 +271,27 @@ public class DatabaseInitializer {
         }
     }
 
-    private void addShortTextColumnIfNotExists(String table, String column) {
-        try {
-            jdbcTemplate.queryForObject("SELECT " + column + " FROM " + table + " LIMIT 1", Object.class);
-            System.out.println("Column " + column + " already exists in table " + table);
-        } catch (Exception e) {
-            // Column likely missing
-            System.out.println("Adding missing column " + column + " to table " + table);
-            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " VARCHAR(255) NULL");
+    private void addIndexIfNotExists(String table, String index, String columns) {
+        if (hasIndex(table, index)) {
+            System.out.println("Index " + index + " already exists on table " + table);
+            return;
         }
+        System.out.println("Adding missing index " + index + " to table " + table);
+        jdbcTemplate.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
     }
 
-    private void addTimestampColumnIfNotExists(String table, String column) {
-        try {
-            jdbcTemplate.queryForObject("SELECT " + column + " FROM " + table + " LIMIT 1", Object.class);
-            System.out.println("Column " + column + " already exists in table " + table);
-        } catch (Exception e) {
-            // Column likely missing
-            System.out.println("Adding missing column " + column + " to table " + table);
-            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " TIMESTAMP NULL");
-        }
+    // JDBC metadata rather than information_schema.statistics, which only MySQL has
+    private boolean hasIndex(String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet indexes = connection.getMetaData()
+                    .getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }));
     }
 }
@@ -0,0 +1,36 @@
+package com.hospital.backend.config;
+
+import com.hospital.backend.repository.EntityVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version counters per resource type, kept in the entity_versions table and
+ * bumped by the services after every write. Every node reads the same counter,
+ * so an ETag from one instance stays valid, or is invalidated, on all of them.
+ * Answering a conditional GET costs one primary-key lookup instead of the
+ * underlying query.
+ */
+@Component
+public class EntityVersions {
+
+    public static final String SPECIALIZATIONS = "specializations";
+    public static final String DOCTORS = "doctors";
+    public static final String REVIEWS = "reviews";
+
+    @Autowired
+    private EntityVersionRepository entityVersionRepository;
+
+    public long current(String resource) {
+        return entityVersionRepository.getVersion(resource);
+    }
+
+    // Called once the write has been made, so a reader never pairs a new tag with old rows
+    public void bump(String resource) {
+        entityVersionRepository.increment(resource);
+    }
+
+    public String etag(String resource) {
+        return "\"" + resource + "-" + current(resource) + "\"";
+    }
+}
@@ -0,0 +1,38 @@
+package com.hospital.backend.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a LocalDate as yyyy-MM-dd by filling a small char buffer, avoiding the
+ * DateTimeFormatter machinery the default serializer goes through per value.
+ */
+public class IsoDateSerializer extends JsonSerializer<LocalDate> {
+
+    @Override
+    public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(value.toString());
+            return;
+        }
+        char[] buf = new char[10];
+        writeDigits(buf, 0, year, 4);
+        buf[4] = '-';
+        writeDigits(buf, 5, value.getMonthValue(), 2);
+        buf[7] = '-';
+        writeDigits(buf, 8, value.getDayOfMonth(), 2);
+        gen.writeString(buf, 0, buf.length);
+    }
+
+    static void writeDigits(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
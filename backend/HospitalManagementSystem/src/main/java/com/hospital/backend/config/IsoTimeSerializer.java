@@ -0,0 +1,26 @@
+package com.hospital.backend.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalTime;
+
+/**
+ * Writes a LocalTime as HH:mm:ss, the same shape java.sql.Time produces for the
+ * Appointment entity, without going through DateTimeFormatter.
+ */
+public class IsoTimeSerializer extends JsonSerializer<LocalTime> {
+
+    @Override
+    public void serialize(LocalTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        char[] buf = new char[8];
+        IsoDateSerializer.writeDigits(buf, 0, value.getHour(), 2);
+        buf[2] = ':';
+        IsoDateSerializer.writeDigits(buf, 3, value.getMinute(), 2);
+        buf[5] = ':';
+        IsoDateSerializer.writeDigits(buf, 6, value.getSecond(), 2);
+        gen.writeString(buf, 0, buf.length);
+    }
+}
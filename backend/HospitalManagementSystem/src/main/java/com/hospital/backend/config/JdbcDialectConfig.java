@@ -0,0 +1,17 @@
+package com.hospital.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jdbc.core.dialect.JdbcMySqlDialect;
+import org.springframework.data.relational.core.dialect.Dialect;
+
+@Configuration
+public class JdbcDialectConfig {
+
+    // Spring Data JDBC otherwise opens a connection during startup just to detect the
+    // dialect. We always run on MySQL/MariaDB, so declare it up front.
+    @Bean
+    public Dialect jdbcDialect() {
+        return JdbcMySqlDialect.INSTANCE;
+    }
+}
@@ -0,0 +1,450 @@
+package com.hospital.backend.config;
+
+import com.hospital.backend.dto.MedicineCount;
+import com.hospital.backend.dto.PatientMedicineUsage;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over prescription.medicine. The free text is split
+ * into lowercase drug-name terms (dosages, units and frequency words dropped) and
+ * each term maps to a sorted posting list of prescription ids, stored as varint
+ * deltas. A forward entry per prescription keeps its patient, doctor, appointment
+ * date and terms so usage queries never touch the database.
+ *
+ * PrescriptionRepositoryImpl keeps the index current after each committed write.
+ * A rebuild loads a fresh copy from the table while the old one keeps serving;
+ * changes made during the rebuild are replayed onto the new copy before the swap.
+ */
+@Component
+public class MedicineIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "mg", "mcg", "ml", "gm", "tab", "tabs", "tablet", "tablets", "cap", "caps", "capsule", "capsules",
+            "syrup", "inj", "injection", "drop", "drops", "cream", "ointment", "gel", "spray", "dose", "doses",
+            "once", "twice", "thrice", "daily", "day", "days", "week", "weeks", "month", "times", "each", "every",
+            "after", "before", "with", "without", "food", "meal", "meals", "morning", "noon", "evening", "night",
+            "bedtime", "and", "for", "the", "per", "needed", "sos", "bid", "tid", "qid", "tds", "prn");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Data data = new Data(); // guarded by lock
+    private List<Change> pending; // non-null while a rebuild is loading; guarded by lock
+    private boolean built;
+    private long lastRebuildMillis;
+    private long lastRebuildAt;
+
+    /** Adds or replaces one prescription. doctorId and date are null when it has no appointment. */
+    public void put(int prescriptionId, int patientId, Integer doctorId, LocalDate date, String medicine) {
+        Change change = new Change(prescriptionId, patientId, doctorId, date, medicine, false);
+        lock.writeLock().lock();
+        try {
+            data.apply(change);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int prescriptionId) {
+        Change change = new Change(prescriptionId, 0, null, null, null, true);
+        lock.writeLock().lock();
+        try {
+            data.apply(change);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Starts a rebuild; rows added to the builder replace the whole index on {@link #install}. */
+    public Builder newBuilder() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            return new Builder(System.nanoTime());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void install(Builder builder) {
+        lock.writeLock().lock();
+        try {
+            for (Change change : pending) {
+                builder.next.apply(change);
+            }
+            pending = null;
+            data = builder.next;
+            built = true;
+            lastRebuildMillis = (System.nanoTime() - builder.startNanos) / 1_000_000;
+            lastRebuildAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abandon() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return built;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of prescriptions matching every query term; each term matches as a prefix ("amox"). */
+    public int[] find(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Medicine name must contain at least one drug name");
+        }
+        lock.readLock().lock();
+        try {
+            return data.find(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Patients prescribed a matching medicine on or after since, most recent first. */
+    public List<PatientMedicineUsage> patientsPrescribed(String query, LocalDate since) {
+        int[] ids = find(query);
+        long sinceDay = since.toEpochDay();
+        Map<Integer, int[]> byPatient = new HashMap<>(); // patient -> {count, last epoch day}
+        lock.readLock().lock();
+        try {
+            for (int id : ids) {
+                Doc doc = data.docs.get(id);
+                if (doc == null || doc.epochDay == Doc.NO_DATE || doc.epochDay < sinceDay) {
+                    continue;
+                }
+                int[] usage = byPatient.computeIfAbsent(doc.patientId, p -> new int[] { 0, Integer.MIN_VALUE });
+                usage[0]++;
+                usage[1] = Math.max(usage[1], doc.epochDay);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<PatientMedicineUsage> result = new ArrayList<>(byPatient.size());
+        byPatient.forEach((patientId, usage) ->
+                result.add(new PatientMedicineUsage(patientId, usage[0], LocalDate.ofEpochDay(usage[1]))));
+        result.sort(Comparator.comparing(PatientMedicineUsage::lastPrescribed).reversed()
+                .thenComparing(PatientMedicineUsage::patientId));
+        return result;
+    }
+
+    /** Most prescribed medicine terms, for one doctor or all when doctorId is null; since may be null. */
+    public List<MedicineCount> topMedicines(Integer doctorId, LocalDate since, int limit) {
+        long sinceDay = since != null ? since.toEpochDay() : Long.MIN_VALUE;
+        Map<String, int[]> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (doctorId != null) {
+                PostingList prescriptions = data.doctors.get(doctorId);
+                if (prescriptions != null) {
+                    for (int id : prescriptions.toArray()) {
+                        count(data.docs.get(id), sinceDay, counts);
+                    }
+                }
+            } else {
+                for (Doc doc : data.docs.values()) {
+                    count(doc, sinceDay, counts);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<MedicineCount> result = new ArrayList<>(counts.size());
+        counts.forEach((term, count) -> result.add(new MedicineCount(term, count[0])));
+        result.sort(Comparator.comparingInt(MedicineCount::prescriptions).reversed()
+                .thenComparing(MedicineCount::medicine));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            long bytes = 0;
+            for (PostingList list : data.terms.values()) {
+                postings += list.size;
+                bytes += list.length;
+            }
+            stats.put("built", built);
+            stats.put("prescriptions", data.docs.size());
+            stats.put("terms", data.terms.size());
+            stats.put("postings", postings);
+            stats.put("postingBytes", bytes);
+            // Same postings as plain int arrays
+            stats.put("uncompressedBytes", postings * Integer.BYTES);
+            stats.put("doctors", data.doctors.size());
+            stats.put("rebuilding", pending != null);
+            stats.put("lastRebuildMillis", lastRebuildMillis);
+            stats.put("lastRebuildAt", lastRebuildAt == 0 ? null : new Date(lastRebuildAt));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    /** Drug-name terms of a medicine text, in order and without duplicates. */
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            // Drug names start with a letter; "500mg", "2x" and "10" are dosages
+            if (token.length() >= 3 && Character.isLetter(token.charAt(0))
+                    && !STOP_WORDS.contains(token) && !terms.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static void count(Doc doc, long sinceDay, Map<String, int[]> counts) {
+        if (doc == null || (sinceDay != Long.MIN_VALUE && (doc.epochDay == Doc.NO_DATE || doc.epochDay < sinceDay))) {
+            return;
+        }
+        for (String term : doc.terms) {
+            counts.computeIfAbsent(term, t -> new int[1])[0]++;
+        }
+    }
+
+    public static final class Builder {
+        private final Data next = new Data();
+        private final long startNanos;
+
+        private Builder(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public void add(int prescriptionId, int patientId, Integer doctorId, LocalDate date, String medicine) {
+            next.apply(new Change(prescriptionId, patientId, doctorId, date, medicine, false));
+        }
+    }
+
+    private record Change(int prescriptionId, int patientId, Integer doctorId, LocalDate date, String medicine,
+            boolean removed) {
+    }
+
+    private static final class Doc {
+        static final int NO_DATE = Integer.MIN_VALUE;
+
+        final int patientId;
+        final int doctorId; // 0 when there is no appointment
+        final int epochDay;
+        final String[] terms;
+
+        Doc(int patientId, int doctorId, int epochDay, String[] terms) {
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.epochDay = epochDay;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Data {
+        final TreeMap<String, PostingList> terms = new TreeMap<>();
+        final HashMap<Integer, Doc> docs = new HashMap<>();
+        final HashMap<Integer, PostingList> doctors = new HashMap<>();
+
+        void apply(Change change) {
+            Doc old = docs.remove(change.prescriptionId());
+            if (old != null) {
+                for (String term : old.terms) {
+                    removePosting(terms, term, change.prescriptionId());
+                }
+                if (old.doctorId != 0) {
+                    removePosting(doctors, old.doctorId, change.prescriptionId());
+                }
+            }
+            if (change.removed()) {
+                return;
+            }
+            String[] docTerms = tokenize(change.medicine()).toArray(new String[0]);
+            int doctorId = change.doctorId() != null ? change.doctorId() : 0;
+            int epochDay = change.date() != null ? (int) change.date().toEpochDay() : Doc.NO_DATE;
+            docs.put(change.prescriptionId(), new Doc(change.patientId(), doctorId, epochDay, docTerms));
+            for (int i = 0; i < docTerms.length; i++) {
+                PostingList list = terms.get(docTerms[i]);
+                if (list == null) {
+                    list = new PostingList();
+                    terms.put(docTerms[i], list);
+                } else {
+                    // Share the key string instead of holding a copy per prescription
+                    docTerms[i] = terms.ceilingKey(docTerms[i]);
+                }
+                list.add(change.prescriptionId());
+            }
+            if (doctorId != 0) {
+                doctors.computeIfAbsent(doctorId, d -> new PostingList()).add(change.prescriptionId());
+            }
+        }
+
+        int[] find(List<String> queryTerms) {
+            int[] result = null;
+            for (String queryTerm : queryTerms) {
+                // Every indexed term starting with the query term
+                SortedMap<String, PostingList> matches = terms.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+                int[] ids;
+                if (matches.size() == 1) {
+                    ids = matches.values().iterator().next().toArray();
+                } else {
+                    Set<Integer> union = new HashSet<>();
+                    for (PostingList list : matches.values()) {
+                        for (int id : list.toArray()) {
+                            union.add(id);
+                        }
+                    }
+                    ids = union.stream().mapToInt(Integer::intValue).sorted().toArray();
+                }
+                result = result == null ? ids : intersect(result, ids);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private static <K> void removePosting(Map<K, PostingList> map, K key, int id) {
+            PostingList list = map.get(key);
+            if (list != null && list.remove(id) && list.size == 0) {
+                map.remove(key);
+            }
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    /**
+     * Sorted ids as varint-encoded gaps. Ids are auto-increment, so new
+     * prescriptions append in place; only an edit to an older one re-encodes.
+     */
+    static final class PostingList {
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int size;
+        private int last;
+
+        void add(int id) {
+            if (id > last) {
+                append(id - last);
+                last = id;
+                size++;
+                return;
+            }
+            int[] ids = toArray();
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                return;
+            }
+            int insert = -at - 1;
+            int[] updated = new int[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insert);
+            updated[insert] = id;
+            System.arraycopy(ids, insert, updated, insert + 1, ids.length - insert);
+            encode(updated);
+        }
+
+        boolean remove(int id) {
+            int[] ids = toArray();
+            int at = Arrays.binarySearch(ids, id);
+            if (at < 0) {
+                return false;
+            }
+            int[] updated = new int[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, at);
+            System.arraycopy(ids, at + 1, updated, at, ids.length - at - 1);
+            encode(updated);
+            return true;
+        }
+
+        int[] toArray() {
+            int[] ids = new int[size];
+            int position = 0;
+            int value = 0;
+            for (int i = 0; i < size; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += gap;
+                ids[i] = value;
+            }
+            return ids;
+        }
+
+        private void encode(int[] ids) {
+            bytes = new byte[Math.max(4, ids.length * 2)];
+            length = 0;
+            size = 0;
+            last = 0;
+            for (int id : ids) {
+                append(id - last);
+                last = id;
+                size++;
+            }
+        }
+
+        private void append(int gap) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.hospital.backend.config;
+
+import com.hospital.backend.dto.AppointmentSlot;
+import com.hospital.backend.dto.ChatGPTRequest;
+import com.hospital.backend.dto.ChatGPTResponse;
+import com.hospital.backend.dto.PrescriptionDTO;
+import com.hospital.backend.dto.PromptRequest;
+import com.hospital.backend.entity.Admin;
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.entity.Patient;
+import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.entity.Review;
+import com.hospital.backend.entity.Specialization;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the native image build (-Pnative).
+ * Controller payloads are picked up by Spring AOT on its own; this covers the
+ * types that are only reached reflectively.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.HospitalRuntimeHints.class)
+@RegisterReflectionForBinding({ ChatGPTRequest.class, ChatGPTRequest.Message.class,
+        ChatGPTResponse.class, ChatGPTResponse.Choice.class, ChatGPTResponse.Choice.Message.class,
+        PromptRequest.class,
+        // What the repositoryImpl RowMappers build. The mappers are called directly and need no hints,
+        // but these also reach Jackson inside other payloads, SSE events and replayed idempotent responses
+        Admin.class, Appointment.class, AppointmentSlot.class, Doctor.class, Patient.class,
+        Prescription.class, PrescriptionDTO.class, Review.class, Specialization.class })
+public class NativeHintsConfig {
+
+    static class HospitalRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Instantiated by Jackson through @JsonDeserialize(using = ...)
+            hints.reflection().registerType(SqlDateDeserializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerType(SqlTimeDeserializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            // and @JsonSerialize(using = ...)
+            hints.reflection().registerType(IsoDateSerializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerType(IsoTimeSerializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            hints.resources().registerPattern("schema.sql");
+        }
+    }
+}
@@ -3,18 +3,18 @@ package com.hospital.backend.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 public class OpenAPIConfiguration {
 
-    @Value("${openai.api.url}")
-    private String apiUrl;
-
+    // Only the chatbot uses this client, so build it on first use instead of at startup
     @Bean
-    public RestClient restClient() {
+    @Lazy
+    public RestClient restClient(@Value("${openai.api.url}") String apiUrl) {
         return RestClient.builder()
                 .baseUrl(apiUrl)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.hospital.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets in front of the expensive endpoints: the OpenAI proxy,
+ * the login lookups, password reset and the full patient list, plus a looser budget for the rest
+ * of the API. Clients are keyed by IP (see ClientAddressResolver): nothing here
+ * validates a bearer token, so keying on one would hand out a fresh bucket per
+ * forged token. Each bucket is a single AtomicLong updated by CAS (GCRA), so
+ * there is no lock on the request path. An exhausted bucket gets 429 with
+ * Retry-After. When max-clients buckets are live, idle ones are swept and, if
+ * none are, a new client is refused rather than given a bucket it would share.
+ *
+ * Runs after the security filter chain so CORS headers are already on a 429,
+ * and before AdaptiveConcurrencyFilter so rejected clients never take a slot.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Value("${hospital.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @Value("${hospital.rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    @Value("${hospital.rate-limit.chat.per-minute:10}")
+    private int chatPerMinute;
+
+    @Value("${hospital.rate-limit.chat.burst:5}")
+    private int chatBurst;
+
+    @Value("${hospital.rate-limit.login.per-minute:10}")
+    private int loginPerMinute;
+
+    @Value("${hospital.rate-limit.login.burst:5}")
+    private int loginBurst;
+
+    @Value("${hospital.rate-limit.password-reset.per-minute:10}")
+    private int passwordResetPerMinute;
+
+    @Value("${hospital.rate-limit.password-reset.burst:3}")
+    private int passwordResetBurst;
+
+    @Value("${hospital.rate-limit.patients.per-minute:30}")
+    private int patientsPerMinute;
+
+    @Value("${hospital.rate-limit.patients.burst:10}")
+    private int patientsBurst;
+
+    @Value("${hospital.rate-limit.default.per-minute:600}")
+    private int defaultPerMinute;
+
+    @Value("${hospital.rate-limit.default.burst:100}")
+    private int defaultBurst;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+    private List<Route> routes;
+
+    @PostConstruct
+    void init() {
+        // First match wins, so the specific routes come before the catch-all
+        routes = List.of(
+                new Route("chat", "POST", "/api/chat/**", chatPerMinute, chatBurst),
+                new Route("login", "POST", "/api/auth/*/login", loginPerMinute, loginBurst),
+                // Both steps share one budget: requests send email, confirmations guess tokens
+                new Route("password-reset", "POST", "/api/**/forgot-password", passwordResetPerMinute, passwordResetBurst),
+                new Route("password-reset", "POST", "/api/**/reset-password", passwordResetPerMinute, passwordResetBurst),
+                new Route("patients", "GET", "/api/patients", patientsPerMinute, patientsBurst),
+                new Route("default", null, "/api/**", defaultPerMinute, defaultBurst));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = match(request);
+        if (route == null || route.perMinute <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = route.name + "|" + clientAddressResolver.resolve(request);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients && !makeRoom()) {
+                // Every bucket is in use: existing clients keep their budgets, the newcomer waits
+                reject(response, route, TimeUnit.SECONDS.toNanos(1));
+                return;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+
+        long waitNanos = bucket.tryAcquire(route.intervalNanos, route.toleranceNanos);
+        if (waitNanos > 0) {
+            reject(response, route, waitNanos);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Drops buckets that have refilled completely; they behave exactly like a new one
+    @Scheduled(fixedDelayString = "${hospital.rate-limit.cleanup-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    // Sweeps idle buckets early, at most once a second, so a full table is not rescanned per request
+    private boolean makeRoom() {
+        long now = System.nanoTime();
+        long last = lastSweepNanos.get();
+        if (now - last >= TimeUnit.SECONDS.toNanos(1) && lastSweepNanos.compareAndSet(last, now)) {
+            evictIdleBuckets();
+        }
+        return buckets.size() < maxClients;
+    }
+
+    private Route match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equals(request.getMethod()))
+                    && pathMatcher.match(route.pattern, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Route route, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now() + "\",\"status\":429," +
+                "\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded for " + route.name +
+                " requests, retry in " + retryAfterSeconds + "s\"}");
+    }
+
+    private static final class Route {
+        final String name;
+        final String method;
+        final String pattern;
+        final int perMinute;
+        // One token every intervalNanos; up to `burst` tokens may be taken back to back
+        final long intervalNanos;
+        final long toleranceNanos;
+
+        Route(String name, String method, String pattern, int perMinute, int burst) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.perMinute = perMinute;
+            this.intervalNanos = perMinute > 0 ? TimeUnit.MINUTES.toNanos(1) / perMinute : 0;
+            this.toleranceNanos = intervalNanos * Math.max(1, burst);
+        }
+    }
+
+    /**
+     * Token bucket in GCRA form: the only state is the theoretical arrival time of
+     * the next request. A request is admitted when pushing that time forward by one
+     * interval keeps it within the burst tolerance of now.
+     */
+    private static final class Bucket {
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        // Returns 0 when admitted, otherwise how long until a token is available
+        long tryAcquire(long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long now = System.nanoTime();
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - toleranceNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hospital.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, switched on by listing replica JDBC URLs in
+ * hospital.datasource.replicas (comma separated). Without it the primary pool is
+ * the DataSource, as Spring Boot would have built it. The primary is built from
+ * spring.datasource.* as usual; replicas share its driver and, unless overridden,
+ * its credentials.
+ *
+ * The beans are always registered and the property is read when they are
+ * created, not in a condition: the AOT build (-Pstartup) fixes conditions at
+ * build time, so a @ConditionalOnProperty here would ignore the runtime setting.
+ *
+ * To try it locally, point spring.datasource.url and hospital.datasource.replicas
+ * at two MySQL instances. If they are not replicating, also set
+ * hospital.datasource.replica-max-lag-ms=0, or the replica never catches up with
+ * the heartbeat and every read falls back to the primary.
+ */
+@Configuration
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${hospital.datasource.replicas:}") List<String> urls,
+            @Value("${hospital.datasource.replica-username:}") String username,
+            @Value("${hospital.datasource.replica-password:}") String password,
+            @Value("${hospital.datasource.replica-pool-size:10}") int poolSize,
+            @Value("${hospital.datasource.replica-max-lag-ms:5000}") long maxLagMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            // The primary's credentials, resolved only when there are replicas: the AOT training run
+            // (-Pstartup) starts the context without the DB_USER/DB_PASS they refer to
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        if (!replicas.isEmpty()) {
+            System.out.println("Read replicas configured: " + replicas.size());
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis);
+    }
+
+    // What JdbcTemplate and the transaction manager use. Connections are fetched at the
+    // first statement, by when @Transactional(readOnly = true) has been applied.
+    // Without replicas there is nothing to route, so the primary pool is used directly.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        if (!replicaRoutingDataSource.hasReplicas()) {
+            return primaryDataSource;
+        }
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
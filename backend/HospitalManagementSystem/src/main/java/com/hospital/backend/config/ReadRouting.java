@@ -0,0 +1,60 @@
+package com.hospital.backend.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread hints for ReplicaRoutingDataSource. A read may go to a replica when
+ * it runs in a @Transactional(readOnly = true) method, or on a thread that such a
+ * method handed work to through {@link #propagate}. A request from a session that
+ * has just written is pinned to the primary, which overrides both.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isReadOnly() {
+        // A read-write transaction always wins, even on a thread that inherited the read-only hint
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static void pinToPrimary(boolean pinned) {
+        set(PINNED, pinned);
+    }
+
+    // TaskDecorator for executors that fan reads out: the task runs with the submitting thread's hints
+    public static Runnable propagate(Runnable task) {
+        boolean readOnly = isReadOnly();
+        boolean pinned = isPinnedToPrimary();
+        return () -> {
+            Boolean previousReadOnly = READ_ONLY.get();
+            Boolean previousPinned = PINNED.get();
+            set(READ_ONLY, readOnly);
+            set(PINNED, pinned);
+            try {
+                task.run();
+            } finally {
+                set(READ_ONLY, Boolean.TRUE.equals(previousReadOnly));
+                set(PINNED, Boolean.TRUE.equals(previousPinned));
+            }
+        };
+    }
+
+    private static void set(ThreadLocal<Boolean> flag, boolean value) {
+        if (value) {
+            flag.set(Boolean.TRUE);
+        } else {
+            flag.remove();
+        }
+    }
+}
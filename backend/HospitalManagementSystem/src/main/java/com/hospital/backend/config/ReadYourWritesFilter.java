@@ -0,0 +1,95 @@
+package com.hospital.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes for replica routing. A write (any method but GET, HEAD or
+ * OPTIONS) runs pinned to the primary and sets a short-lived cookie; while it is
+ * valid, that browser's reads stay on the primary too, so it never sees a replica
+ * that has not caught up with its own change. The cookie carries the expiry
+ * time, so it works across app instances without server-side state. Passes
+ * requests straight through when no replicas are configured.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "HMS_PRIMARY_UNTIL";
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    // Raised to replica-max-lag-ms plus one check interval if shorter: a replica may lag that much and still serve reads
+    @Value("${hospital.datasource.sticky-ms:5000}")
+    private long stickyMillis;
+
+    @Value("${hospital.datasource.replica-max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${hospital.datasource.replica-check-ms:1000}")
+    private long checkMillis;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !replicaRoutingDataSource.hasReplicas();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !isRead(request.getMethod());
+        if (write) {
+            // Set before the chain runs; the response may be committed by the time it returns
+            long window = maxLagMillis > 0 ? Math.max(stickyMillis, maxLagMillis + checkMillis) : stickyMillis;
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie
+                    .from(COOKIE, String.valueOf(System.currentTimeMillis() + window))
+                    .path("/")
+                    .maxAge(Duration.ofMillis(window).plusSeconds(1))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build().toString());
+        }
+        ReadRouting.pinToPrimary(write || recentlyWrote(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.pinToPrimary(false);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static boolean recentlyWrote(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,190 @@
+package com.hospital.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only work (see ReadRouting) to the replicas in turn and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy, so the
+ * choice is made at the first statement, once the transaction is flagged.
+ *
+ * Lag is measured with a heartbeat: each check writes the current time to
+ * replica_heartbeat on the primary, then reads it back from every replica. A
+ * replica whose copy is older than maxLagMillis, or that cannot be reached, is
+ * taken out of rotation until it catches up; with no replica left, reads fall
+ * back to the primary. The heartbeat age overstates lag by at most one check
+ * interval, and includes clock skew between app instances. With maxLagMillis
+ * <= 0 lag is not checked, only reachability; that mode is for two unrelated
+ * local databases standing in for a primary and a replica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private final JdbcTemplate primaryJdbc;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder pinnedConnections = new LongAdder();
+    private final LongAdder fallbackConnections = new LongAdder();
+    private volatile boolean heartbeatFailing;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagMillis) {
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.maxLagMillis = maxLagMillis;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            targets.put(replica.name, pool);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadRouting.isReadOnly()) {
+            return PRIMARY;
+        }
+        if (ReadRouting.isPinnedToPrimary()) {
+            pinnedConnections.increment();
+            return PRIMARY;
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy) {
+                replica.connections.increment();
+                replicaConnections.increment();
+                return replica.name;
+            }
+        }
+        fallbackConnections.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.datasource.replica-check-ms:1000}")
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        if (maxLagMillis > 0) {
+            writeHeartbeat();
+        }
+        for (Replica replica : replicas) {
+            replica.check();
+        }
+    }
+
+    private void writeHeartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primaryJdbc.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", now) == 0) {
+                primaryJdbc.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", now);
+            }
+            heartbeatFailing = false;
+        } catch (Exception e) {
+            // Another instance inserting the row first is harmless; anything else shows up as replica lag
+            if (!heartbeatFailing) {
+                heartbeatFailing = true;
+                System.err.println("Error writing replica heartbeat: " + e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> perReplica = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", replica.name);
+            entry.put("healthy", replica.healthy);
+            entry.put("lagMs", replica.lagMillis);
+            entry.put("connections", replica.connections.sum());
+            entry.put("lastError", replica.lastError);
+            perReplica.add(entry);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", hasReplicas());
+        stats.put("maxLagMs", maxLagMillis);
+        stats.put("replicaConnections", replicaConnections.sum());
+        stats.put("pinnedToPrimary", pinnedConnections.sum());
+        stats.put("fallbackToPrimary", fallbackConnections.sum());
+        stats.put("replicas", perReplica);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private final class Replica {
+        final HikariDataSource pool;
+        final String name;
+        final JdbcTemplate jdbc;
+        final LongAdder connections = new LongAdder();
+        // Out of rotation until the first check has passed
+        volatile boolean healthy;
+        volatile long lagMillis = -1;
+        volatile String lastError;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+            this.name = pool.getPoolName();
+            this.jdbc = new JdbcTemplate(pool);
+            this.jdbc.setQueryTimeout(2);
+        }
+
+        void check() {
+            boolean wasHealthy = healthy;
+            try {
+                if (maxLagMillis > 0) {
+                    Long beat = jdbc.queryForObject("SELECT MAX(beat_millis) FROM replica_heartbeat", Long.class);
+                    if (beat == null) {
+                        healthy = false;
+                        lagMillis = -1;
+                        lastError = "no heartbeat replicated yet";
+                    } else {
+                        lagMillis = Math.max(0, System.currentTimeMillis() - beat);
+                        healthy = lagMillis <= maxLagMillis;
+                        lastError = healthy ? null : "lagging";
+                    }
+                } else {
+                    jdbc.queryForObject("SELECT 1", Integer.class);
+                    lagMillis = 0;
+                    healthy = true;
+                    lastError = null;
+                }
+            } catch (Exception e) {
+                healthy = false;
+                lagMillis = -1;
+                lastError = e.getMessage();
+            }
+            if (wasHealthy != healthy) {
+                System.out.println("Read replica " + name + (healthy ? " in rotation"
+                        : " out of rotation (" + (lagMillis >= 0 ? "lag " + lagMillis + " ms" : lastError) + ")"));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hospital.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled maintenance jobs such as the nightly analytics reconciliation
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,6 @@
 package com.hospital.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,9 +16,10 @@ import java.util.Arrays;
 @Configuration
 public class SecurityConfig {
 
+    // Cost 10 is about 50-100 ms per hash; size it with PasswordHashingBenchmark
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${hospital.password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
     }
 
     @Bean
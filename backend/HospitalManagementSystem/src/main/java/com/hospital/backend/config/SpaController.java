@@ -1,18 +1,62 @@
 package com.hospital.backend.config;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 @Controller
 public class SpaController {
 
+    @Value("${hospital.static.location:file:/app/static/}")
+    private String staticLocation;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    // index.html is small and requested on every client-side route, so keep it in memory
+    private volatile byte[] indexHtml;
+
     @RequestMapping(value = {
             "/",
             "/patient/**",
             "/doctor/**",
             "/admin/**"
     })
-    public String forward() {
-        return "forward:/index.html";
+    public ResponseEntity<byte[]> forward() throws IOException {
+        byte[] body = loadIndexHtml();
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_HTML)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    private byte[] loadIndexHtml() throws IOException {
+        byte[] body = indexHtml;
+        if (body == null) {
+            Resource resource = resourceLoader.getResource(staticLocation + "index.html");
+            if (!resource.exists()) {
+                resource = resourceLoader.getResource("classpath:/static/index.html");
+            }
+            if (!resource.exists()) {
+                return null;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                body = in.readAllBytes();
+            }
+            indexHtml = body;
+        }
+        return body;
     }
 }
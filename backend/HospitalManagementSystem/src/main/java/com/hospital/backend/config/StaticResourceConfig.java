@@ -0,0 +1,38 @@
+package com.hospital.backend.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the bundled React build. Vite fingerprints everything under /assets, so
+ * those files are cached for a year as immutable; the rest is revalidated.
+ * EncodedResourceResolver picks the .br/.gz siblings written at image build time
+ * when the client accepts them.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    @Value("${hospital.static.location:file:/app/static/}")
+    private String staticLocation;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations(staticLocation + "assets/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/**")
+                .addResourceLocations(staticLocation, "classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
@@ -0,0 +1,63 @@
+package com.hospital.backend.controller;
+
+import com.hospital.backend.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Admin reports served from the rollup tables; from/to default to the last 30 days
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/appointments/daily")
+    public List<Map<String, Object>> getDailyVolume(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId) {
+        return analyticsService.getDailyVolume(from, to, doctorId);
+    }
+
+    @GetMapping("/appointments/specializations")
+    public List<Map<String, Object>> getVolumeBySpecialization(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getVolumeBySpecialization(from, to);
+    }
+
+    @GetMapping("/appointments/status")
+    public List<Map<String, Object>> getStatusDistribution(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getStatusDistribution(from, to);
+    }
+
+    @GetMapping("/appointments/cancellations")
+    public List<Map<String, Object>> getCancellationRates(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getCancellationRates(from, to);
+    }
+
+    @GetMapping("/ratings")
+    public List<Map<String, Object>> getRatingTrend(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId) {
+        return analyticsService.getRatingTrend(from, to, doctorId);
+    }
+
+    @PostMapping("/reconcile")
+    public Map<String, String> reconcile() {
+        analyticsService.reconcile();
+        return Map.of("message", "Analytics rollups reconciled");
+    }
+}
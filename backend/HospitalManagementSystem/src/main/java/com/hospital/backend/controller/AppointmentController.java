@@ -1,11 +1,19 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
+import com.hospital.backend.dto.AppointmentSlot;
 import com.hospital.backend.entity.Appointment;
 import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.service.AppointmentEventService;
 import com.hospital.backend.service.AppointmentService;
+import com.hospital.backend.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,10 +26,21 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AppointmentEventService appointmentEventService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @PostMapping
     @ResponseStatus(org.springframework.http.HttpStatus.CREATED)
-    public Appointment createAppointment(@RequestBody Appointment appointment) {
-        return appointmentService.createAppointment(appointment);
+    public Appointment createAppointment(@RequestBody Appointment appointment,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("appointment", idempotencyKey, appointment, Appointment.class,
+                () -> appointmentService.createAppointment(appointment));
     }
 
     @GetMapping
@@ -30,14 +49,20 @@ public class AppointmentController {
     }
 
     @GetMapping("/{id}")
-    public Appointment getAppointmentById(@PathVariable int id) {
-        return appointmentService.getAppointmentById(id)
+    public ResponseEntity<Appointment> getAppointmentById(@PathVariable int id, WebRequest request) {
+        Appointment appointment = appointmentService.getAppointmentById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        return conditionalGet.respondVersioned(request, appointment, appointment.getVersion());
     }
 
+    // If-Match carries the ETag from the GET, or the body its version; a stale one is rejected with 409,
+    // neither with 428
     @PutMapping("/{id}")
-    public Appointment updateAppointment(@PathVariable int id, @RequestBody Appointment appointment) {
-        return appointmentService.updateAppointment(id, appointment);
+    public ResponseEntity<Appointment> updateAppointment(@PathVariable int id, @RequestBody Appointment appointment,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Appointment updated = appointmentService.updateAppointment(id, appointment,
+                conditionalGet.ifMatchVersion(ifMatch));
+        return conditionalGet.versioned(updated, updated.getVersion());
     }
 
     @DeleteMapping("/{id}")
@@ -68,8 +93,10 @@ public class AppointmentController {
     }
 
     @PutMapping("/{id}/status")
-    public Appointment updateAppointmentStatus(@PathVariable int id, @RequestParam String status) {
-        return appointmentService.updateStatus(id, status);
+    public ResponseEntity<Appointment> updateAppointmentStatus(@PathVariable int id, @RequestParam String status,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Appointment updated = appointmentService.updateStatus(id, status, conditionalGet.ifMatchVersion(ifMatch));
+        return conditionalGet.versioned(updated, updated.getVersion());
     }
 
     @GetMapping("/doctor/{doctorId}/upcoming")
@@ -92,4 +119,30 @@ public class AppointmentController {
         return appointmentService.getAppointmentsByDoctorAndDate(doctorId, date);
     }
 
-}
\ No newline at end of file
+    // Lightweight projections for calendar and list views (no description, java.time fields)
+    @GetMapping("/doctor/{doctorId}/date/{date}/slots")
+    public List<AppointmentSlot> getSlotsByDoctorAndDate(@PathVariable int doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return appointmentService.getSlotsByDoctorAndDate(doctorId, date);
+    }
+
+    @GetMapping("/doctor/{doctorId}/calendar")
+    public List<AppointmentSlot> getDoctorCalendar(@PathVariable int doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return appointmentService.getDoctorCalendar(doctorId, from, to);
+    }
+
+    @GetMapping("/patient/{patientId}/list")
+    public List<AppointmentSlot> getPatientAppointmentList(@PathVariable int patientId) {
+        return appointmentService.getPatientAppointmentList(patientId);
+    }
+
+    // Server-sent events: the day's slots on connect, then again whenever they change
+    @GetMapping(value = "/doctor/{doctorId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToDoctorDay(@PathVariable int doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return appointmentEventService.subscribe(doctorId, date != null ? date : LocalDate.now());
+    }
+
+}
@@ -1,10 +1,19 @@
 package com.hospital.backend.controller;
+import com.hospital.backend.config.ClientAddressResolver;
 import com.hospital.backend.entity.LoginRequest;
 import com.hospital.backend.entity.LoginResponse;
 import com.hospital.backend.service.AuthenticationService;
+import com.hospital.backend.service.LoginAttemptService;
+import com.hospital.backend.service.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.function.Function;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
@@ -13,19 +22,39 @@ public class AuthController {
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
     @PostMapping("/doctor/login")
-    public LoginResponse doctorLogin(@RequestBody LoginRequest loginRequest) {
-        return authenticationService.authenticateDoctor(loginRequest);
+    public ResponseEntity<LoginResponse> doctorLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        return login("DOCTOR", loginRequest, request, authenticationService::authenticateDoctor);
     }
 
     @PostMapping("/patient/login")
-    public LoginResponse patientLogin(@RequestBody LoginRequest loginRequest) {
-        return authenticationService.authenticatePatient(loginRequest);
+    public ResponseEntity<LoginResponse> patientLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        return login("PATIENT", loginRequest, request, authenticationService::authenticatePatient);
     }
 
     @PostMapping("/admin/login")
-    public LoginResponse adminLogin(@RequestBody LoginRequest loginRequest) {
-        return authenticationService.authenticateAdmin(loginRequest);
+    public ResponseEntity<LoginResponse> adminLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        return login("ADMIN", loginRequest, request, authenticationService::authenticateAdmin);
+    }
+
+    // userType is patient, doctor or admin
+    @PostMapping("/{userType}/forgot-password")
+    public void forgotPassword(@PathVariable String userType, @RequestBody Map<String, String> request) {
+        passwordResetService.initiateReset(userType, request.get("email"));
+    }
+
+    @PostMapping("/{userType}/reset-password")
+    public void resetPassword(@PathVariable String userType, @RequestBody Map<String, String> request) {
+        passwordResetService.resetPassword(userType, request.get("token"), request.get("newPassword"));
     }
 
     @PostMapping("/logout")
@@ -37,4 +66,25 @@ public class AuthController {
     public boolean validateToken(@RequestHeader("Authorization") String token) {
         return authenticationService.validateToken(token);
     }
-}
\ No newline at end of file
+
+    // Locked-out accounts and addresses are refused here, before any database lookup
+    private ResponseEntity<LoginResponse> login(String userType, LoginRequest loginRequest, HttpServletRequest request,
+            Function<LoginRequest, LoginResponse> authenticate) {
+        String clientIp = clientAddressResolver.resolve(request);
+        long retryAfter = loginAttemptService.checkBlocked(userType, loginRequest.getEmail(), clientIp);
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(retryAfter))
+                    .body(new LoginResponse(null, userType, 0, null, null,
+                            "Too many failed login attempts, try again in " + retryAfter + " seconds", false));
+        }
+
+        LoginResponse response = authenticate.apply(loginRequest);
+        if (response.isSuccess()) {
+            loginAttemptService.recordSuccess(userType, loginRequest.getEmail(), clientIp);
+        } else {
+            loginAttemptService.recordFailure(userType, loginRequest.getEmail(), clientIp);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
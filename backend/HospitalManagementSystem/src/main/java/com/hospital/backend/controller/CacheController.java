@@ -0,0 +1,48 @@
+package com.hospital.backend.controller;
+
+import com.hospital.backend.config.AppointmentSliceCache;
+import com.hospital.backend.service.MedicineUsageService;
+import com.hospital.backend.service.PrescriptionPdfService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private AppointmentSliceCache appointmentSliceCache;
+
+    @Autowired
+    private PrescriptionPdfService prescriptionPdfService;
+
+    @Autowired
+    private MedicineUsageService medicineUsageService;
+
+    // Hit ratio, invalidations and served-entry age of the (doctor, date) slice cache
+    @GetMapping("/appointment-slices")
+    public Map<String, Object> getAppointmentSliceStats() {
+        return appointmentSliceCache.getStats();
+    }
+
+    // Size, hit ratio and render time of the rendered prescription PDF cache
+    @GetMapping("/prescription-pdfs")
+    public Map<String, Object> getPrescriptionPdfStats() {
+        return prescriptionPdfService.getStats();
+    }
+
+    // Terms, postings and compressed size of the prescription medicine index
+    @GetMapping("/medicine-index")
+    public Map<String, Object> getMedicineIndexStats() {
+        return medicineUsageService.getIndexStats();
+    }
+
+    @PostMapping("/medicine-index/rebuild")
+    public Map<String, Object> rebuildMedicineIndex() {
+        medicineUsageService.rebuildIndex();
+        return medicineUsageService.getIndexStats();
+    }
+}
@@ -3,6 +3,7 @@ package com.hospital.backend.controller;
 import com.hospital.backend.dto.PromptRequest;
 import com.hospital.backend.service.ChatGPTService;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,7 +15,7 @@ public class ChatGPTController {
 
     private final ChatGPTService chatGPTService;
 
-    public ChatGPTController(ChatGPTService chatGPTService) {
+    public ChatGPTController(@Lazy ChatGPTService chatGPTService) {
         this.chatGPTService = chatGPTService;
     }
 
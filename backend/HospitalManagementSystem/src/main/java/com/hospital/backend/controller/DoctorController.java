@@ -1,11 +1,21 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
+import com.hospital.backend.config.EntityVersions;
+import com.hospital.backend.dto.DoctorDashboard;
+import com.hospital.backend.dto.ImportResult;
 import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.service.DoctorDashboardService;
 import com.hospital.backend.service.DoctorService;
+import com.hospital.backend.service.ImportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,20 +28,43 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private DoctorDashboardService doctorDashboardService;
+
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @PostMapping
     public Doctor createDoctor(@RequestBody Doctor doctor) {
         return doctorService.saveDoctor(doctor);
     }
 
+    // Bulk import: text/csv with a header row, or application/x-ndjson with one doctor per line
+    @PostMapping("/import")
+    public ImportResult importDoctors(HttpServletRequest request,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return importService.importDoctors(request.getInputStream(), request.getContentType(), chunkSize);
+    }
+
     @GetMapping
-    public List<Doctor> getAllDoctors() {
-        return doctorService.getAllDoctors();
+    public ResponseEntity<List<Doctor>> getAllDoctors(WebRequest request) {
+        return conditionalGet.respond(request, "doctors", EntityVersions.DOCTORS, doctorService::getAllDoctors);
     }
 
     @GetMapping("/{id}")
-    public Doctor getDoctorById(@PathVariable int id) {
-        return doctorService.getDoctorById(id)
-                .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
+    public ResponseEntity<Doctor> getDoctorById(@PathVariable int id, WebRequest request) {
+        return conditionalGet.respond(request, "doctors", EntityVersions.DOCTORS,
+                () -> doctorService.getDoctorById(id)
+                        .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id)));
+    }
+
+    // Counts and first page of today / upcoming / past appointments, prescriptions and patients
+    @GetMapping("/{id}/dashboard")
+    public DoctorDashboard getDashboard(@PathVariable int id, @RequestParam(defaultValue = "10") int size) {
+        return doctorDashboardService.getDashboard(id, size);
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,63 @@
+package com.hospital.backend.controller;
+
+import com.hospital.backend.config.AdaptiveConcurrencyFilter;
+import com.hospital.backend.config.ReplicaRoutingDataSource;
+import com.hospital.backend.service.LoginAttemptService;
+import com.hospital.backend.service.MailDeliveryService;
+import com.hospital.backend.service.PasswordService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/load")
+@CrossOrigin(origins = "*")
+public class LoadSheddingController {
+
+    @Autowired
+    private AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private MailDeliveryService mailDeliveryService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    // Current concurrency limit, in-flight and queued requests, latency and shed counts per priority
+    @GetMapping("/concurrency")
+    public Map<String, Object> getConcurrencyStats() {
+        return adaptiveConcurrencyFilter.getStats();
+    }
+
+    // Password executor queue depth, hash latency, rejections and legacy plaintext logins
+    @GetMapping("/password-hashing")
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordService.getStats();
+    }
+
+    // Failed-login windows: lockouts, attempts refused per email / IP and the account lookups they saved
+    @GetMapping("/login-attempts")
+    public Map<String, Object> getLoginAttemptStats() {
+        return loginAttemptService.getStats();
+    }
+
+    // Outgoing mail queue, batches, pooled SMTP connections and reconnects
+    @GetMapping("/mail")
+    public Map<String, Object> getMailStats() {
+        return mailDeliveryService.getStats();
+    }
+
+    // Read replica health and lag, and how many connections went to a replica, stayed on the primary
+    // after a write (read-your-writes) or fell back to it because no replica was in rotation
+    @GetMapping("/replicas")
+    public Map<String, Object> getReplicaStats() {
+        return replicaRoutingDataSource.getStats();
+    }
+}
@@ -1,11 +1,20 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
+import com.hospital.backend.dto.ImportResult;
+import com.hospital.backend.dto.PatientTimeline;
 import com.hospital.backend.entity.Patient;
+import com.hospital.backend.service.ImportService;
 import com.hospital.backend.service.PatientService;
+import com.hospital.backend.service.PatientTimelineService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,15 +27,33 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @GetMapping
     public List<Patient> getAllPatients() {
         return patientService.getAllPatients();
     }
 
     @GetMapping("/{id}")
-    public Patient getPatientById(@PathVariable int id) {
-        return patientService.getPatientById(id)
+    public ResponseEntity<Patient> getPatientById(@PathVariable int id, WebRequest request) {
+        Patient patient = patientService.getPatientById(id)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
+        return conditionalGet.respondVersioned(request, patient, patient.getVersion());
+    }
+
+    // Appointments, prescriptions and reviews merged newest first, one page at a time
+    @GetMapping("/{id}/timeline")
+    public PatientTimeline getPatientTimeline(@PathVariable int id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return patientTimelineService.getTimeline(id, page, size);
     }
 
     @PostMapping
@@ -35,9 +62,20 @@ public class PatientController {
         return patientService.save(patient);
     }
 
+    // Bulk import: text/csv with a header row, or application/x-ndjson with one patient per line
+    @PostMapping("/import")
+    public ImportResult importPatients(HttpServletRequest request,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return importService.importPatients(request.getInputStream(), request.getContentType(), chunkSize);
+    }
+
+    // If-Match carries the ETag from the GET, or the body its version; a stale one is rejected with 409,
+    // neither with 428
     @PutMapping("/{id}")
-    public Patient updatePatient(@PathVariable int id, @RequestBody Patient patient) {
-        return patientService.updatePatient(id, patient);
+    public ResponseEntity<Patient> updatePatient(@PathVariable int id, @RequestBody Patient patient,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Patient updated = patientService.updatePatient(id, patient, conditionalGet.ifMatchVersion(ifMatch));
+        return conditionalGet.versioned(updated, updated.getVersion());
     }
 
     @DeleteMapping("/{id}")
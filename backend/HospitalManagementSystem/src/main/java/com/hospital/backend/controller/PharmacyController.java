@@ -0,0 +1,61 @@
+package com.hospital.backend.controller;
+
+import com.hospital.backend.dto.LowStockAlert;
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.service.PharmacyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pharmacy")
+@CrossOrigin(origins = "*")
+public class PharmacyController {
+
+    @Autowired
+    private PharmacyService pharmacyService;
+
+    // Quantities are live: they include dispenses not yet written back
+    @GetMapping("/stock")
+    public List<MedicineStock> getAllStock() {
+        return pharmacyService.getAllStock();
+    }
+
+    @GetMapping("/stock/{id}")
+    public MedicineStock getStockById(@PathVariable int id) {
+        return pharmacyService.getStockById(id);
+    }
+
+    @PostMapping("/stock")
+    public MedicineStock createStock(@RequestBody MedicineStock stock) {
+        return pharmacyService.createStock(stock);
+    }
+
+    @PutMapping("/stock/{id}/reorder-level")
+    public MedicineStock updateReorderLevel(@PathVariable int id, @RequestParam int level) {
+        return pharmacyService.updateReorderLevel(id, level);
+    }
+
+    @PostMapping("/stock/{id}/restock")
+    public MedicineStock restock(@PathVariable int id, @RequestParam int quantity) {
+        return pharmacyService.restock(id, quantity);
+    }
+
+    @DeleteMapping("/stock/{id}")
+    public void deleteStock(@PathVariable int id) {
+        pharmacyService.deleteStock(id);
+    }
+
+    @GetMapping("/alerts")
+    public List<LowStockAlert> getLowStockAlerts() {
+        return pharmacyService.getLowStockAlerts();
+    }
+
+    // Dispense, shortfall and write-back counters
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return pharmacyService.getStats();
+    }
+}
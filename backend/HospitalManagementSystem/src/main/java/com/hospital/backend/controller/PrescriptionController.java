@@ -1,12 +1,24 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
 import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.dto.MedicineCount;
+import com.hospital.backend.dto.PatientMedicineUsage;
 import com.hospital.backend.dto.PrescriptionDTO;
+import com.hospital.backend.dto.PrescriptionDocument;
+import com.hospital.backend.service.IdempotencyService;
+import com.hospital.backend.service.MedicineUsageService;
+import com.hospital.backend.service.PrescriptionPdfService;
 import com.hospital.backend.service.PrescriptionService;
 import com.hospital.backend.repository.AppointmentRepository;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +33,18 @@ public class PrescriptionController {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PrescriptionPdfService prescriptionPdfService;
+
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
+    @Autowired
+    private MedicineUsageService medicineUsageService;
+
     @GetMapping
     public List<PrescriptionDTO> getAllPrescriptions() {
         return enrichPrescriptions(prescriptionService.getAllPrescriptions());
@@ -33,9 +57,28 @@ public class PrescriptionController {
         return enrichPrescription(prescription);
     }
 
+    // Written to the response as it renders; repeat downloads come from the PDF cache
+    @GetMapping("/{id}/pdf")
+    public void getPrescriptionPdf(@PathVariable int id, WebRequest request, HttpServletResponse response)
+            throws IOException {
+        PrescriptionDocument document = prescriptionPdfService.getDocument(id);
+        String etag = "\"" + prescriptionPdfService.getVersion(document) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (conditionalGet.matchesIfNoneMatch(request, etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType("application/pdf");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"prescription-" + id + ".pdf\"");
+        prescriptionPdfService.writePdf(document, response.getOutputStream());
+    }
+
     @PostMapping
-    public Prescription createPrescription(@RequestBody Prescription prescription) {
-        return prescriptionService.createPrescription(prescription);
+    public Prescription createPrescription(@RequestBody Prescription prescription,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("prescription", idempotencyKey, prescription, Prescription.class,
+                () -> prescriptionService.createPrescription(prescription));
     }
 
     @PutMapping("/{id}")
@@ -68,6 +111,19 @@ public class PrescriptionController {
         return enrichPrescriptions(prescriptionService.getPrescriptionsByDate(date));
     }
 
+    // Answered from the medicine index; "amox" matches amoxicillin
+    @GetMapping("/medicines/patients")
+    public List<PatientMedicineUsage> getPatientsPrescribed(@RequestParam String medicine,
+            @RequestParam(defaultValue = "30") int days) {
+        return medicineUsageService.getPatientsPrescribed(medicine, days);
+    }
+
+    @GetMapping("/medicines/top")
+    public List<MedicineCount> getTopMedicines(@RequestParam(required = false) Integer doctorId,
+            @RequestParam(required = false) Integer days, @RequestParam(defaultValue = "10") int limit) {
+        return medicineUsageService.getTopMedicines(doctorId, days, limit);
+    }
+
     @PostMapping("/{id}/send-email")
     public String sendPrescriptionEmail(@PathVariable int id) {
         try {
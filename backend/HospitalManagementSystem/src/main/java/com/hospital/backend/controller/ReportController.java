@@ -0,0 +1,36 @@
+package com.hospital.backend.controller;
+
+import com.hospital.backend.service.ReportingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Ad-hoc admin filters over the in-memory appointment snapshot (may lag recent writes, see ReportingServiceImpl)
+@RestController
+@RequestMapping("/api/admin/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private ReportingService reportingService;
+
+    @GetMapping("/appointments")
+    public Map<String, Object> queryAppointments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String bloodGroup,
+            @RequestParam(required = false) String groupBy) {
+        return reportingService.queryAppointments(from, to, doctorId, status, bloodGroup, groupBy);
+    }
+
+    @PostMapping("/refresh")
+    public Map<String, String> refresh() {
+        reportingService.refresh();
+        return Map.of("message", "Reporting snapshot refreshed");
+    }
+}
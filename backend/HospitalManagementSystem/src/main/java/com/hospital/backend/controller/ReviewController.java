@@ -1,10 +1,14 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Review;
 import com.hospital.backend.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -17,6 +21,9 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Review addReview(@RequestBody Review review) {
@@ -29,7 +36,8 @@ public class ReviewController {
     }
 
     @GetMapping("/doctor/{doctorId}/summary")
-    public Map<String, Object> getDoctorRatingSummary(@PathVariable int doctorId) {
-        return reviewService.getDoctorRatingSummary(doctorId);
+    public ResponseEntity<Map<String, Object>> getDoctorRatingSummary(@PathVariable int doctorId, WebRequest request) {
+        return conditionalGet.respond(request, "reviews-summary", EntityVersions.REVIEWS,
+                () -> reviewService.getDoctorRatingSummary(doctorId));
     }
 }
@@ -1,9 +1,13 @@
 package com.hospital.backend.controller;
 
+import com.hospital.backend.config.ConditionalGetSupport;
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Specialization;
 import com.hospital.backend.service.SpecializationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,15 +20,20 @@ public class SpecializationController {
     @Autowired
     private SpecializationService specializationService;
 
+    @Autowired
+    private ConditionalGetSupport conditionalGet;
+
     @GetMapping
-    public List<Specialization> getAllSpecializations() {
-        return specializationService.getAllSpecializations();
+    public ResponseEntity<List<Specialization>> getAllSpecializations(WebRequest request) {
+        return conditionalGet.respond(request, "specializations", EntityVersions.SPECIALIZATIONS,
+                specializationService::getAllSpecializations);
     }
 
     @GetMapping("/{id}")
-    public Specialization getSpecializationById(@PathVariable int id) {
-        return specializationService.getSpecializationById(id)
-                .orElseThrow(() -> new RuntimeException("Specialization not found with id: " + id));
+    public ResponseEntity<Specialization> getSpecializationById(@PathVariable int id, WebRequest request) {
+        return conditionalGet.respond(request, "specializations", EntityVersions.SPECIALIZATIONS,
+                () -> specializationService.getSpecializationById(id)
+                        .orElseThrow(() -> new RuntimeException("Specialization not found with id: " + id)));
     }
 
     @PostMapping
@@ -0,0 +1,32 @@
+package com.hospital.backend.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hospital.backend.config.IsoDateSerializer;
+import com.hospital.backend.config.IsoTimeSerializer;
+import com.hospital.backend.entity.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Read-only projection of an appointment for calendar and list views. Field names
+ * match the Appointment JSON so clients can switch without changes; the
+ * description and cancel flag are left out.
+ */
+public record AppointmentSlot(
+        int apId,
+        int pId,
+        int drId,
+        @JsonSerialize(using = IsoDateSerializer.class) LocalDate appointmentDate,
+        @JsonSerialize(using = IsoTimeSerializer.class) LocalTime appointmentTime,
+        AppointmentStatus status) {
+
+    // Past PENDING/SCHEDULED appointments read as COMPLETED, as in the appointment list sweep
+    public AppointmentSlot withDerivedStatus(LocalDate today) {
+        if (appointmentDate != null && appointmentDate.isBefore(today)
+                && status.isActive()) {
+            return new AppointmentSlot(apId, pId, drId, appointmentDate, appointmentTime, AppointmentStatus.COMPLETED);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,8 @@
+package com.hospital.backend.dto;
+
+import java.util.List;
+
+/** What issuing a prescription took from stock, by medicine name. */
+public record DispenseResult(int prescriptionId, List<String> dispensed, List<String> outOfStock,
+        List<String> notStocked) {
+}
@@ -0,0 +1,102 @@
+package com.hospital.backend.dto;
+
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.entity.Patient;
+import com.hospital.backend.entity.Prescription;
+
+import java.util.List;
+
+/**
+ * Everything the doctor home screen needs in one response: a count and the first
+ * page of each section.
+ */
+public class DoctorDashboard {
+    private Doctor doctor;
+    private Section<Appointment> today;
+    private Section<Appointment> upcoming;
+    private Section<Appointment> past;
+    private Section<Prescription> prescriptions;
+    private Section<Patient> patients;
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public Section<Appointment> getToday() {
+        return today;
+    }
+
+    public void setToday(Section<Appointment> today) {
+        this.today = today;
+    }
+
+    public Section<Appointment> getUpcoming() {
+        return upcoming;
+    }
+
+    public void setUpcoming(Section<Appointment> upcoming) {
+        this.upcoming = upcoming;
+    }
+
+    public Section<Appointment> getPast() {
+        return past;
+    }
+
+    public void setPast(Section<Appointment> past) {
+        this.past = past;
+    }
+
+    public Section<Prescription> getPrescriptions() {
+        return prescriptions;
+    }
+
+    public void setPrescriptions(Section<Prescription> prescriptions) {
+        this.prescriptions = prescriptions;
+    }
+
+    public Section<Patient> getPatients() {
+        return patients;
+    }
+
+    public void setPatients(Section<Patient> patients) {
+        this.patients = patients;
+    }
+
+    public static class Section<T> {
+        private int total;
+        private List<T> items;
+
+        public Section() {
+        }
+
+        public Section(int total, List<T> items) {
+            this.total = total;
+            this.items = items;
+        }
+
+        public static <T> Section<T> firstPage(List<T> all, int size) {
+            return new Section<>(all.size(), List.copyOf(all.subList(0, Math.min(size, all.size()))));
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public void setTotal(int total) {
+            this.total = total;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public void setItems(List<T> items) {
+            this.items = items;
+        }
+    }
+}
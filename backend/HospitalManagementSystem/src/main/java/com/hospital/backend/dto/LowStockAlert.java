@@ -0,0 +1,7 @@
+package com.hospital.backend.dto;
+
+import java.time.LocalDateTime;
+
+/** A medicine at or below its reorder level, and since when. */
+public record LowStockAlert(int medId, String name, int available, int reorderLevel, LocalDateTime since) {
+}
@@ -0,0 +1,5 @@
+package com.hospital.backend.dto;
+
+/** A medicine term and the number of prescriptions it appears on. */
+public record MedicineCount(String medicine, int prescriptions) {
+}
@@ -0,0 +1,7 @@
+package com.hospital.backend.dto;
+
+import java.time.LocalDate;
+
+/** A patient prescribed a given medicine: how many times and the latest appointment date. */
+public record PatientMedicineUsage(int patientId, int prescriptions, LocalDate lastPrescribed) {
+}
@@ -0,0 +1,72 @@
+package com.hospital.backend.dto;
+
+import com.hospital.backend.entity.Patient;
+
+import java.util.List;
+
+/**
+ * A page of a patient's timeline, newest first, together with the patient record
+ * so the doctor view needs a single request.
+ */
+public class PatientTimeline {
+    private Patient patient;
+    private List<TimelineEntry> entries;
+    private int page;
+    private int size;
+    private int totalEntries;
+
+    public PatientTimeline() {
+    }
+
+    public PatientTimeline(Patient patient, List<TimelineEntry> entries, int page, int size, int totalEntries) {
+        this.patient = patient;
+        this.entries = entries;
+        this.page = page;
+        this.size = size;
+        this.totalEntries = totalEntries;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public List<TimelineEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<TimelineEntry> entries) {
+        this.entries = entries;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(int totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public boolean isHasMore() {
+        return (long) (page + 1) * size < totalEntries;
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One item of a patient's medical timeline. The original record (Appointment,
+ * PrescriptionDTO or Review) is carried as-is in data.
+ */
+public class TimelineEntry {
+
+    public static final String APPOINTMENT = "APPOINTMENT";
+    public static final String PRESCRIPTION = "PRESCRIPTION";
+    public static final String REVIEW = "REVIEW";
+
+    private String type;
+    private int id;
+    private LocalDateTime timestamp; // null when the source record has no date
+    private Integer doctorId;
+    private Object data;
+
+    public TimelineEntry() {
+    }
+
+    public TimelineEntry(String type, int id, LocalDateTime timestamp, Integer doctorId, Object data) {
+        this.type = type;
+        this.id = id;
+        this.timestamp = timestamp;
+        this.doctorId = doctorId;
+        this.data = data;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public void setData(Object data) {
+        this.data = data;
+    }
+}
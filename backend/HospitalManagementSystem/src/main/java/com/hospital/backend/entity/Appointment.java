@@ -26,7 +26,10 @@ public class Appointment {
 	@JsonDeserialize(using = SqlTimeDeserializer.class)
 	private Time appointmentTime;
 
-	private String status;
+	private AppointmentStatus status;
+
+	// Bumped on every write; updates only apply against the version they were read at
+	private Integer version;
 
 	public int getApId() {
 		return apId;
@@ -84,17 +87,38 @@ public class Appointment {
 		this.appointmentTime = appointmentTime;
 	}
 
-	public String getStatus() {
+	public AppointmentStatus getStatus() {
 		return status;
 	}
 
-	public void setStatus(String status) {
+	public void setStatus(AppointmentStatus status) {
 		this.status = status;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	// Default constructor
 	public Appointment() {
 		this.cancelConfirm = 0;
-		this.status = "PENDING";
+		this.status = AppointmentStatus.PENDING;
+	}
+
+	// Deep copy, for caches that must not share instances with their callers
+	public Appointment(Appointment other) {
+		this.apId = other.apId;
+		this.pId = other.pId;
+		this.drId = other.drId;
+		this.descript = other.descript;
+		this.cancelConfirm = other.cancelConfirm;
+		this.appointmentDate = other.appointmentDate != null ? (Date) other.appointmentDate.clone() : null;
+		this.appointmentTime = other.appointmentTime != null ? (Time) other.appointmentTime.clone() : null;
+		this.status = other.status;
+		this.version = other.version;
 	}
 }
\ No newline at end of file
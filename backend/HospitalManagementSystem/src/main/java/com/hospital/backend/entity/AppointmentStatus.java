@@ -0,0 +1,116 @@
+package com.hospital.backend.entity;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Appointment lifecycle, stored as a TINYINT in appointment.status_code.
+ *
+ * PENDING -> SCHEDULED -> CHECKED_IN -> COMPLETED | CANCELLED. Check-in is
+ * optional: a scheduled appointment can be completed directly. A pending one can
+ * also be checked in or cancelled, or completed once its date has passed.
+ * COMPLETED and CANCELLED are final. Codes are persisted, so never renumber
+ * them; new states get the next code.
+ */
+public enum AppointmentStatus {
+
+    PENDING(0),
+    SCHEDULED(1),
+    COMPLETED(2),
+    CANCELLED(3),
+    // Written "CHECKED IN" by the UI and in the legacy status column
+    CHECKED_IN(4, "CHECKED IN");
+
+    private static final AppointmentStatus[] BY_CODE = { PENDING, SCHEDULED, COMPLETED, CANCELLED, CHECKED_IN };
+
+    private final int code;
+    private final String label;
+
+    AppointmentStatus(int code) {
+        this(code, null);
+    }
+
+    AppointmentStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /** How the status appears in JSON and in the legacy status column. */
+    @JsonValue
+    public String getLabel() {
+        return label != null ? label : name();
+    }
+
+    public static AppointmentStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalStateException("Unknown appointment status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /** Case-insensitive, and accepts the spellings older clients and rows used. */
+    @JsonCreator
+    public static AppointmentStatus parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Appointment status is required");
+        }
+        switch (value.trim().toUpperCase(Locale.ROOT)) {
+            case "PENDING":
+                return PENDING;
+            case "SCHEDULED":
+            case "CONFIRMED":
+                return SCHEDULED;
+            case "COMPLETED":
+            case "DONE":
+                return COMPLETED;
+            case "CANCELLED":
+            case "CANCELED":
+            case "CANCEL":
+                return CANCELLED;
+            case "CHECKED IN":
+            case "CHECKED_IN":
+            case "CHECKEDIN":
+                return CHECKED_IN;
+            default:
+                throw new IllegalArgumentException("Unknown appointment status: " + value
+                        + " (expected PENDING, SCHEDULED, CHECKED IN, COMPLETED or CANCELLED)");
+        }
+    }
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == CANCELLED;
+    }
+
+    /** Still expected to take place, or under way: pending, scheduled or checked in. */
+    public boolean isActive() {
+        return !isFinal();
+    }
+
+    public boolean canTransitionTo(AppointmentStatus next) {
+        switch (this) {
+            case PENDING:
+                return next != PENDING;
+            case SCHEDULED:
+                return next == CHECKED_IN || next == COMPLETED || next == CANCELLED;
+            case CHECKED_IN:
+                return next == COMPLETED || next == CANCELLED;
+            default:
+                return false;
+        }
+    }
+
+    // CASE expression naming status_code in SQL, for grouping by status name
+    public static String sqlName(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (AppointmentStatus status : BY_CODE) {
+            sql.append(" WHEN ").append(status.code).append(" THEN '").append(status.getLabel()).append('\'');
+        }
+        return sql.append(" ELSE 'UNKNOWN' END").toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.hospital.backend.entity;
+
+public class MedicineStock {
+    private int medId;
+    private String name;       // lowercase drug name, matched against prescription medicine terms
+    private int quantity;      // units on hand
+    private int reorderLevel;  // low-stock alert at or below this
+
+    // Default constructor
+    public MedicineStock() {}
+
+    public int getMedId() {
+        return medId;
+    }
+
+    public void setMedId(int medId) {
+        this.medId = medId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getReorderLevel() {
+        return reorderLevel;
+    }
+
+    public void setReorderLevel(int reorderLevel) {
+        this.reorderLevel = reorderLevel;
+    }
+}
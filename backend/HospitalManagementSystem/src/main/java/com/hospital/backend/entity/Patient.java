@@ -14,8 +14,8 @@ public class Patient {
     private String email;
     private String address;
     private String password;
-    private String resetToken;
-    private java.time.LocalDateTime resetTokenExpiryDate;
+    // Bumped on every write; updates only apply against the version they were read at
+    private Integer version;
 
     // Constructors
     public Patient() {
@@ -117,19 +117,11 @@ public class Patient {
         this.password = password;
     }
 
-    public String getResetToken() {
-        return resetToken;
+    public Integer getVersion() {
+        return version;
     }
 
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
-    }
-
-    public java.time.LocalDateTime getResetTokenExpiryDate() {
-        return resetTokenExpiryDate;
-    }
-
-    public void setResetTokenExpiryDate(java.time.LocalDateTime resetTokenExpiryDate) {
-        this.resetTokenExpiryDate = resetTokenExpiryDate;
+    public void setVersion(Integer version) {
+        this.version = version;
     }
 }
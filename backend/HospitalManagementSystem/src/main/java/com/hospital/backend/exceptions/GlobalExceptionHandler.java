@@ -68,6 +68,45 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflictException(
+            VersionConflictException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", ex.getErrorMessage());
+        body.put("errorCode", ex.getErrorCode());
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<Object> handlePreconditionRequiredException(
+            PreconditionRequiredException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.PRECONDITION_REQUIRED.value());
+        body.put("error", "Precondition Required");
+        body.put("message", ex.getErrorMessage());
+        body.put("errorCode", ex.getErrorCode());
+
+        return new ResponseEntity<>(body, HttpStatus.PRECONDITION_REQUIRED);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Object> handleIdempotencyConflictException(
+            IdempotencyConflictException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", ex.getErrorMessage());
+        body.put("errorCode", ex.getErrorCode());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).header("Retry-After", "1").body(body);
+    }
+
     @ExceptionHandler(BusinessRuleException.class)
     public ResponseEntity<Object> handleBusinessRuleException(
             BusinessRuleException ex, WebRequest request) {
@@ -81,6 +120,19 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Object> handleServiceBusyException(
+            ServiceBusyException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getErrorMessage());
+        body.put("errorCode", ex.getErrorCode());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgument(
             IllegalArgumentException ex, WebRequest request) {
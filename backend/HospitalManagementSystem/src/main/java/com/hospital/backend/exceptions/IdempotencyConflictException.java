@@ -0,0 +1,7 @@
+package com.hospital.backend.exceptions;
+
+public class IdempotencyConflictException extends HospitalException {
+    public IdempotencyConflictException(String errorMessage) {
+        super("IDEMPOTENCY_KEY_IN_USE", errorMessage);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hospital.backend.exceptions;
+
+// Not a request error: completes a MailDeliveryService future exceptionally
+public class MailDeliveryException extends RuntimeException {
+    // True when the connection broke mid-transaction, so the server may have accepted the message anyway
+    private final boolean outcomeUnknown;
+
+    public MailDeliveryException(String message, Throwable cause, boolean outcomeUnknown) {
+        super(message, cause);
+        this.outcomeUnknown = outcomeUnknown;
+    }
+
+    public boolean isOutcomeUnknown() {
+        return outcomeUnknown;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hospital.backend.exceptions;
+
+public class PreconditionRequiredException extends HospitalException {
+    public PreconditionRequiredException(String errorMessage) {
+        super("VERSION_REQUIRED", errorMessage);
+    }
+}
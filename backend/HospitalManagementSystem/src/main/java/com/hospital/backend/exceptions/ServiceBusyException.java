@@ -0,0 +1,7 @@
+package com.hospital.backend.exceptions;
+
+public class ServiceBusyException extends HospitalException {
+    public ServiceBusyException(String errorMessage) {
+        super("SERVICE_BUSY", errorMessage);
+    }
+}
@@ -0,0 +1,7 @@
+package com.hospital.backend.exceptions;
+
+public class VersionConflictException extends HospitalException {
+    public VersionConflictException(String errorMessage) {
+        super("VERSION_CONFLICT", errorMessage);
+    }
+}
@@ -6,4 +6,7 @@ import java.util.Optional;
 public interface AdminRepository {
     Optional<Admin> findByEmail(String email);
     Admin save(Admin admin);
+    int updatePassword(int id, String newPassword);
+    // Only while the stored hash is still currentHash
+    int rehashPassword(int id, String currentHash, String newHash);
 }
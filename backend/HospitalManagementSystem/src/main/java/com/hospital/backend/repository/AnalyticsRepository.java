@@ -0,0 +1,34 @@
+package com.hospital.backend.repository;
+
+import com.hospital.backend.entity.AppointmentStatus;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface AnalyticsRepository {
+    void recordAppointment(Date appointmentDate, Integer doctorId, AppointmentStatus status, int delta);
+
+    void flush();
+
+    void recordReview(LocalDate reviewDate, int doctorId, int rating, int delta);
+
+    void removeDoctor(int doctorId);
+
+    void removePatient(int patientId);
+
+    boolean needsRebuild();
+
+    void rebuild();
+
+    List<Map<String, Object>> getDailyVolume(LocalDate from, LocalDate to, Integer doctorId);
+
+    List<Map<String, Object>> getVolumeBySpecialization(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getStatusDistribution(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getCancellationRates(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getRatingTrend(LocalDate from, LocalDate to, Integer doctorId);
+}
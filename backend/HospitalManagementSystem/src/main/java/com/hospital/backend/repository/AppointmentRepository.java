@@ -1,9 +1,14 @@
 package com.hospital.backend.repository;
 
+import com.hospital.backend.dto.AppointmentSlot;
 import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.AppointmentStatus;
 import com.hospital.backend.entity.Doctor;
 
+import org.springframework.jdbc.core.RowCallbackHandler;
+
 import java.sql.Time;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +19,8 @@ public interface AppointmentRepository {
 
     Optional<Appointment> getAppointmentById(int id);
 
-    Appointment updateAppointment(Appointment appointment);
+    // Compare-and-set on version, bumping it; empty when the row changed since expectedVersion or is gone
+    Optional<Appointment> updateAppointment(Appointment appointment, int expectedVersion);
 
     void deleteAppointment(int id);
 
@@ -22,11 +28,14 @@ public interface AppointmentRepository {
 
     List<Appointment> getAppointmentsByPatient(int patientId);
 
-    List<Appointment> getAppointmentsByStatus(String status);
+    List<Appointment> getAppointmentsByPatientNewestFirst(int patientId);
+
+    List<Appointment> getAppointmentsByStatus(AppointmentStatus status);
 
     List<Appointment> getAppointmentsByDate(String date);
 
-    Appointment updateStatus(int id, String status);
+    // Only applies while the row is still at the version it was read at; empty if it was not
+    Optional<Appointment> updateStatus(Appointment current, AppointmentStatus status);
 
     List<Appointment> getUpcomingAppointments(int doctorId);
 
@@ -36,6 +45,18 @@ public interface AppointmentRepository {
 
     List<Appointment> getAppointmentsByDoctorAndDate(int doctorId, String date);
 
+    List<AppointmentSlot> getSlotsByDoctorAndDate(int doctorId, LocalDate date);
+
+    List<AppointmentSlot> getSlotsByDoctorBetween(int doctorId, LocalDate from, LocalDate to);
+
+    List<AppointmentSlot> getSlotsByPatient(int patientId);
+
+    // Streams Ap_ID, P_ID, DR_ID, appointment_date, status_code and the patient's Blood_Group row by row
+    void streamReportRows(RowCallbackHandler handler);
+
+    // Appointment writes made through this instance since startup
+    long getChangeCount();
+
     boolean existsById(int id);
 
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.hospital.backend.repository;
 
 import com.hospital.backend.entity.Doctor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface DoctorRepository {
     Doctor saveDoctor(Doctor doctor);
@@ -25,4 +27,11 @@ public interface DoctorRepository {
     boolean existsById(int id);
 
     int updatePassword(int id, String newPassword);
-}
\ No newline at end of file
+
+    // Same password in a new hash; a no-op if the password changed since currentHash was read
+    int rehashPassword(int id, String currentHash, String newHash);
+
+    void batchInsert(List<Doctor> doctors);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+}
@@ -0,0 +1,8 @@
+package com.hospital.backend.repository;
+
+public interface EntityVersionRepository {
+    // 0 when the resource has never been written
+    long getVersion(String resource);
+
+    void increment(String resource);
+}
@@ -0,0 +1,29 @@
+package com.hospital.backend.repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+public interface IdempotencyRepository {
+
+    // Completed or still pending, of any age; a pending row has no response body yet
+    Optional<StoredResponse> find(String scope, String key);
+
+    // Inserts a pending row; false if the key already has one
+    boolean claim(String scope, String key, String requestHash, Timestamp createdAt);
+
+    void complete(String scope, String key, String responseBody);
+
+    // Drops a pending claim whose request failed, so the key can be retried
+    void release(String scope, String key);
+
+    // Drops the key's row if it was created before the cutoff: expired, or abandoned mid-request
+    boolean deleteIfCreatedBefore(String scope, String key, Timestamp cutoff);
+
+    int deleteOlderThan(Timestamp cutoff);
+
+    record StoredResponse(String requestHash, String responseBody, long createdAtMillis) {
+        public boolean isPending() {
+            return responseBody == null;
+        }
+    }
+}
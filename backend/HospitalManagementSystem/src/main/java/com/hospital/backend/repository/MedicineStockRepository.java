@@ -0,0 +1,24 @@
+package com.hospital.backend.repository;
+
+import com.hospital.backend.entity.MedicineStock;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface MedicineStockRepository {
+    MedicineStock createMedicineStock(MedicineStock stock);
+
+    List<MedicineStock> getAllMedicineStock();
+
+    Optional<MedicineStock> getMedicineStockById(int id);
+
+    void updateReorderLevel(int id, int reorderLevel);
+
+    // quantity = quantity + delta; restocks are positive
+    void addQuantity(int id, int delta);
+
+    // Takes up to units out of quantity, never below zero; returns how many were taken
+    int reserve(int id, int units);
+
+    void deleteMedicineStock(int id);
+}
@@ -0,0 +1,21 @@
+package com.hospital.backend.repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+public interface PasswordResetTokenRepository {
+
+    void save(String tokenHash, String userType, int userId, Timestamp expiresAt);
+
+    Optional<ResetToken> findByHash(String tokenHash);
+
+    // Single use: only the caller that actually deletes the row may act on it
+    boolean consume(String tokenHash);
+
+    int deleteByUser(String userType, int userId);
+
+    int deleteExpired(Timestamp now, int limit);
+
+    record ResetToken(String userType, int userId, long expiresAtMillis) {
+    }
+}
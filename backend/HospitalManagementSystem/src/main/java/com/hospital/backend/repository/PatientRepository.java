@@ -1,8 +1,10 @@
 package com.hospital.backend.repository;
 
 import com.hospital.backend.entity.Patient;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface PatientRepository {
     Optional<Patient> getPatientById(int id);
@@ -21,6 +23,9 @@ public interface PatientRepository {
 
     Patient update(Patient patient);
 
+    // Compare-and-set on version, bumping it; 0 when the row changed since expectedVersion or is gone
+    int updateIfVersion(Patient patient, int expectedVersion);
+
     List<Patient> getPatientsByBloodGroup(String bloodGroup);
 
     boolean existsById(int id);
@@ -29,5 +34,10 @@ public interface PatientRepository {
 
     int updatePassword(int id, String newPassword);
 
-    Optional<Patient> findByResetToken(String token);
-}
\ No newline at end of file
+    // Same password in a new hash: leaves version alone, so open edit forms stay valid
+    int rehashPassword(int id, String currentHash, String newHash);
+
+    void batchInsert(List<Patient> patients);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+}
@@ -1,6 +1,9 @@
 package com.hospital.backend.repository;
 
+import com.hospital.backend.dto.PrescriptionDTO;
+import com.hospital.backend.dto.PrescriptionDocument;
 import com.hospital.backend.entity.Prescription;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +15,17 @@ public interface PrescriptionRepository {
 	 void deletePrescription(int id);
 	 List<Prescription> getPrescriptionsByDoctor(int doctorId);
 	 List<Prescription> getPrescriptionsByPatient(int patientId);
+    List<PrescriptionDTO> getPrescriptionDetailsByPatientNewestFirst(int patientId);
     List<Prescription> getPrescriptionsByAppointment(int appointmentId);
     List<Prescription> getPrescriptionsByDate(String date);
+    // Prescription with patient, appointment, doctor and specialization in one query
+    Optional<PrescriptionDocument> getPrescriptionDocument(int id);
 	boolean existsById(int id);
+    // Pr_ID, P_ID, medicine, DR_ID, appointment_date for every prescription, for the medicine index
+    void streamMedicineRows(RowCallbackHandler handler);
+    // Call before changing or deleting the appointment, patient or doctor, in the same transaction:
+    // their prescriptions are re-read into the medicine index once it commits
+    void reindexAppointmentAfterCommit(int appointmentId);
+    void reindexPatientAfterCommit(int patientId);
+    void reindexDoctorAfterCommit(int doctorId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.hospital.backend.repository;
+
+import java.util.List;
+
+public interface SliceInvalidationRepository {
+    void record(String sliceKey, String origin, long createdMillis);
+
+    // Keys invalidated by other origins at or after sinceMillis
+    List<String> findSince(long sinceMillis, String excludeOrigin);
+
+    int purgeBefore(long createdMillis);
+}
@@ -49,4 +49,15 @@ public class AdminRepositoryImpl implements AdminRepository {
             return admin;
         }
     }
+
+    @Override
+    public int updatePassword(int id, String newPassword) {
+        return jdbcTemplate.update("UPDATE admin SET Password = ? WHERE Ad_ID = ?", newPassword, id);
+    }
+
+    @Override
+    public int rehashPassword(int id, String currentHash, String newHash) {
+        return jdbcTemplate.update("UPDATE admin SET Password = ? WHERE Ad_ID = ? AND Password = ?",
+                newHash, id, currentHash);
+    }
 }
@@ -0,0 +1,252 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.entity.AppointmentStatus;
+import com.hospital.backend.repository.AnalyticsRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Reads and maintains the rollup tables appointment_status_daily_stats and
+ * review_daily_stats. Writers call the record methods with +1/-1 deltas, and
+ * rebuild() recomputes both tables from the source rows to correct any drift.
+ *
+ * Appointment deltas are not written inline: every booking on the same doctor
+ * and day would upsert the same row and serialise on its lock. They are summed
+ * in memory once the writing transaction commits and applied by flush() as one
+ * batch, so the rollups trail the source rows by up to flush-ms. Deltas still
+ * queued when the process dies are lost; the nightly rebuild corrects that.
+ */
+@Repository
+public class AnalyticsRepositoryImpl implements AnalyticsRepository {
+
+    private static final String UPSERT_APPOINTMENTS = "INSERT INTO appointment_status_daily_stats " +
+            "(stat_date, DR_ID, status_code, appointment_count) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE appointment_count = appointment_count + ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Sorted, so every flush locks rows in the same order and concurrent flushes cannot deadlock
+    private final Map<StatKey, Integer> pending = new ConcurrentSkipListMap<>();
+
+    // Serialises flushes with each other and with rebuild()
+    private final Object flushLock = new Object();
+
+    @Override
+    public void recordAppointment(Date appointmentDate, Integer doctorId, AppointmentStatus status, int delta) {
+        if (appointmentDate == null || doctorId == null) {
+            return;
+        }
+        StatKey key = new StatKey(appointmentDate.toLocalDate(), doctorId, status == null ? -1 : status.getCode());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rolled-back write must not count
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(key, delta);
+                }
+            });
+        } else {
+            enqueue(key, delta);
+        }
+    }
+
+    private void enqueue(StatKey key, int delta) {
+        pending.merge(key, delta, Integer::sum);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hospital.analytics.flush-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Object[]> batch = new ArrayList<>();
+            for (StatKey key : pending.keySet()) {
+                // Take the sum; a delta added after this starts a new entry for the next flush
+                Integer delta = pending.remove(key);
+                if (delta == null || delta == 0) {
+                    continue;
+                }
+                batch.add(new Object[] { Date.valueOf(key.date()), key.doctorId(), key.statusCode(), delta, delta });
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_APPOINTMENTS, batch);
+            } catch (RuntimeException e) {
+                // Put the sums back for the next attempt
+                for (Object[] row : batch) {
+                    enqueue(new StatKey(((Date) row[0]).toLocalDate(), (Integer) row[1], (Integer) row[2]), (Integer) row[3]);
+                }
+                System.err.println("Error flushing analytics rollups, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    @Override
+    public void recordReview(LocalDate reviewDate, int doctorId, int rating, int delta) {
+        if (reviewDate == null) {
+            return;
+        }
+        String sql = "INSERT INTO review_daily_stats (stat_date, DR_ID, review_count, rating_sum) " +
+                "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                "review_count = review_count + ?, rating_sum = rating_sum + ?";
+        jdbcTemplate.update(sql, Date.valueOf(reviewDate), doctorId, delta, rating * delta, delta, rating * delta);
+    }
+
+    @Override
+    public void removeDoctor(int doctorId) {
+        pending.keySet().removeIf(key -> key.doctorId() == doctorId);
+        jdbcTemplate.update("DELETE FROM appointment_status_daily_stats WHERE DR_ID = ?", doctorId);
+        jdbcTemplate.update("DELETE FROM review_daily_stats WHERE DR_ID = ?", doctorId);
+    }
+
+    @Override
+    @Transactional
+    public void removePatient(int patientId) {
+        // Called before the patient row goes, while the cascaded rows can still be counted
+        String appointments = "SELECT appointment_date, DR_ID, status_code, COUNT(*) AS n " +
+                "FROM appointment WHERE P_ID = ? AND appointment_date IS NOT NULL " +
+                "GROUP BY appointment_date, DR_ID, status_code";
+        for (Map<String, Object> row : jdbcTemplate.queryForList(appointments, patientId)) {
+            // Through the queue, so it cannot race a flush of this patient's earlier bookings
+            recordAppointment((Date) row.get("appointment_date"), ((Number) row.get("DR_ID")).intValue(),
+                    AppointmentStatus.fromCode(((Number) row.get("status_code")).intValue()),
+                    -((Number) row.get("n")).intValue());
+        }
+
+        String reviews = "SELECT CAST(review_date AS DATE) AS stat_date, doctor_id, COUNT(*) AS n, SUM(rating) AS total " +
+                "FROM reviews WHERE patient_id = ? AND review_date IS NOT NULL " +
+                "GROUP BY CAST(review_date AS DATE), doctor_id";
+        for (Map<String, Object> row : jdbcTemplate.queryForList(reviews, patientId)) {
+            jdbcTemplate.update("UPDATE review_daily_stats SET review_count = review_count - ?, rating_sum = rating_sum - ? " +
+                    "WHERE stat_date = ? AND DR_ID = ?",
+                    ((Number) row.get("n")).intValue(), ((Number) row.get("total")).intValue(),
+                    row.get("stat_date"), row.get("doctor_id"));
+        }
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        Integer rollups = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM appointment_status_daily_stats LIMIT 1) s", Integer.class);
+        Integer appointments = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM appointment LIMIT 1) a", Integer.class);
+        return rollups != null && rollups == 0 && appointments != null && appointments > 0;
+    }
+
+    @Override
+    @Transactional
+    public void rebuild() {
+        synchronized (flushLock) {
+            // Queued deltas are already in the source rows the rebuild counts
+            pending.clear();
+        }
+        jdbcTemplate.update("DELETE FROM appointment_status_daily_stats");
+        jdbcTemplate.update("INSERT INTO appointment_status_daily_stats (stat_date, DR_ID, status_code, appointment_count) " +
+                "SELECT appointment_date, DR_ID, status_code, COUNT(*) FROM appointment " +
+                "WHERE appointment_date IS NOT NULL GROUP BY appointment_date, DR_ID, status_code");
+
+        jdbcTemplate.update("DELETE FROM review_daily_stats");
+        jdbcTemplate.update("INSERT INTO review_daily_stats (stat_date, DR_ID, review_count, rating_sum) " +
+                "SELECT CAST(review_date AS DATE), doctor_id, COUNT(*), SUM(rating) FROM reviews " +
+                "WHERE review_date IS NOT NULL GROUP BY CAST(review_date AS DATE), doctor_id");
+    }
+
+    @Override
+    public List<Map<String, Object>> getDailyVolume(LocalDate from, LocalDate to, Integer doctorId) {
+        if (doctorId != null) {
+            String sql = "SELECT stat_date AS statDate, SUM(appointment_count) AS appointments " +
+                    "FROM appointment_status_daily_stats WHERE stat_date BETWEEN ? AND ? AND DR_ID = ? " +
+                    "GROUP BY stat_date ORDER BY stat_date";
+            return jdbcTemplate.queryForList(sql, Date.valueOf(from), Date.valueOf(to), doctorId);
+        }
+        String sql = "SELECT stat_date AS statDate, SUM(appointment_count) AS appointments " +
+                "FROM appointment_status_daily_stats WHERE stat_date BETWEEN ? AND ? " +
+                "GROUP BY stat_date ORDER BY stat_date";
+        return jdbcTemplate.queryForList(sql, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public List<Map<String, Object>> getVolumeBySpecialization(LocalDate from, LocalDate to) {
+        String sql = "SELECT d.Sp_Id AS specializationId, sp.Sp_Name AS specialization, " +
+                "SUM(s.appointment_count) AS appointments " +
+                "FROM appointment_status_daily_stats s " +
+                "JOIN doctor d ON s.DR_ID = d.DR_ID " +
+                "LEFT JOIN speclization sp ON d.Sp_Id = sp.Sp_Id " +
+                "WHERE s.stat_date BETWEEN ? AND ? " +
+                "GROUP BY d.Sp_Id, sp.Sp_Name ORDER BY appointments DESC";
+        return jdbcTemplate.queryForList(sql, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public List<Map<String, Object>> getStatusDistribution(LocalDate from, LocalDate to) {
+        String sql = "SELECT " + AppointmentStatus.sqlName("status_code") + " AS status, " +
+                "SUM(appointment_count) AS appointments " +
+                "FROM appointment_status_daily_stats WHERE stat_date BETWEEN ? AND ? " +
+                "GROUP BY status_code HAVING SUM(appointment_count) > 0 ORDER BY appointments DESC";
+        return jdbcTemplate.queryForList(sql, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public List<Map<String, Object>> getCancellationRates(LocalDate from, LocalDate to) {
+        String sql = "SELECT s.DR_ID AS doctorId, d.Dr_name AS doctorName, " +
+                "SUM(s.appointment_count) AS appointments, " +
+                "SUM(CASE WHEN s.status_code = " + AppointmentStatus.CANCELLED.getCode() +
+                " THEN s.appointment_count ELSE 0 END) AS cancelled " +
+                "FROM appointment_status_daily_stats s " +
+                "LEFT JOIN doctor d ON s.DR_ID = d.DR_ID " +
+                "WHERE s.stat_date BETWEEN ? AND ? " +
+                "GROUP BY s.DR_ID, d.Dr_name HAVING SUM(s.appointment_count) > 0 ORDER BY s.DR_ID";
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, Date.valueOf(from), Date.valueOf(to));
+        for (Map<String, Object> row : rows) {
+            double total = ((Number) row.get("appointments")).doubleValue();
+            double cancelled = ((Number) row.get("cancelled")).doubleValue();
+            row.put("cancellationRate", cancelled / total);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Map<String, Object>> getRatingTrend(LocalDate from, LocalDate to, Integer doctorId) {
+        String select = "SELECT stat_date AS statDate, SUM(review_count) AS reviews, " +
+                "SUM(rating_sum) * 1.0 / NULLIF(SUM(review_count), 0) AS averageRating " +
+                "FROM review_daily_stats WHERE stat_date BETWEEN ? AND ? ";
+        String group = "GROUP BY stat_date HAVING SUM(review_count) > 0 ORDER BY stat_date";
+        if (doctorId != null) {
+            return jdbcTemplate.queryForList(select + "AND DR_ID = ? " + group,
+                    Date.valueOf(from), Date.valueOf(to), doctorId);
+        }
+        return jdbcTemplate.queryForList(select + group, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private record StatKey(LocalDate date, int doctorId, int statusCode) implements Comparable<StatKey> {
+        @Override
+        public int compareTo(StatKey other) {
+            int byDate = date.compareTo(other.date);
+            if (byDate != 0) {
+                return byDate;
+            }
+            int byDoctor = Integer.compare(doctorId, other.doctorId);
+            return byDoctor != 0 ? byDoctor : Integer.compare(statusCode, other.statusCode);
+        }
+    }
+}
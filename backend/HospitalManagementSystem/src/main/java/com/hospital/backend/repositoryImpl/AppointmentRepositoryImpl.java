@@ -1,19 +1,34 @@
 package com.hospital.backend.repositoryImpl;
 
 import com.hospital.backend.EmailService;
+import com.hospital.backend.config.AppointmentSliceCache;
+import com.hospital.backend.dto.AppointmentSlot;
 import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.AppointmentStatus;
 import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.repository.AnalyticsRepository;
 import com.hospital.backend.repository.AppointmentRepository;
+import com.hospital.backend.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 public class AppointmentRepositoryImpl implements AppointmentRepository {
@@ -21,6 +36,22 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    // Rollup counters get each write's delta once its transaction commits
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    @Autowired
+    private AppointmentSliceCache sliceCache;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    // Writes made through this instance; tells the reporting snapshot it is out of date
+    private final AtomicLong changes = new AtomicLong();
+
+    // Whether the free-text status column of older releases is still there; null until checked
+    private volatile Boolean legacyStatusColumn;
+
     private final RowMapper<Appointment> appointmentRowMapper = new RowMapper<Appointment>() {
         @Override
         public Appointment mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -32,11 +63,26 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
             appointment.setCancelConfirm(rs.getInt("cancel_confirm"));
             appointment.setAppointmentDate(rs.getDate("appointment_date"));
             appointment.setAppointmentTime(rs.getTime("appointment_time"));
-            appointment.setStatus(rs.getString("status"));
+            appointment.setStatus(AppointmentStatus.fromCode(rs.getInt("status_code")));
+            appointment.setVersion(rs.getInt("version"));
             return appointment;
         }
     };
 
+    // Only the columns list views need, read straight into java.time values
+    private final RowMapper<AppointmentSlot> slotRowMapper = new RowMapper<AppointmentSlot>() {
+        @Override
+        public AppointmentSlot mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new AppointmentSlot(
+                    rs.getInt("Ap_ID"),
+                    rs.getInt("P_ID"),
+                    rs.getInt("DR_ID"),
+                    rs.getObject("appointment_date", LocalDate.class),
+                    rs.getObject("appointment_time", LocalTime.class),
+                    AppointmentStatus.fromCode(rs.getInt("status_code")));
+        }
+    };
+
     @Override
     public Optional<Appointment> getAppointmentById(int id) {
         String sql = "SELECT * FROM appointment WHERE Ap_ID = ?";
@@ -64,9 +110,17 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
     }
 
     @Override
-    public List<Appointment> getAppointmentsByStatus(String status) {
-        String sql = "SELECT * FROM appointment WHERE status = ?";
-        return jdbcTemplate.query(sql, appointmentRowMapper, status);
+    public List<Appointment> getAppointmentsByPatientNewestFirst(int patientId) {
+        // Served by idx_appt_patient_date
+        String sql = "SELECT * FROM appointment WHERE P_ID = ? ORDER BY appointment_date DESC, appointment_time DESC";
+        return jdbcTemplate.query(sql, appointmentRowMapper, patientId);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
+        // Served by idx_appt_status_date
+        String sql = "SELECT * FROM appointment WHERE status_code = ? ORDER BY appointment_date, appointment_time";
+        return jdbcTemplate.query(sql, appointmentRowMapper, status.getCode());
     }
 
     @Override
@@ -76,37 +130,43 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
     }
 
     @Override
+    @Transactional
     public Appointment createAppointment(Appointment appointment) {
-        if (appointment.getApId() == 0) {
-            String sql = "INSERT INTO appointment (P_ID, DR_ID, Descript, cancel_confirm, appointment_date, appointment_time, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
-            jdbcTemplate.update(sql,
-                    appointment.getpId(),
-                    appointment.getDrId(),
-                    appointment.getDescript(),
-                    appointment.getCancelConfirm(),
-                    appointment.getAppointmentDate(),
-                    appointment.getAppointmentTime(),
-                    appointment.getStatus());
-            return appointment;
-        } else {
-            String sql = "UPDATE appointment SET P_ID = ?, DR_ID = ?, Descript = ?, cancel_confirm = ?, appointment_date = ?, appointment_time = ?, status = ? WHERE Ap_ID = ?";
-            jdbcTemplate.update(sql,
-                    appointment.getpId(),
-                    appointment.getDrId(),
-                    appointment.getDescript(),
-                    appointment.getCancelConfirm(),
-                    appointment.getAppointmentDate(),
-                    appointment.getAppointmentTime(),
-                    appointment.getStatus(),
-                    appointment.getApId());
-            return appointment;
+        if (appointment.getStatus() == null) {
+            appointment.setStatus(AppointmentStatus.PENDING);
+        }
+        String sql = "INSERT INTO appointment (P_ID, DR_ID, Descript, cancel_confirm, appointment_date, appointment_time, status_code) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setObject(1, appointment.getpId());
+            ps.setObject(2, appointment.getDrId());
+            ps.setString(3, appointment.getDescript());
+            ps.setObject(4, appointment.getCancelConfirm());
+            ps.setDate(5, appointment.getAppointmentDate());
+            ps.setTime(6, appointment.getAppointmentTime());
+            ps.setInt(7, appointment.getStatus().getCode());
+            return ps;
+        }, keyHolder);
+        // Callers (and replayed idempotent responses) need the real id
+        if (keyHolder.getKey() != null) {
+            appointment.setApId(keyHolder.getKey().intValue());
+            writeLegacyStatus(appointment.getApId(), appointment.getStatus());
         }
+        appointment.setVersion(0);
+        recordChange(appointment, 1);
+        return appointment;
     }
 
     @Override
+    @Transactional
     public void deleteAppointment(int id) {
+        Optional<Appointment> previous = getAppointmentById(id);
+        // Its prescriptions lose their doctor and date (Ap_Id is set to NULL)
+        prescriptionRepository.reindexAppointmentAfterCommit(id);
         String sql = "DELETE FROM appointment WHERE Ap_ID = ?";
         jdbcTemplate.update(sql, id);
+        previous.ifPresent(appointment -> recordChange(appointment, -1));
     }
 
     @Override
@@ -116,19 +176,64 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
     }
 
     @Override
-    public Appointment updateAppointment(Appointment appointment) {
+    @Transactional
+    public Optional<Appointment> updateAppointment(Appointment appointment, int expectedVersion) {
         if (appointment.getApId() == 0) {
             throw new IllegalArgumentException("Appointment ID must be provided for update");
         }
-        return createAppointment(appointment);
+        if (appointment.getStatus() == null) {
+            appointment.setStatus(AppointmentStatus.PENDING);
+        }
+        // Read in this transaction for the rollups; if it is stale the version check below fails
+        Optional<Appointment> previous = getAppointmentById(appointment.getApId());
+        String sql = "UPDATE appointment SET P_ID = ?, DR_ID = ?, Descript = ?, cancel_confirm = ?, appointment_date = ?, " +
+                "appointment_time = ?, status_code = ?, version = version + 1 WHERE Ap_ID = ? AND version = ?";
+        int rows = jdbcTemplate.update(sql,
+                appointment.getpId(),
+                appointment.getDrId(),
+                appointment.getDescript(),
+                appointment.getCancelConfirm(),
+                appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(),
+                appointment.getStatus().getCode(),
+                appointment.getApId(),
+                expectedVersion);
+        if (rows == 0 || previous.isEmpty()) {
+            return Optional.empty();
+        }
+        writeLegacyStatus(appointment.getApId(), appointment.getStatus());
+        appointment.setVersion(expectedVersion + 1);
+        recordChange(previous.get(), -1);
+        recordChange(appointment, 1);
+        reindexIfMoved(previous.get(), appointment);
+        return Optional.of(appointment);
+    }
+
+    // The medicine index files prescriptions under the appointment's doctor and date
+    private void reindexIfMoved(Appointment previous, Appointment appointment) {
+        if (!Objects.equals(previous.getDrId(), appointment.getDrId())
+                || !Objects.equals(previous.getAppointmentDate(), appointment.getAppointmentDate())) {
+            prescriptionRepository.reindexAppointmentAfterCommit(appointment.getApId());
+        }
     }
 
     @Override
-    public Appointment updateStatus(int id, String status) {
-        String sql = "UPDATE appointment SET status = ? WHERE Ap_ID = ?";
-        jdbcTemplate.update(sql, status, id);
+    @Transactional
+    public Optional<Appointment> updateStatus(Appointment current, AppointmentStatus status) {
+        // Compare-and-set on the version, so two concurrent transitions cannot both apply
+        String sql = "UPDATE appointment SET status_code = ?, version = version + 1 WHERE Ap_ID = ? AND version = ?";
+        if (jdbcTemplate.update(sql, status.getCode(), current.getApId(), current.getVersion()) == 0) {
+            return Optional.empty();
+        }
+        writeLegacyStatus(current.getApId(), status);
 
-        return getAppointmentById(id).orElse(null);
+        // The row stays locked until commit, so this reads it as just updated
+        Optional<Appointment> updated = getAppointmentById(current.getApId());
+        updated.ifPresent(appointment -> {
+            recordChange(current, -1);
+            recordChange(appointment, 1);
+        });
+        return updated;
     }
 
     @Override
@@ -136,10 +241,11 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
         String sql = "SELECT * FROM appointment WHERE DR_ID = ? " +
                 "AND (appointment_date > CURDATE() OR " +
                 "(appointment_date = CURDATE() AND appointment_time > CURTIME())) " +
-                "AND status = 'cancel' " + // Or 'CONFIRMED' depending on your needs
+                "AND status_code IN (?, ?, ?) " +
                 "ORDER BY appointment_date, appointment_time";
 
-        return jdbcTemplate.query(sql, appointmentRowMapper, doctorId);
+        return jdbcTemplate.query(sql, appointmentRowMapper, doctorId, AppointmentStatus.PENDING.getCode(),
+                AppointmentStatus.SCHEDULED.getCode(), AppointmentStatus.CHECKED_IN.getCode());
     }
 
     @Override
@@ -162,4 +268,62 @@ public class AppointmentRepositoryImpl implements AppointmentRepository {
         return jdbcTemplate.query(sql, appointmentRowMapper, doctorId, date);
     }
 
-}
\ No newline at end of file
+    @Override
+    public List<AppointmentSlot> getSlotsByDoctorAndDate(int doctorId, LocalDate date) {
+        String sql = "SELECT Ap_ID, P_ID, DR_ID, appointment_date, appointment_time, status_code FROM appointment " +
+                "WHERE DR_ID = ? AND appointment_date = ? ORDER BY appointment_time ASC";
+        return jdbcTemplate.query(sql, slotRowMapper, doctorId, date);
+    }
+
+    @Override
+    public List<AppointmentSlot> getSlotsByDoctorBetween(int doctorId, LocalDate from, LocalDate to) {
+        String sql = "SELECT Ap_ID, P_ID, DR_ID, appointment_date, appointment_time, status_code FROM appointment " +
+                "WHERE DR_ID = ? AND appointment_date BETWEEN ? AND ? " +
+                "ORDER BY appointment_date ASC, appointment_time ASC";
+        return jdbcTemplate.query(sql, slotRowMapper, doctorId, from, to);
+    }
+
+    @Override
+    public List<AppointmentSlot> getSlotsByPatient(int patientId) {
+        String sql = "SELECT Ap_ID, P_ID, DR_ID, appointment_date, appointment_time, status_code FROM appointment " +
+                "WHERE P_ID = ? ORDER BY appointment_date DESC, appointment_time DESC";
+        return jdbcTemplate.query(sql, slotRowMapper, patientId);
+    }
+
+    @Override
+    public void streamReportRows(RowCallbackHandler handler) {
+        String sql = "SELECT a.Ap_ID, a.P_ID, a.DR_ID, a.appointment_date, a.status_code, p.Blood_Group " +
+                "FROM appointment a LEFT JOIN patient p ON a.P_ID = p.P_ID";
+        jdbcTemplate.query(connection -> StreamingStatements.prepare(connection, sql), handler);
+    }
+
+    @Override
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    // Instances on an older release still read the status column during a rolling deploy, so keep it
+    // current until a later release drops it
+    private void writeLegacyStatus(int id, AppointmentStatus status) {
+        Boolean present = legacyStatusColumn;
+        if (present == null) {
+            present = false;
+            for (String column : jdbcTemplate.queryForRowSet("SELECT * FROM appointment WHERE 1 = 0")
+                    .getMetaData().getColumnNames()) {
+                present |= column.equalsIgnoreCase("status");
+            }
+            legacyStatusColumn = present;
+        }
+        if (present) {
+            jdbcTemplate.update("UPDATE appointment SET status = ? WHERE Ap_ID = ?", status.getLabel(), id);
+        }
+    }
+
+    // Called with -1 for the row as it was and +1 for the row as it is now
+    private void recordChange(Appointment appointment, int delta) {
+        changes.incrementAndGet();
+        analyticsRepository.recordAppointment(appointment.getAppointmentDate(), appointment.getDrId(),
+                appointment.getStatus(), delta);
+        sliceCache.invalidate(appointment);
+    }
+}
@@ -1,16 +1,24 @@
 package com.hospital.backend.repositoryImpl;
 
 import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.repository.AnalyticsRepository;
 import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class DoctorRepositoryImpl implements DoctorRepository {
@@ -18,6 +26,12 @@ public class DoctorRepositoryImpl implements DoctorRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
     private final RowMapper<Doctor> doctorRowMapper = new RowMapper<Doctor>() {
         @Override
         public Doctor mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -94,7 +108,11 @@ public class DoctorRepositoryImpl implements DoctorRepository {
     }
 
     @Override
+    @Transactional
     public void deleteDoctor(int id) {
+        // Cascades remove the doctor's appointments and reviews, so take them out of the rollups and the medicine index too
+        analyticsRepository.removeDoctor(id);
+        prescriptionRepository.reindexDoctorAfterCommit(id);
         String sql = "DELETE FROM doctor WHERE DR_ID = ?";
         jdbcTemplate.update(sql, id);
     }
@@ -132,4 +150,34 @@ public class DoctorRepositoryImpl implements DoctorRepository {
         return jdbcTemplate.update(sql, newPassword, id);
     }
 
-}
\ No newline at end of file
+    @Override
+    public int rehashPassword(int id, String currentHash, String newHash) {
+        String sql = "UPDATE doctor SET Password = ? WHERE DR_ID = ? AND Password = ?";
+        return jdbcTemplate.update(sql, newHash, id, currentHash);
+    }
+
+    // One chunk of a bulk import; with rewriteBatchedStatements MySQL receives a multi-row INSERT
+    @Override
+    @Transactional
+    public void batchInsert(List<Doctor> doctors) {
+        String sql = "INSERT INTO doctor (Dr_name, Mobile_no, Email_id, Gender, Age, Experience, Password, Sp_Id, picture) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            rows.add(new Object[] { doctor.getDrName(), doctor.getMobileNo(), doctor.getEmailId(), doctor.getGender(),
+                    doctor.getAge(), doctor.getExperience(), doctor.getPassword(), doctor.getSpId(),
+                    doctor.getPicture() });
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(emails.size(), "?"));
+        String sql = "SELECT LOWER(Email_id) FROM doctor WHERE Email_id IN (" + placeholders + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, emails.toArray()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.repository.EntityVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class EntityVersionRepositoryImpl implements EntityVersionRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long getVersion(String resource) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM entity_versions WHERE resource = ?", Long.class, resource);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    @Override
+    public void increment(String resource) {
+        String sql = "UPDATE entity_versions SET version = version + 1 WHERE resource = ?";
+        if (jdbcTemplate.update(sql, resource) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO entity_versions (resource, version) VALUES (?, 1)", resource);
+        } catch (DuplicateKeyException e) {
+            // Another node created the row first
+            jdbcTemplate.update(sql, resource);
+        }
+    }
+}
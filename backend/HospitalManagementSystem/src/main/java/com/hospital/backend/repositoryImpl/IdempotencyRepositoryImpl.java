@@ -0,0 +1,75 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.repository.IdempotencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyRepositoryImpl implements IdempotencyRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<StoredResponse> storedResponseRowMapper = new RowMapper<StoredResponse>() {
+        @Override
+        public StoredResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new StoredResponse(
+                    rs.getString("request_hash"),
+                    rs.getBoolean("pending") ? null : rs.getString("response_body"),
+                    rs.getTimestamp("created_at").getTime());
+        }
+    };
+
+    @Override
+    public Optional<StoredResponse> find(String scope, String key) {
+        String sql = "SELECT request_hash, response_body, pending, created_at FROM idempotency_keys " +
+                "WHERE scope = ? AND idem_key = ?";
+        List<StoredResponse> rows = jdbcTemplate.query(sql, storedResponseRowMapper, scope, key);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public boolean claim(String scope, String key, String requestHash, Timestamp createdAt) {
+        // The primary key makes this the cross-instance lock: exactly one insert wins
+        String sql = "INSERT INTO idempotency_keys (scope, idem_key, request_hash, response_body, pending, created_at) " +
+                "VALUES (?, ?, ?, '', TRUE, ?)";
+        try {
+            jdbcTemplate.update(sql, scope, key, requestHash, createdAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String scope, String key, String responseBody) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_body = ?, pending = FALSE " +
+                "WHERE scope = ? AND idem_key = ?", responseBody, scope, key);
+    }
+
+    @Override
+    public void release(String scope, String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND pending = TRUE",
+                scope, key);
+    }
+
+    @Override
+    public boolean deleteIfCreatedBefore(String scope, String key, Timestamp cutoff) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND created_at < ?",
+                scope, key, cutoff) > 0;
+    }
+
+    @Override
+    public int deleteOlderThan(Timestamp cutoff) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", cutoff);
+    }
+}
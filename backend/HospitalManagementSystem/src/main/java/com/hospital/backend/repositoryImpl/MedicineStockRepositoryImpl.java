@@ -0,0 +1,101 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.repository.MedicineStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class MedicineStockRepositoryImpl implements MedicineStockRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<MedicineStock> stockRowMapper = new RowMapper<MedicineStock>() {
+        @Override
+        public MedicineStock mapRow(ResultSet rs, int rowNum) throws SQLException {
+            MedicineStock stock = new MedicineStock();
+            stock.setMedId(rs.getInt("Med_ID"));
+            stock.setName(rs.getString("name"));
+            stock.setQuantity(rs.getInt("quantity"));
+            stock.setReorderLevel(rs.getInt("reorder_level"));
+            return stock;
+        }
+    };
+
+    @Override
+    public MedicineStock createMedicineStock(MedicineStock stock) {
+        String sql = "INSERT INTO medicine_stock (name, quantity, reorder_level, updated_at) VALUES (?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, stock.getName());
+            ps.setInt(2, stock.getQuantity());
+            ps.setInt(3, stock.getReorderLevel());
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            return ps;
+        }, keyHolder);
+        if (keyHolder.getKey() != null) {
+            stock.setMedId(keyHolder.getKey().intValue());
+        }
+        return stock;
+    }
+
+    @Override
+    public List<MedicineStock> getAllMedicineStock() {
+        return jdbcTemplate.query("SELECT * FROM medicine_stock ORDER BY name", stockRowMapper);
+    }
+
+    @Override
+    public Optional<MedicineStock> getMedicineStockById(int id) {
+        return jdbcTemplate.query("SELECT * FROM medicine_stock WHERE Med_ID = ?", stockRowMapper, id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public void updateReorderLevel(int id, int reorderLevel) {
+        jdbcTemplate.update("UPDATE medicine_stock SET reorder_level = ?, updated_at = ? WHERE Med_ID = ?",
+                reorderLevel, new Timestamp(System.currentTimeMillis()), id);
+    }
+
+    @Override
+    public void addQuantity(int id, int delta) {
+        jdbcTemplate.update("UPDATE medicine_stock SET quantity = quantity + ?, updated_at = ? WHERE Med_ID = ?",
+                delta, new Timestamp(System.currentTimeMillis()), id);
+    }
+
+    @Override
+    public int reserve(int id, int units) {
+        // The WHERE makes it safe against other instances; re-read and retry when one got there first
+        for (int attempt = 0; attempt < 5; attempt++) {
+            List<Integer> quantity = jdbcTemplate.queryForList(
+                    "SELECT quantity FROM medicine_stock WHERE Med_ID = ?", Integer.class, id);
+            if (quantity.isEmpty() || quantity.get(0) <= 0) {
+                return 0;
+            }
+            int take = Math.min(units, quantity.get(0));
+            if (jdbcTemplate.update("UPDATE medicine_stock SET quantity = quantity - ?, updated_at = ? " +
+                    "WHERE Med_ID = ? AND quantity >= ?", take, new Timestamp(System.currentTimeMillis()), id, take) == 1) {
+                return take;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void deleteMedicineStock(int id) {
+        jdbcTemplate.update("DELETE FROM medicine_stock WHERE Med_ID = ?", id);
+    }
+}
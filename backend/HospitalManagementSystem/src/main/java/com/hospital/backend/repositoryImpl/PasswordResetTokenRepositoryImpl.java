@@ -0,0 +1,61 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.repository.PasswordResetTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class PasswordResetTokenRepositoryImpl implements PasswordResetTokenRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<ResetToken> resetTokenRowMapper = new RowMapper<ResetToken>() {
+        @Override
+        public ResetToken mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ResetToken(
+                    rs.getString("user_type"),
+                    rs.getInt("user_id"),
+                    rs.getTimestamp("expires_at").getTime());
+        }
+    };
+
+    @Override
+    public void save(String tokenHash, String userType, int userId, Timestamp expiresAt) {
+        String sql = "INSERT INTO password_reset_tokens (token_hash, user_type, user_id, expires_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, tokenHash, userType, userId, expiresAt, new Timestamp(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Optional<ResetToken> findByHash(String tokenHash) {
+        String sql = "SELECT user_type, user_id, expires_at FROM password_reset_tokens WHERE token_hash = ?";
+        List<ResetToken> rows = jdbcTemplate.query(sql, resetTokenRowMapper, tokenHash);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public boolean consume(String tokenHash) {
+        return jdbcTemplate.update("DELETE FROM password_reset_tokens WHERE token_hash = ?", tokenHash) == 1;
+    }
+
+    @Override
+    public int deleteByUser(String userType, int userId) {
+        return jdbcTemplate.update("DELETE FROM password_reset_tokens WHERE user_type = ? AND user_id = ?",
+                userType, userId);
+    }
+
+    @Override
+    public int deleteExpired(Timestamp now, int limit) {
+        // Bounded batches keep each purge transaction (and its locks) short
+        return jdbcTemplate.update("DELETE FROM password_reset_tokens WHERE expires_at < ? LIMIT ?", now, limit);
+    }
+}
@@ -1,22 +1,36 @@
 package com.hospital.backend.repositoryImpl;
 
 import com.hospital.backend.entity.Patient;
+import com.hospital.backend.repository.AnalyticsRepository;
 import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class PatientRepositoryImpl implements PatientRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
     private final RowMapper<Patient> patientRowMapper = new RowMapper<Patient>() {
         @Override
         public Patient mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -31,8 +45,7 @@ public class PatientRepositoryImpl implements PatientRepository {
             patient.setEmail(rs.getString("Email"));
             patient.setAddress(rs.getString("Address"));
             patient.setPassword(rs.getString("Password"));
-            patient.setResetToken(rs.getString("reset_token"));
-            patient.setResetTokenExpiryDate(rs.getObject("reset_token_expiry", java.time.LocalDateTime.class));
+            patient.setVersion(rs.getInt("version"));
             return patient;
         }
     };
@@ -72,9 +85,9 @@ public class PatientRepositoryImpl implements PatientRepository {
     @Override
     public Patient save(Patient patient) {
         if (patient.getpId() == 0) {
-            String sql = "INSERT INTO patient (Name, DOB, Age, Gender, Blood_Group, Mobile_No, Email, Address, Password, reset_token, reset_token_expiry) "
+            String sql = "INSERT INTO patient (Name, DOB, Age, Gender, Blood_Group, Mobile_No, Email, Address, Password) "
                     +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
             jdbcTemplate.update(sql,
                     patient.getName(),
                     patient.getDob(),
@@ -84,16 +97,15 @@ public class PatientRepositoryImpl implements PatientRepository {
                     patient.getMobileNo(),
                     patient.getEmail(),
                     patient.getAddress(),
-                    patient.getPassword(),
-                    patient.getResetToken(),
-                    patient.getResetTokenExpiryDate());
+                    patient.getPassword());
             return patient;
         } else {
             if (patient.getName() == null || patient.getName().trim().isEmpty()) {
                 throw new IllegalArgumentException("Patient name cannot be null or empty");
             }
             String sql = "UPDATE patient SET Name = ?, DOB = ?, Age = ?, Gender = ?, " +
-                    "Blood_Group = ?, Mobile_No = ?, Email = ?, Address = ?, Password = ?, reset_token = ?, reset_token_expiry = ? WHERE P_ID = ?";
+                    "Blood_Group = ?, Mobile_No = ?, Email = ?, Address = ?, Password = ?, version = version + 1 " +
+                    "WHERE P_ID = ?";
             jdbcTemplate.update(sql,
                     patient.getName(),
                     patient.getDob(),
@@ -104,15 +116,17 @@ public class PatientRepositoryImpl implements PatientRepository {
                     patient.getEmail(),
                     patient.getAddress(),
                     patient.getPassword(),
-                    patient.getResetToken(),
-                    patient.getResetTokenExpiryDate(),
                     patient.getpId());
             return patient;
         }
     }
 
     @Override
+    @Transactional
     public void deletePatient(int id) {
+        // Cascades remove the patient's appointments and reviews, so take them out of the rollups and the medicine index too
+        analyticsRepository.removePatient(id);
+        prescriptionRepository.reindexPatientAfterCommit(id);
         String sql = "DELETE FROM patient WHERE P_ID = ?";
         jdbcTemplate.update(sql, id);
     }
@@ -136,6 +150,32 @@ public class PatientRepositoryImpl implements PatientRepository {
         return save(patient);
     }
 
+    @Override
+    public int updateIfVersion(Patient patient, int expectedVersion) {
+        if (patient.getName() == null || patient.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Patient name cannot be null or empty");
+        }
+        String sql = "UPDATE patient SET Name = ?, DOB = ?, Age = ?, Gender = ?, " +
+                "Blood_Group = ?, Mobile_No = ?, Email = ?, Address = ?, Password = ?, version = version + 1 " +
+                "WHERE P_ID = ? AND version = ?";
+        int rows = jdbcTemplate.update(sql,
+                patient.getName(),
+                patient.getDob(),
+                patient.getAge(),
+                patient.getGender(),
+                patient.getBloodGroup(),
+                patient.getMobileNo(),
+                patient.getEmail(),
+                patient.getAddress(),
+                patient.getPassword(),
+                patient.getpId(),
+                expectedVersion);
+        if (rows > 0) {
+            patient.setVersion(expectedVersion + 1);
+        }
+        return rows;
+    }
+
     @Override
     public boolean existsById(int id) {
         String sql = "SELECT COUNT(*) FROM patient WHERE P_ID = ?";
@@ -151,7 +191,7 @@ public class PatientRepositoryImpl implements PatientRepository {
 
     @Override
     public int updatePassword(int id, String newPassword) {
-        String sql = "UPDATE patient SET Password = ? WHERE P_ID = ?";
+        String sql = "UPDATE patient SET Password = ?, version = version + 1 WHERE P_ID = ?";
         System.out.println("Executing SQL: " + sql.replace("?", "_") +
                 " with params: [" + newPassword + ", " + id + "]");
         int rowsAffected = jdbcTemplate.update(sql, newPassword, id);
@@ -160,10 +200,34 @@ public class PatientRepositoryImpl implements PatientRepository {
     }
 
     @Override
-    public Optional<Patient> findByResetToken(String token) {
-        String sql = "SELECT * FROM patient WHERE reset_token = ?";
-        List<Patient> patients = jdbcTemplate.query(sql, patientRowMapper, token);
-        return patients.isEmpty() ? Optional.empty() : Optional.of(patients.get(0));
+    public int rehashPassword(int id, String currentHash, String newHash) {
+        // Skipped if the password changed since it was verified
+        String sql = "UPDATE patient SET Password = ? WHERE P_ID = ? AND Password = ?";
+        return jdbcTemplate.update(sql, newHash, id, currentHash);
     }
 
-}
\ No newline at end of file
+    // One chunk of a bulk import; with rewriteBatchedStatements MySQL receives a multi-row INSERT
+    @Override
+    @Transactional
+    public void batchInsert(List<Patient> patients) {
+        String sql = "INSERT INTO patient (Name, DOB, Age, Gender, Blood_Group, Mobile_No, Email, Address, Password) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            rows.add(new Object[] { patient.getName(), patient.getDob(), patient.getAge(), patient.getGender(),
+                    patient.getBloodGroup(), patient.getMobileNo(), patient.getEmail(), patient.getAddress(),
+                    patient.getPassword() });
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(emails.size(), "?"));
+        String sql = "SELECT LOWER(Email) FROM patient WHERE Email IN (" + placeholders + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, emails.toArray()));
+    }
+}
@@ -1,24 +1,34 @@
 package com.hospital.backend.repositoryImpl;
 
+import com.hospital.backend.config.MedicineIndex;
+import com.hospital.backend.dto.PrescriptionDTO;
+import com.hospital.backend.dto.PrescriptionDocument;
 import com.hospital.backend.entity.Prescription;
 import com.hospital.backend.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class PrescriptionRepositoryImpl implements PrescriptionRepository {
@@ -26,6 +36,15 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private MedicineIndex medicineIndex;
+
+    // Everything the medicine index needs; the appointment supplies doctor and date
+    private static final String MEDICINE_ROW_SQL = "SELECT p.Pr_ID, p.P_ID, p.medicine, a.DR_ID, a.appointment_date " +
+            "FROM prescription p LEFT JOIN appointment a ON p.Ap_Id = a.Ap_ID";
+
+    private static final int REINDEX_BATCH = 500;
+
     private final RowMapper<Prescription> prescriptionRowMapper = new RowMapper<Prescription>() {
         @Override
         public Prescription mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -53,6 +72,24 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
         return jdbcTemplate.query(sql, prescriptionRowMapper, patientId);
     }
 
+    @Override
+    public List<PrescriptionDTO> getPrescriptionDetailsByPatientNewestFirst(int patientId) {
+        // One joined query instead of an appointment lookup per prescription;
+        // prescriptions without an appointment sort last
+        String sql = "SELECT p.*, a.DR_ID AS appt_dr_id, a.appointment_date AS appt_date FROM prescription p " +
+                "LEFT JOIN appointment a ON p.Ap_Id = a.Ap_ID " +
+                "WHERE p.P_ID = ? ORDER BY a.appointment_date DESC, p.Pr_ID DESC";
+        return jdbcTemplate.query(sql, new RowMapper<PrescriptionDTO>() {
+            @Override
+            public PrescriptionDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+                PrescriptionDTO dto = new PrescriptionDTO(prescriptionRowMapper.mapRow(rs, rowNum));
+                dto.setDrId(rs.getObject("appt_dr_id", Integer.class));
+                dto.setAppointmentDate(rs.getDate("appt_date"));
+                return dto;
+            }
+        }, patientId);
+    }
+
     @Override
     public List<Prescription> getPrescriptionsByAppointment(int appointmentId) {
         String sql = "SELECT * FROM prescription WHERE Ap_Id = ?";
@@ -89,6 +126,7 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
             // Set the generated ID on the prescription object
             if (keyHolder.getKey() != null) {
                 prescription.setPrId(keyHolder.getKey().intValue());
+                reindexAfterCommit(prescription.getPrId());
             }
 
             return prescription;
@@ -101,6 +139,7 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
                     prescription.getAdvice(),
                     prescription.getRemark(),
                     prescription.getPrId());
+            reindexAfterCommit(prescription.getPrId());
             return prescription;
         }
     }
@@ -109,6 +148,7 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
     public void deletePrescription(int id) {
         String sql = "DELETE FROM prescription WHERE Pr_ID = ?";
         jdbcTemplate.update(sql, id);
+        reindexAfterCommit(id);
     }
 
     @Override
@@ -136,6 +176,39 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
         }
     }
 
+    @Override
+    public Optional<PrescriptionDocument> getPrescriptionDocument(int id) {
+        String sql = "SELECT p.Pr_ID, p.medicine, p.advice, p.remark, " +
+                "pt.Name AS patient_name, pt.Email AS patient_email, pt.Age AS patient_age, pt.Gender AS patient_gender, " +
+                "d.Dr_name AS doctor_name, s.Sp_Name AS specialization, " +
+                "a.appointment_date, a.appointment_time FROM prescription p " +
+                "LEFT JOIN patient pt ON p.P_ID = pt.P_ID " +
+                "LEFT JOIN appointment a ON p.Ap_Id = a.Ap_ID " +
+                "LEFT JOIN doctor d ON a.DR_ID = d.DR_ID " +
+                "LEFT JOIN speclization s ON d.Sp_Id = s.Sp_Id " +
+                "WHERE p.Pr_ID = ?";
+        List<PrescriptionDocument> documents = jdbcTemplate.query(sql, new RowMapper<PrescriptionDocument>() {
+            @Override
+            public PrescriptionDocument mapRow(ResultSet rs, int rowNum) throws SQLException {
+                PrescriptionDocument document = new PrescriptionDocument();
+                document.setPrId(rs.getInt("Pr_ID"));
+                document.setMedicine(rs.getString("medicine"));
+                document.setAdvice(rs.getString("advice"));
+                document.setRemark(rs.getString("remark"));
+                document.setPatientName(rs.getString("patient_name"));
+                document.setPatientEmail(rs.getString("patient_email"));
+                document.setPatientAge(rs.getObject("patient_age", Integer.class));
+                document.setPatientGender(rs.getString("patient_gender"));
+                document.setDoctorName(rs.getString("doctor_name"));
+                document.setSpecialization(rs.getString("specialization"));
+                document.setAppointmentDate(rs.getDate("appointment_date"));
+                document.setAppointmentTime(rs.getTime("appointment_time"));
+                return document;
+            }
+        }, id);
+        return documents.stream().findFirst();
+    }
+
     @Override
     public boolean existsById(int id) {
         String sql = "SELECT COUNT(*) FROM prescription WHERE PR_ID = ?";
@@ -143,4 +216,66 @@ public class PrescriptionRepositoryImpl implements PrescriptionRepository {
         return count != null && count > 0;
     }
 
-}
\ No newline at end of file
+    @Override
+    public void streamMedicineRows(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> StreamingStatements.prepare(connection, MEDICINE_ROW_SQL), handler);
+    }
+
+    @Override
+    public void reindexAppointmentAfterCommit(int appointmentId) {
+        reindexAfterCommit(jdbcTemplate.queryForList(
+                "SELECT Pr_ID FROM prescription WHERE Ap_Id = ?", Integer.class, appointmentId));
+    }
+
+    @Override
+    public void reindexPatientAfterCommit(int patientId) {
+        reindexAfterCommit(jdbcTemplate.queryForList(
+                "SELECT Pr_ID FROM prescription WHERE P_ID = ?", Integer.class, patientId));
+    }
+
+    @Override
+    public void reindexDoctorAfterCommit(int doctorId) {
+        reindexAfterCommit(jdbcTemplate.queryForList(
+                "SELECT p.Pr_ID FROM prescription p JOIN appointment a ON p.Ap_Id = a.Ap_ID WHERE a.DR_ID = ?",
+                Integer.class, doctorId));
+    }
+
+    private void reindexAfterCommit(int id) {
+        reindexAfterCommit(List.of(id));
+    }
+
+    // Reads the committed rows back, so a rolled-back write never reaches the index
+    private void reindexAfterCommit(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex(ids);
+                }
+            });
+        } else {
+            reindex(ids);
+        }
+    }
+
+    private void reindex(List<Integer> ids) {
+        for (int from = 0; from < ids.size(); from += REINDEX_BATCH) {
+            List<Integer> batch = ids.subList(from, Math.min(from + REINDEX_BATCH, ids.size()));
+            Set<Integer> missing = new HashSet<>(batch);
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query(MEDICINE_ROW_SQL + " WHERE p.Pr_ID IN (" + placeholders + ")", (RowCallbackHandler) rs -> {
+                Date date = rs.getDate("appointment_date");
+                medicineIndex.put(rs.getInt("Pr_ID"), rs.getInt("P_ID"), rs.getObject("DR_ID", Integer.class),
+                        date != null ? date.toLocalDate() : null, rs.getString("medicine"));
+                missing.remove(rs.getInt("Pr_ID"));
+            }, batch.toArray());
+            // Deleted, or removed by a cascade
+            for (int id : missing) {
+                medicineIndex.remove(id);
+            }
+        }
+    }
+}
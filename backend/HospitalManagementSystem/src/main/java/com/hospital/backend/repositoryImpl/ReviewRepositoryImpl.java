@@ -1,11 +1,13 @@
 package com.hospital.backend.repositoryImpl;
 
 import com.hospital.backend.entity.Review;
+import com.hospital.backend.repository.AnalyticsRepository;
 import com.hospital.backend.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -18,6 +20,9 @@ public class ReviewRepositoryImpl implements ReviewRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
     private final RowMapper<Review> reviewRowMapper = new RowMapper<Review>() {
         @Override
         public Review mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -44,7 +49,12 @@ public class ReviewRepositoryImpl implements ReviewRepository {
     };
 
     @Override
+    @Transactional
     public Review save(Review review) {
+        if (review.getReviewDate() == null) {
+            // Same as the column default, but known here so the rollup can count it
+            review.setReviewDate(LocalDateTime.now());
+        }
         String sql = "INSERT INTO reviews (patient_id, doctor_id, rating, comment, review_date) VALUES (?, ?, ?, ?, ?)";
         jdbcTemplate.update(sql,
                 review.getPatientId(),
@@ -52,6 +62,8 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                 review.getRating(),
                 review.getComment(),
                 review.getReviewDate());
+        analyticsRepository.recordReview(review.getReviewDate().toLocalDate(), review.getDoctorId(),
+                review.getRating(), 1);
         return review;
     }
 
@@ -0,0 +1,32 @@
+package com.hospital.backend.repositoryImpl;
+
+import com.hospital.backend.repository.SliceInvalidationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class SliceInvalidationRepositoryImpl implements SliceInvalidationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void record(String sliceKey, String origin, long createdMillis) {
+        jdbcTemplate.update("INSERT INTO slice_invalidations (slice_key, origin, created_millis) VALUES (?, ?, ?)",
+                sliceKey, origin, createdMillis);
+    }
+
+    @Override
+    public List<String> findSince(long sinceMillis, String excludeOrigin) {
+        String sql = "SELECT DISTINCT slice_key FROM slice_invalidations WHERE created_millis >= ? AND origin <> ?";
+        return jdbcTemplate.queryForList(sql, String.class, sinceMillis, excludeOrigin);
+    }
+
+    @Override
+    public int purgeBefore(long createdMillis) {
+        return jdbcTemplate.update("DELETE FROM slice_invalidations WHERE created_millis < ?", createdMillis);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hospital.backend.repositoryImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Prepares statements whose result set is read row by row instead of loaded
+ * whole. MySQL Connector/J ignores a positive fetch size unless useCursorFetch
+ * is on; it only streams a forward-only, read-only statement with a fetch size
+ * of Integer.MIN_VALUE. Other drivers (H2 in tests) take an ordinary batch size.
+ * While a MySQL stream is open, nothing else may run on the same connection.
+ */
+final class StreamingStatements {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private StreamingStatements() {
+    }
+
+    static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        String driver = connection.getMetaData().getDriverName();
+        statement.setFetchSize(driver != null && driver.contains("MySQL") ? Integer.MIN_VALUE : BATCH_SIZE);
+        return statement;
+    }
+}
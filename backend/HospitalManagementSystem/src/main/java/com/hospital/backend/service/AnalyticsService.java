@@ -0,0 +1,19 @@
+package com.hospital.backend.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface AnalyticsService {
+    List<Map<String, Object>> getDailyVolume(LocalDate from, LocalDate to, Integer doctorId);
+
+    List<Map<String, Object>> getVolumeBySpecialization(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getStatusDistribution(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getCancellationRates(LocalDate from, LocalDate to);
+
+    List<Map<String, Object>> getRatingTrend(LocalDate from, LocalDate to, Integer doctorId);
+
+    void reconcile();
+}
@@ -0,0 +1,13 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.entity.Appointment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+public interface AppointmentEventService {
+
+    SseEmitter subscribe(int doctorId, LocalDate date);
+
+    void publish(Appointment appointment);
+}
@@ -1,8 +1,10 @@
 package com.hospital.backend.service;
 
+import com.hospital.backend.dto.AppointmentSlot;
 import com.hospital.backend.entity.Appointment;
 import com.hospital.backend.entity.Doctor;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +17,8 @@ public interface AppointmentService {
 
     Optional<Appointment> getAppointmentById(int id);
 
-    Appointment updateAppointment(int id, Appointment appointment);
+    // expectedVersion comes from If-Match; null falls back to the version in the body
+    Appointment updateAppointment(int id, Appointment appointment, Integer expectedVersion);
 
     void deleteAppointment(int id);
 
@@ -27,7 +30,7 @@ public interface AppointmentService {
 
     List<Appointment> getAppointmentsByDate(String date);
 
-    Appointment updateStatus(int id, String status);
+    Appointment updateStatus(int id, String status, Integer expectedVersion);
 
     List<Appointment> getUpcomingAppointments(int doctorId);
 
@@ -37,4 +40,10 @@ public interface AppointmentService {
 
     List<Appointment> getAppointmentsByDoctorAndDate(int doctorId, String date);
 
+    List<AppointmentSlot> getSlotsByDoctorAndDate(int doctorId, LocalDate date);
+
+    List<AppointmentSlot> getDoctorCalendar(int doctorId, LocalDate from, LocalDate to);
+
+    List<AppointmentSlot> getPatientAppointmentList(int patientId);
+
 }
\ No newline at end of file
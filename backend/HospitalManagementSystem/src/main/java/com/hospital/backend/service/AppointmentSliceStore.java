@@ -0,0 +1,27 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.entity.Appointment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Second cache tier for (doctorId, date) appointment slices, meant to be shared by
+ * every backend node (e.g. backed by Redis or Memcached). Implementations must be
+ * thread safe. Keys look like "appointments:{doctorId}:{yyyy-MM-dd}".
+ */
+public interface AppointmentSliceStore {
+
+    // The hospital.slice-cache.shared-tier value that selects this store
+    String tier();
+
+    Optional<Entry> get(String key);
+
+    void put(String key, Entry entry, Duration ttl);
+
+    void evict(String key);
+
+    record Entry(List<Appointment> appointments, long loadedAtMillis) {
+    }
+}
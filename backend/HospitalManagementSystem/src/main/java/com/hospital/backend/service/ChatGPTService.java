@@ -3,6 +3,7 @@ package com.hospital.backend.service;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
@@ -11,11 +12,12 @@ import com.hospital.backend.dto.ChatGPTResponse;
 import com.hospital.backend.dto.PromptRequest;
 
 @Service
+@Lazy
 public class ChatGPTService {
 
     private final RestClient restClient;
 
-    public ChatGPTService(RestClient restClient) {
+    public ChatGPTService(@Lazy RestClient restClient) {
         this.restClient = restClient;
     }
 
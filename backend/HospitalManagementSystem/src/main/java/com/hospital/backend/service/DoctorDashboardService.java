@@ -0,0 +1,7 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.DoctorDashboard;
+
+public interface DoctorDashboardService {
+    DoctorDashboard getDashboard(int doctorId, int size);
+}
@@ -0,0 +1,10 @@
+package com.hospital.backend.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+
+    void purgeExpired();
+}
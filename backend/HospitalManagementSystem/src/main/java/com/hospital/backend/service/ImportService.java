@@ -0,0 +1,12 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.ImportResult;
+
+import java.io.InputStream;
+
+public interface ImportService {
+
+    ImportResult importPatients(InputStream input, String contentType, Integer chunkSize);
+
+    ImportResult importDoctors(InputStream input, String contentType, Integer chunkSize);
+}
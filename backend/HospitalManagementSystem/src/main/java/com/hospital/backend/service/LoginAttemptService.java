@@ -0,0 +1,15 @@
+package com.hospital.backend.service;
+
+import java.util.Map;
+
+public interface LoginAttemptService {
+
+    // Seconds until the account or address may try again, 0 when the attempt may proceed
+    long checkBlocked(String userType, String email, String clientIp);
+
+    void recordFailure(String userType, String email, String clientIp);
+
+    void recordSuccess(String userType, String email, String clientIp);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,19 @@
+package com.hospital.backend.service;
+
+import jakarta.mail.internet.MimeMessage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface MailDeliveryService {
+
+    // Queues the message; the future completes once the SMTP server has accepted it, or
+    // exceptionally with a MailDeliveryException saying whether it may have been delivered anyway
+    CompletableFuture<Void> send(MimeMessage message);
+
+    List<CompletableFuture<Void>> sendAll(Collection<MimeMessage> messages);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,20 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.MedicineCount;
+import com.hospital.backend.dto.PatientMedicineUsage;
+
+import java.util.List;
+import java.util.Map;
+
+public interface MedicineUsageService {
+
+    // Patients prescribed the medicine at an appointment in the last `days` days
+    List<PatientMedicineUsage> getPatientsPrescribed(String medicine, int days);
+
+    // Most prescribed medicines for a doctor (or everyone when null), optionally in the last `days` days
+    List<MedicineCount> getTopMedicines(Integer doctorId, Integer days, int limit);
+
+    void rebuildIndex();
+
+    Map<String, Object> getIndexStats();
+}
@@ -0,0 +1,14 @@
+package com.hospital.backend.service;
+
+public interface PasswordResetService {
+
+    String PATIENT = "PATIENT";
+    String DOCTOR = "DOCTOR";
+    String ADMIN = "ADMIN";
+
+    void initiateReset(String userType, String email);
+
+    void resetPassword(String userType, String token, String newPassword);
+
+    void purgeExpired();
+}
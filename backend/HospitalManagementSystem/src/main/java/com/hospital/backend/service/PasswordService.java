@@ -0,0 +1,22 @@
+package com.hospital.backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface PasswordService {
+
+    String encode(String rawPassword);
+
+    CompletableFuture<String> encodeAsync(String rawPassword);
+
+    List<String> encodeAll(List<String> rawPasswords);
+
+    boolean matches(String rawPassword, String storedPassword);
+
+    boolean needsUpgrade(String storedPassword);
+
+    String encodeIfPlain(String password);
+
+    Map<String, Object> getStats();
+}
@@ -11,7 +11,8 @@ public interface PatientService {
 
     Optional<Patient> getPatientById(int id);
 
-    Patient updatePatient(int id, Patient patient);
+    // expectedVersion comes from If-Match; null falls back to the version in the body
+    Patient updatePatient(int id, Patient patient, Integer expectedVersion);
 
     void deletePatient(int id);
 
@@ -0,0 +1,11 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.PatientTimeline;
+
+public interface PatientTimelineService {
+    PatientTimeline getTimeline(int patientId, int page, int size);
+
+    void invalidate(int patientId);
+
+    void invalidateAll();
+}
@@ -0,0 +1,34 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.DispenseResult;
+import com.hospital.backend.dto.LowStockAlert;
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.entity.Prescription;
+
+import java.util.List;
+import java.util.Map;
+
+public interface PharmacyService {
+
+    // Takes one unit of each stocked medicine named on the prescription
+    DispenseResult dispense(Prescription prescription);
+
+    List<MedicineStock> getAllStock();
+
+    MedicineStock getStockById(int id);
+
+    MedicineStock createStock(MedicineStock stock);
+
+    MedicineStock updateReorderLevel(int id, int reorderLevel);
+
+    MedicineStock restock(int id, int units);
+
+    void deleteStock(int id);
+
+    List<LowStockAlert> getLowStockAlerts();
+
+    // Gives allotments nobody has dispensed from lately back to medicine_stock
+    void flush();
+
+    Map<String, Object> getStats();
+}
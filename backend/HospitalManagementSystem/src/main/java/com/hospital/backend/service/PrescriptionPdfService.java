@@ -0,0 +1,23 @@
+package com.hospital.backend.service;
+
+import com.hospital.backend.dto.PrescriptionDocument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+public interface PrescriptionPdfService {
+
+    // Throws when the prescription does not exist
+    PrescriptionDocument getDocument(int prescriptionId);
+
+    // Changes whenever anything printed on the PDF changes; the cache key and the ETag
+    String getVersion(PrescriptionDocument document);
+
+    // Copies the cached PDF, or renders straight to out and caches the bytes
+    void writePdf(PrescriptionDocument document, OutputStream out) throws IOException;
+
+    byte[] getPdf(PrescriptionDocument document);
+
+    Map<String, Object> getStats();
+}
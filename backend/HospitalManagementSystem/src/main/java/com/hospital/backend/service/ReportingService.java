@@ -0,0 +1,11 @@
+package com.hospital.backend.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface ReportingService {
+    Map<String, Object> queryAppointments(LocalDate from, LocalDate to, Integer doctorId, String status,
+            String bloodGroup, String groupBy);
+
+    void refresh();
+}
@@ -3,6 +3,7 @@ package com.hospital.backend.serviceImpl;
 import com.hospital.backend.entity.Admin;
 import com.hospital.backend.repository.AdminRepository;
 import com.hospital.backend.service.AdminService;
+import com.hospital.backend.service.PasswordService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,9 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private AdminRepository adminRepository;
 
+    @Autowired
+    private PasswordService passwordService;
+
     @Override
     public Optional<Admin> findByEmail(String email) {
         return adminRepository.findByEmail(email);
@@ -21,6 +25,7 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public Admin createOrUpdate(Admin admin) {
+        admin.setPassword(passwordService.encodeIfPlain(admin.getPassword()));
         return adminRepository.save(admin);
     }
 }
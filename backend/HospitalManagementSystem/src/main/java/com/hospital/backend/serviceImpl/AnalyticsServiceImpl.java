@@ -0,0 +1,82 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.repository.AnalyticsRepository;
+import com.hospital.backend.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getDailyVolume(LocalDate from, LocalDate to, Integer doctorId) {
+        LocalDate end = endOf(to);
+        return analyticsRepository.getDailyVolume(startOf(from, end), end, doctorId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getVolumeBySpecialization(LocalDate from, LocalDate to) {
+        LocalDate end = endOf(to);
+        return analyticsRepository.getVolumeBySpecialization(startOf(from, end), end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getStatusDistribution(LocalDate from, LocalDate to) {
+        LocalDate end = endOf(to);
+        return analyticsRepository.getStatusDistribution(startOf(from, end), end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCancellationRates(LocalDate from, LocalDate to) {
+        LocalDate end = endOf(to);
+        return analyticsRepository.getCancellationRates(startOf(from, end), end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRatingTrend(LocalDate from, LocalDate to, Integer doctorId) {
+        LocalDate end = endOf(to);
+        return analyticsRepository.getRatingTrend(startOf(from, end), end, doctorId);
+    }
+
+    // Recomputes the rollups from the source tables, correcting drift from writes
+    // that bypass the repositories (manual SQL, cascades, failed transactions)
+    @Override
+    @Scheduled(cron = "${hospital.analytics.reconcile-cron:0 30 2 * * *}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            analyticsRepository.rebuild();
+            System.out.println("Analytics rollups reconciled in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Error reconciling analytics rollups: " + e.getMessage());
+        }
+    }
+
+    private static LocalDate endOf(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+
+    private static LocalDate startOf(LocalDate from, LocalDate end) {
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return start;
+    }
+}
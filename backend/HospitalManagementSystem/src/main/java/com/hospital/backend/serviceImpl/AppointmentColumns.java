@@ -0,0 +1,225 @@
+package com.hospital.backend.serviceImpl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable column-oriented copy of the appointment table for admin reports.
+ * Each attribute is a primitive array indexed by row; status and blood group are
+ * dictionary encoded. Queries run as a tight filter loop that produces a selection
+ * vector, followed by a group-by into dense counter arrays.
+ */
+final class AppointmentColumns {
+
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final String UNKNOWN = "UNKNOWN";
+
+    final int size;
+    final int[] appointmentId;
+    final int[] patientId;
+    final int[] doctorId;
+    final int[] epochDay;
+    final int[] statusCode;
+    final int[] bloodGroupCode;
+    final String[] statuses;
+    final String[] bloodGroups;
+    final int maxDoctorId;
+    final LocalDateTime takenAt;
+
+    private AppointmentColumns(Builder b) {
+        this.size = b.size;
+        this.appointmentId = Arrays.copyOf(b.appointmentId, b.size);
+        this.patientId = Arrays.copyOf(b.patientId, b.size);
+        this.doctorId = Arrays.copyOf(b.doctorId, b.size);
+        this.epochDay = Arrays.copyOf(b.epochDay, b.size);
+        this.statusCode = Arrays.copyOf(b.statusCode, b.size);
+        this.bloodGroupCode = Arrays.copyOf(b.bloodGroupCode, b.size);
+        this.statuses = b.statuses.toArray(new String[0]);
+        this.bloodGroups = b.bloodGroups.toArray(new String[0]);
+        this.maxDoctorId = b.maxDoctorId;
+        this.takenAt = LocalDateTime.now();
+    }
+
+    static AppointmentColumns empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * Returns the row numbers matching every non-null filter. Dictionary values are
+     * resolved to codes once, so the loop compares ints only.
+     */
+    int[] select(LocalDate from, LocalDate to, Integer doctor, String status, String bloodGroup) {
+        // Undated rows (NO_DATE) only pass when there is no date filter at all
+        boolean anyDate = from == null && to == null;
+        int fromDay = from != null ? (int) from.toEpochDay() : anyDate ? NO_DATE : NO_DATE + 1;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        int doctorFilter = doctor != null ? doctor : -1;
+        int statusFilter = status != null ? indexOf(statuses, normalise(status)) : -1;
+        int bloodGroupFilter = bloodGroup != null ? indexOf(bloodGroups, normalise(bloodGroup)) : -1;
+        if ((status != null && statusFilter < 0) || (bloodGroup != null && bloodGroupFilter < 0)) {
+            return new int[0];
+        }
+
+        int[] selection = new int[size];
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            int day = epochDay[i];
+            boolean keep = (day >= fromDay & day <= toDay)
+                    & (doctorFilter < 0 || doctorId[i] == doctorFilter)
+                    & (statusFilter < 0 || statusCode[i] == statusFilter)
+                    & (bloodGroupFilter < 0 || bloodGroupCode[i] == bloodGroupFilter);
+            selection[selected] = i;
+            selected += keep ? 1 : 0;
+        }
+        return Arrays.copyOf(selection, selected);
+    }
+
+    /** Counts selected rows per group key, in key order for date and doctor. */
+    List<Map<String, Object>> countBy(String groupBy, int[] selection) {
+        switch (groupBy) {
+            case "status":
+                return dictionaryCounts("status", statusCode, statuses, selection);
+            case "bloodGroup":
+                return dictionaryCounts("bloodGroup", bloodGroupCode, bloodGroups, selection);
+            case "doctor":
+                return doctorCounts(selection);
+            case "date":
+                return dateCounts(selection);
+            default:
+                throw new IllegalArgumentException("groupBy must be one of status, bloodGroup, doctor, date");
+        }
+    }
+
+    private List<Map<String, Object>> dictionaryCounts(String key, int[] codes, String[] dictionary, int[] selection) {
+        int[] counts = new int[dictionary.length];
+        for (int row : selection) {
+            counts[codes[row]]++;
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.add(group(key, dictionary[code], counts[code]));
+            }
+        }
+        result.sort((a, b) -> Integer.compare((int) b.get("count"), (int) a.get("count")));
+        return result;
+    }
+
+    private List<Map<String, Object>> doctorCounts(int[] selection) {
+        int[] counts = new int[maxDoctorId + 1];
+        for (int row : selection) {
+            counts[doctorId[row]]++;
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                result.add(group("doctorId", id, counts[id]));
+            }
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> dateCounts(int[] selection) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int row : selection) {
+            int day = epochDay[row];
+            if (day != NO_DATE) {
+                min = Math.min(min, day);
+                max = Math.max(max, day);
+            }
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (min > max) {
+            return result;
+        }
+        int[] counts = new int[max - min + 1];
+        for (int row : selection) {
+            int day = epochDay[row];
+            if (day != NO_DATE) {
+                counts[day - min]++;
+            }
+        }
+        for (int offset = 0; offset < counts.length; offset++) {
+            if (counts[offset] > 0) {
+                result.add(group("date", LocalDate.ofEpochDay(min + offset).toString(), counts[offset]));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Object> group(String key, Object value, int count) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(key, value);
+        row.put("count", count);
+        return row;
+    }
+
+    private static int indexOf(String[] dictionary, String value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String normalise(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value.trim().toUpperCase();
+    }
+
+    static final class Builder {
+        private int size;
+        private int[] appointmentId = new int[1024];
+        private int[] patientId = new int[1024];
+        private int[] doctorId = new int[1024];
+        private int[] epochDay = new int[1024];
+        private int[] statusCode = new int[1024];
+        private int[] bloodGroupCode = new int[1024];
+        private final List<String> statuses = new ArrayList<>();
+        private final Map<String, Integer> statusCodes = new HashMap<>();
+        private final List<String> bloodGroups = new ArrayList<>();
+        private final Map<String, Integer> bloodGroupCodes = new HashMap<>();
+        private int maxDoctorId;
+
+        void add(int apId, int pId, int drId, LocalDate date, String status, String bloodGroup) {
+            if (size == appointmentId.length) {
+                int capacity = size * 2;
+                appointmentId = Arrays.copyOf(appointmentId, capacity);
+                patientId = Arrays.copyOf(patientId, capacity);
+                doctorId = Arrays.copyOf(doctorId, capacity);
+                epochDay = Arrays.copyOf(epochDay, capacity);
+                statusCode = Arrays.copyOf(statusCode, capacity);
+                bloodGroupCode = Arrays.copyOf(bloodGroupCode, capacity);
+            }
+            appointmentId[size] = apId;
+            patientId[size] = pId;
+            doctorId[size] = drId;
+            epochDay[size] = date != null ? (int) date.toEpochDay() : NO_DATE;
+            statusCode[size] = encode(normalise(status), statuses, statusCodes);
+            bloodGroupCode[size] = encode(normalise(bloodGroup), bloodGroups, bloodGroupCodes);
+            maxDoctorId = Math.max(maxDoctorId, drId);
+            size++;
+        }
+
+        AppointmentColumns build() {
+            return new AppointmentColumns(this);
+        }
+
+        private static int encode(String value, List<String> dictionary, Map<String, Integer> codes) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.hospital.backend.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.backend.dto.AppointmentSlot;
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.repository.AppointmentRepository;
+import com.hospital.backend.service.AppointmentEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Pushes a doctor's appointment list for one day to subscribed screens over
+ * server-sent events. Writes only mark the (doctor, date) topic dirty; a flusher
+ * running every few hundred milliseconds loads each dirty topic once, serializes
+ * it once and sends the same payload to every subscriber, so a burst of writes
+ * costs one query and one message per screen.
+ */
+@Service
+public class AppointmentEventServiceImpl implements AppointmentEventService {
+
+    @Value("${hospital.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("liveEventExecutor")
+    private TaskExecutor liveEventExecutor;
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public SseEmitter subscribe(int doctorId, LocalDate date) {
+        String topic = topic(doctorId, date);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(topic, k -> new CopyOnWriteArraySet<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> remove(topic, emitter));
+        emitter.onTimeout(() -> remove(topic, emitter));
+        emitter.onError(e -> remove(topic, emitter));
+
+        // Initial snapshot so the client does not need a separate GET
+        try {
+            send(emitter, serialize(doctorId, date));
+        } catch (IOException e) {
+            remove(topic, emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void publish(Appointment appointment) {
+        if (appointment == null || appointment.getDrId() == null || appointment.getAppointmentDate() == null) {
+            return;
+        }
+        String topic = topic(appointment.getDrId(), appointment.getAppointmentDate().toLocalDate());
+        // Nobody is watching this day; skip the reload entirely
+        if (subscribers.containsKey(topic)) {
+            dirty.add(topic);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.live.coalesce-ms:250}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        for (String topic : List.copyOf(dirty)) {
+            dirty.remove(topic);
+            Set<SseEmitter> emitters = subscribers.get(topic);
+            if (emitters == null || emitters.isEmpty()) {
+                continue;
+            }
+            liveEventExecutor.execute(() -> broadcast(topic, emitters));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${hospital.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        // Keeps proxies from closing idle streams and surfaces dead connections
+        subscribers.forEach((topic, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (Exception e) {
+                    remove(topic, emitter);
+                }
+            }
+        });
+    }
+
+    private void broadcast(String topic, Set<SseEmitter> emitters) {
+        String[] parts = topic.split(":");
+        String payload;
+        try {
+            payload = serialize(Integer.parseInt(parts[0]), LocalDate.parse(parts[1]));
+        } catch (Exception e) {
+            System.err.println("Error loading live appointments for " + topic + ": " + e.getMessage());
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                send(emitter, payload);
+            } catch (Exception e) {
+                remove(topic, emitter);
+            }
+        }
+    }
+
+    private String serialize(int doctorId, LocalDate date) throws IOException {
+        List<AppointmentSlot> slots = appointmentRepository.getSlotsByDoctorAndDate(doctorId, date);
+        return objectMapper.writeValueAsString(slots);
+    }
+
+    private void send(SseEmitter emitter, String payload) throws IOException {
+        emitter.send(SseEmitter.event().name("appointments").data(payload));
+    }
+
+    private void remove(String topic, SseEmitter emitter) {
+        subscribers.computeIfPresent(topic, (k, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static String topic(int doctorId, LocalDate date) {
+        return doctorId + ":" + date;
+    }
+}
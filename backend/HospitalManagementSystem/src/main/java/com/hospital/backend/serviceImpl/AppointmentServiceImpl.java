@@ -1,22 +1,32 @@
 package com.hospital.backend.serviceImpl;
 
 import com.hospital.backend.EmailService;
+import com.hospital.backend.config.AppointmentSliceCache;
+import com.hospital.backend.dto.AppointmentSlot;
 import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.AppointmentStatus;
 import com.hospital.backend.entity.Doctor;
 import com.hospital.backend.entity.Patient;
 import com.hospital.backend.entity.Specialization;
+import com.hospital.backend.exceptions.AppointmentConflictException;
+import com.hospital.backend.exceptions.PreconditionRequiredException;
+import com.hospital.backend.exceptions.VersionConflictException;
 import com.hospital.backend.repository.AppointmentRepository;
 import com.hospital.backend.repository.DoctorRepository;
 import com.hospital.backend.repository.PatientRepository;
 import com.hospital.backend.repository.SpecializationRepository;
+import com.hospital.backend.service.AppointmentEventService;
 import com.hospital.backend.service.AppointmentService;
+import com.hospital.backend.service.PatientTimelineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
@@ -25,6 +35,7 @@ public class AppointmentServiceImpl implements AppointmentService {
     private AppointmentRepository appointmentRepository;
 
     @Autowired
+    @Lazy
     private EmailService emailService;
 
     @Autowired
@@ -36,10 +47,31 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Autowired
     private SpecializationRepository specializationRepository;
 
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Autowired
+    private AppointmentSliceCache sliceCache;
+
+    @Autowired
+    private AppointmentEventService appointmentEventService;
+
     @Override
     public Appointment createAppointment(Appointment appointment) {
+        if (appointment.getStatus() != null && appointment.getStatus().isFinal()) {
+            throw new IllegalArgumentException("A new appointment must be PENDING or SCHEDULED");
+        }
+        // Changes go through updateAppointment, which checks the version
+        if (appointment.getApId() != 0) {
+            throw new IllegalArgumentException("A new appointment cannot carry an id; update appointment "
+                    + appointment.getApId() + " with PUT instead");
+        }
         // Create the appointment first
         Appointment createdAppointment = appointmentRepository.createAppointment(appointment);
+        if (createdAppointment.getpId() != null) {
+            patientTimelineService.invalidate(createdAppointment.getpId());
+        }
+        appointmentEventService.publish(createdAppointment);
 
         // Send confirmation email
         try {
@@ -85,9 +117,8 @@ public class AppointmentServiceImpl implements AppointmentService {
                                 appointmentDate,
                                 appointmentTime,
                                 description,
-                                appointmentId);
-
-                        System.out.println("Appointment confirmation email sent to: " + patientEmail);
+                                appointmentId)
+                                .whenComplete((sent, error) -> logConfirmation(patientEmail, error));
                     } catch (Exception mailEx) {
                         System.err.println("Error sending appointment confirmation email: " + mailEx.getMessage());
                         mailEx.printStackTrace();
@@ -115,10 +146,24 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     @Override
-    public Appointment updateAppointment(int id, Appointment appointment) {
+    public Appointment updateAppointment(int id, Appointment appointment, Integer expectedVersion) {
+        // Has to come from the caller: checking against the row just read would let a stale edit through
+        Integer sent = expectedVersion != null ? expectedVersion : appointment.getVersion();
+        if (sent == null) {
+            throw new PreconditionRequiredException("Updating appointment " + id
+                    + " needs the version it was read at, in If-Match or the body");
+        }
+        int expected = sent;
         // Fetch the existing appointment
         Appointment existing = appointmentRepository.getAppointmentById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        if (expected != existing.getVersion()) {
+            throw staleVersion(id, expected, existing.getVersion());
+        }
+        // Snapshot before the fields below are overwritten so the old day's screen is refreshed too
+        Appointment previous = new Appointment();
+        previous.setDrId(existing.getDrId());
+        previous.setAppointmentDate(existing.getAppointmentDate());
 
         // Determine if provided date or time changed (ignore nulls in payload)
         boolean dateChanged = appointment.getAppointmentDate() != null
@@ -127,63 +172,10 @@ public class AppointmentServiceImpl implements AppointmentService {
                 && !appointment.getAppointmentTime().equals(existing.getAppointmentTime());
         boolean dateOrTimeChanged = dateChanged || timeChanged;
 
-        // If status is Pending and date/time changed, update status and send email
-        if (dateOrTimeChanged && "PENDING".equalsIgnoreCase(existing.getStatus())) {
-            existing.setStatus("SCHEDULED");
-            int patientId = existing.getpId();
-            int doctorId = existing.getDrId();
-
-            try {
-                Optional<Patient> patientOpt = patientRepository.getPatientById(patientId);
-                Optional<Doctor> doctorOpt = doctorRepository.getDoctorById(doctorId);
-
-                if (patientOpt.isPresent() && doctorOpt.isPresent()) {
-                    Patient patient = patientOpt.get();
-                    Doctor doctor = doctorOpt.get();
-
-                    String patientEmail = patient.getEmail();
-                    if (patientEmail != null && !patientEmail.isBlank()) {
-                        try {
-                            // Get specialization name
-                            String specializationName = "General";
-                            if (doctor.getSpId() != null) {
-                                Optional<Specialization> specOpt = specializationRepository
-                                        .getSpecializationById(doctor.getSpId());
-                                if (specOpt.isPresent()) {
-                                    specializationName = specOpt.get().getSpName();
-                                }
-                            }
-
-                            // Prepare appointment details
-                            String appointmentDate = (appointment.getAppointmentDate() != null
-                                    ? appointment.getAppointmentDate()
-                                    : existing.getAppointmentDate()).toString();
-                            String appointmentTime = (appointment.getAppointmentTime() != null
-                                    ? appointment.getAppointmentTime()
-                                    : existing.getAppointmentTime()).toString();
-                            String description = existing.getDescript();
-                            String appointmentId = String.valueOf(existing.getApId());
-
-                            // Send HTML email confirmation
-                            emailService.sendAppointmentConfirmation(
-                                    patientEmail,
-                                    patient.getName(),
-                                    doctor.getDrName(),
-                                    specializationName,
-                                    appointmentDate,
-                                    appointmentTime,
-                                    description,
-                                    appointmentId);
-                        } catch (Exception mailEx) {
-                            System.err.println("Error sending appointment confirmation email: " + mailEx.getMessage());
-                            // Swallow email errors to avoid blocking the update
-                        }
-                    }
-                }
-            } catch (Exception ex) {
-                System.err.println("Error fetching patient/doctor details: " + ex.getMessage());
-                // If patient/doctor not found or any error occurs, continue without email
-            }
+        // If status is Pending and date/time changed, update status and send email once saved
+        boolean scheduled = dateOrTimeChanged && existing.getStatus() == AppointmentStatus.PENDING;
+        if (scheduled) {
+            existing.setStatus(AppointmentStatus.SCHEDULED);
         }
 
         // Apply only provided fields; preserve others
@@ -196,12 +188,81 @@ public class AppointmentServiceImpl implements AppointmentService {
         // ... update other fields as needed ...
 
         // Save and return
-        return appointmentRepository.updateAppointment(existing);
+        Appointment updated = appointmentRepository.updateAppointment(existing, expected).orElseThrow(() -> {
+            Integer now = appointmentRepository.getAppointmentById(id).map(Appointment::getVersion).orElse(null);
+            return now == null ? new RuntimeException("Appointment not found with id: " + id)
+                    : staleVersion(id, expected, now);
+        });
+        invalidateTimeline(existing);
+        appointmentEventService.publish(previous);
+        appointmentEventService.publish(existing);
+        if (scheduled) {
+            sendScheduledConfirmation(updated);
+        }
+        return updated;
+    }
+
+    private void sendScheduledConfirmation(Appointment appointment) {
+        try {
+            Optional<Patient> patientOpt = patientRepository.getPatientById(appointment.getpId());
+            Optional<Doctor> doctorOpt = doctorRepository.getDoctorById(appointment.getDrId());
+
+            if (patientOpt.isPresent() && doctorOpt.isPresent()) {
+                Patient patient = patientOpt.get();
+                Doctor doctor = doctorOpt.get();
+
+                String patientEmail = patient.getEmail();
+                if (patientEmail != null && !patientEmail.isBlank()) {
+                    try {
+                        // Get specialization name
+                        String specializationName = "General";
+                        if (doctor.getSpId() != null) {
+                            Optional<Specialization> specOpt = specializationRepository
+                                    .getSpecializationById(doctor.getSpId());
+                            if (specOpt.isPresent()) {
+                                specializationName = specOpt.get().getSpName();
+                            }
+                        }
+
+                        // Send HTML email confirmation
+                        emailService.sendAppointmentConfirmation(
+                                patientEmail,
+                                patient.getName(),
+                                doctor.getDrName(),
+                                specializationName,
+                                String.valueOf(appointment.getAppointmentDate()),
+                                String.valueOf(appointment.getAppointmentTime()),
+                                appointment.getDescript(),
+                                String.valueOf(appointment.getApId()))
+                                .whenComplete((sent, error) -> logConfirmation(patientEmail, error));
+                    } catch (Exception mailEx) {
+                        System.err.println("Error sending appointment confirmation email: " + mailEx.getMessage());
+                        // Swallow email errors to avoid blocking the update
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            System.err.println("Error fetching patient/doctor details: " + ex.getMessage());
+            // If patient/doctor not found or any error occurs, continue without email
+        }
+    }
+
+    // Delivery finishes after the request has returned, so failures only reach the log
+    private static void logConfirmation(String patientEmail, Throwable error) {
+        if (error == null) {
+            System.out.println("Appointment confirmation email sent to: " + patientEmail);
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            System.err.println("Error sending appointment confirmation email: " + cause.getMessage());
+        }
     }
 
     @Override
     public void deleteAppointment(int id) {
+        Optional<Appointment> existing = appointmentRepository.getAppointmentById(id);
         appointmentRepository.deleteAppointment(id);
+        existing.ifPresent(this::invalidateTimeline);
+        existing.ifPresent(appointmentEventService::publish);
     }
 
     @Override
@@ -217,15 +278,19 @@ public class AppointmentServiceImpl implements AppointmentService {
             if (appointment.getAppointmentDate() != null &&
                     appointment.getAppointmentDate().before(today)) {
 
-                String currentStatus = appointment.getStatus();
-                if ("PENDING".equalsIgnoreCase(currentStatus) ||
-                        "SCHEDULED".equalsIgnoreCase(currentStatus)) {
+                AppointmentStatus currentStatus = appointment.getStatus();
+                if (currentStatus.isActive()) {
 
                     // Update status to COMPLETED for past appointments
                     try {
-                        appointmentRepository.updateStatus(appointment.getApId(), "COMPLETED");
-                        appointment.setStatus("COMPLETED");
-                        System.out.println("Auto-updated past appointment " + appointment.getApId() + " to COMPLETED");
+                        // Skipped if the row changed since it was read
+                        Optional<Appointment> completed = appointmentRepository.updateStatus(appointment,
+                                AppointmentStatus.COMPLETED);
+                        if (completed.isPresent()) {
+                            appointment.setStatus(AppointmentStatus.COMPLETED);
+                            appointment.setVersion(completed.get().getVersion());
+                            System.out.println("Auto-updated past appointment " + appointment.getApId() + " to COMPLETED");
+                        }
                     } catch (Exception e) {
                         System.err.println("Error updating past appointment status: " + e.getMessage());
                     }
@@ -249,15 +314,19 @@ public class AppointmentServiceImpl implements AppointmentService {
             if (appointment.getAppointmentDate() != null &&
                     appointment.getAppointmentDate().before(today)) {
 
-                String currentStatus = appointment.getStatus();
-                if ("PENDING".equalsIgnoreCase(currentStatus) ||
-                        "SCHEDULED".equalsIgnoreCase(currentStatus)) {
+                AppointmentStatus currentStatus = appointment.getStatus();
+                if (currentStatus.isActive()) {
 
                     // Update status to COMPLETED for past appointments
                     try {
-                        appointmentRepository.updateStatus(appointment.getApId(), "COMPLETED");
-                        appointment.setStatus("COMPLETED");
-                        System.out.println("Auto-updated past appointment " + appointment.getApId() + " to COMPLETED");
+                        // Skipped if the row changed since it was read
+                        Optional<Appointment> completed = appointmentRepository.updateStatus(appointment,
+                                AppointmentStatus.COMPLETED);
+                        if (completed.isPresent()) {
+                            appointment.setStatus(AppointmentStatus.COMPLETED);
+                            appointment.setVersion(completed.get().getVersion());
+                            System.out.println("Auto-updated past appointment " + appointment.getApId() + " to COMPLETED");
+                        }
                     } catch (Exception e) {
                         System.err.println("Error updating past appointment status: " + e.getMessage());
                     }
@@ -270,7 +339,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public List<Appointment> getAppointmentsByStatus(String status) {
-        return appointmentRepository.getAppointmentsByStatus(status);
+        return appointmentRepository.getAppointmentsByStatus(AppointmentStatus.parse(status));
     }
 
     @Override
@@ -290,17 +359,87 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public List<Appointment> getTodayAppointments(int doctorId) {
-        return appointmentRepository.getTodayAppointments(doctorId);
+        // Shares the slice with the by-date lookup, so both are keyed on the app server's date
+        LocalDate today = LocalDate.now();
+        return sliceCache.get(doctorId, today,
+                () -> appointmentRepository.getAppointmentsByDoctorAndDate(doctorId, today.toString()));
     }
 
     @Override
-    public Appointment updateStatus(int id, String status) {
-        return appointmentRepository.updateStatus(id, status);
+    public Appointment updateStatus(int id, String status, Integer expectedVersion) {
+        AppointmentStatus target = AppointmentStatus.parse(status);
+        // A lost race means the row changed; re-check the transition against it, unless
+        // the caller pinned the version it read with If-Match
+        while (true) {
+            Appointment current = appointmentRepository.getAppointmentById(id)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+            if (expectedVersion != null && expectedVersion != current.getVersion()) {
+                throw staleVersion(id, expectedVersion, current.getVersion());
+            }
+            AppointmentStatus from = current.getStatus();
+            if (from == target) {
+                return current;
+            }
+            if (!from.canTransitionTo(target)) {
+                throw new AppointmentConflictException("Appointment " + id + " cannot go from " + from + " to " + target);
+            }
+            Optional<Appointment> updated = appointmentRepository.updateStatus(current, target);
+            if (updated.isPresent()) {
+                invalidateTimeline(updated.get());
+                appointmentEventService.publish(updated.get());
+                return updated.get();
+            }
+        }
     }
 
     @Override
     public List<Appointment> getAppointmentsByDoctorAndDate(int doctorId, String date) {
-        return appointmentRepository.getAppointmentsByDoctorAndDate(doctorId, date);
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (Exception e) {
+            return appointmentRepository.getAppointmentsByDoctorAndDate(doctorId, date);
+        }
+        return sliceCache.get(doctorId, day,
+                () -> appointmentRepository.getAppointmentsByDoctorAndDate(doctorId, date));
+    }
+
+    @Override
+    public List<AppointmentSlot> getSlotsByDoctorAndDate(int doctorId, LocalDate date) {
+        return appointmentRepository.getSlotsByDoctorAndDate(doctorId, date);
+    }
+
+    @Override
+    public List<AppointmentSlot> getDoctorCalendar(int doctorId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusDays(92).isBefore(to)) {
+            throw new IllegalArgumentException("Calendar range is limited to 92 days");
+        }
+        LocalDate today = LocalDate.now();
+        return appointmentRepository.getSlotsByDoctorBetween(doctorId, from, to).stream()
+                .map(slot -> slot.withDerivedStatus(today))
+                .toList();
+    }
+
+    @Override
+    public List<AppointmentSlot> getPatientAppointmentList(int patientId) {
+        LocalDate today = LocalDate.now();
+        return appointmentRepository.getSlotsByPatient(patientId).stream()
+                .map(slot -> slot.withDerivedStatus(today))
+                .toList();
+    }
+
+    private static VersionConflictException staleVersion(int id, int expected, int current) {
+        return new VersionConflictException("Appointment " + id + " was changed by someone else (version " + current
+                + ", expected " + expected + "); reload it and apply the edit again");
+    }
+
+    private void invalidateTimeline(Appointment appointment) {
+        if (appointment.getpId() != null) {
+            patientTimelineService.invalidate(appointment.getpId());
+        }
     }
 
-}
\ No newline at end of file
+}
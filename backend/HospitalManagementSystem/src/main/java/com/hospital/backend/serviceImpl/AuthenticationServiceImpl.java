@@ -1,14 +1,21 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.LoginRequest;
 import com.hospital.backend.entity.LoginResponse;
 import com.hospital.backend.entity.Doctor;
 import com.hospital.backend.entity.Patient;
+import com.hospital.backend.exceptions.ServiceBusyException;
+import com.hospital.backend.repository.AdminRepository;
+import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.repository.PatientRepository;
 import com.hospital.backend.service.AuthenticationService;
 import com.hospital.backend.service.AdminService;
 import com.hospital.backend.entity.Admin;
 import com.hospital.backend.service.DoctorService;
+import com.hospital.backend.service.PasswordService;
 import com.hospital.backend.service.PatientService;
+import com.hospital.backend.service.PatientTimelineService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class AuthenticationServiceImpl implements AuthenticationService {
@@ -29,6 +37,24 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
     private final Map<String, String> tokenUserMap = new HashMap<>();
     private final String ADMIN_EMAIL_FALLBACK = "admin@hospital.com";
     private final String ADMIN_PASSWORD_FALLBACK = "admin123";
@@ -51,9 +77,17 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             return new LoginResponse(null, "DOCTOR", 0, null, null, "Doctor not found with this email", false);
         }
         
-        if (!loginRequest.getPassword().equals(doctor.get().getPassword())) {
+        if (!passwordService.matches(loginRequest.getPassword(), doctor.get().getPassword())) {
             return new LoginResponse(null, "DOCTOR", 0, null, null, "Incorrect password", false);
         }
+        int doctorId = doctor.get().getDrId();
+        String doctorHash = doctor.get().getPassword();
+        upgradeIfNeeded(loginRequest.getPassword(), doctorHash, "doctor " + doctorId, hash -> {
+            // A password changed since this login was verified is left alone
+            if (doctorRepository.rehashPassword(doctorId, doctorHash, hash) > 0) {
+                entityVersions.bump(EntityVersions.DOCTORS);
+            }
+        });
 
         // If we reach here, credentials are valid
         String token = generateToken();
@@ -88,9 +122,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             return new LoginResponse(null, "PATIENT", 0, null, null, "Patient not found with this email", false);
         }
         
-        if (!loginRequest.getPassword().equals(patient.get().getPassword())) {
+        if (!passwordService.matches(loginRequest.getPassword(), patient.get().getPassword())) {
             return new LoginResponse(null, "PATIENT", 0, null, null, "Incorrect password", false);
         }
+        int patientId = patient.get().getpId();
+        String storedHash = patient.get().getPassword();
+        upgradeIfNeeded(loginRequest.getPassword(), storedHash, "patient " + patientId, hash -> {
+            patientRepository.rehashPassword(patientId, storedHash, hash);
+            patientTimelineService.invalidate(patientId);
+        });
 
         // If we reach here, credentials are valid
         String token = generateToken();
@@ -123,9 +163,12 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         Optional<Admin> adminOpt = adminService.findByEmail(loginRequest.getEmail());
         if (adminOpt.isPresent()) {
             Admin admin = adminOpt.get();
-            if (!loginRequest.getPassword().equals(admin.getPassword())) {
+            if (!passwordService.matches(loginRequest.getPassword(), admin.getPassword())) {
                 return new LoginResponse(null, "ADMIN", 0, null, null, "Invalid admin password", false);
             }
+            String adminHash = admin.getPassword();
+            upgradeIfNeeded(loginRequest.getPassword(), adminHash, "admin " + admin.getAd_ID(),
+                    hash -> adminRepository.rehashPassword(admin.getAd_ID(), adminHash, hash));
             String token = generateToken();
             tokenUserMap.put(token, "ADMIN_" + admin.getAd_ID());
             return new LoginResponse(
@@ -172,6 +215,23 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return tokenUserMap.containsKey(token);
     }
 
+    // Rehashes a legacy plaintext (or lower-cost) password off the request thread after a successful login
+    private void upgradeIfNeeded(String rawPassword, String storedPassword, String account, Consumer<String> store) {
+        if (!passwordService.needsUpgrade(storedPassword)) {
+            return;
+        }
+        try {
+            passwordService.encodeAsync(rawPassword)
+                    .thenAccept(store)
+                    .exceptionally(e -> {
+                        System.err.println("Password rehash failed for " + account + ": " + e.getMessage());
+                        return null;
+                    });
+        } catch (ServiceBusyException e) {
+            // Executor is saturated; the next login will try again
+        }
+    }
+
     private String generateToken() {
         return UUID.randomUUID().toString();
     }
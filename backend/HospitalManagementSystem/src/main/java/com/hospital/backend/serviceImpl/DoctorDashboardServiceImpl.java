@@ -0,0 +1,129 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.dto.DoctorDashboard;
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.entity.Patient;
+import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.repository.AppointmentRepository;
+import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.repository.PrescriptionRepository;
+import com.hospital.backend.service.DoctorDashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+public class DoctorDashboardServiceImpl implements DoctorDashboardService {
+
+    private static final Comparator<Appointment> EARLIEST_FIRST = Comparator
+            .comparing(Appointment::getAppointmentDate)
+            .thenComparing(Appointment::getAppointmentTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ThreadPoolTaskExecutor dashboardExecutor;
+
+    @Override
+    @Transactional(readOnly = true)
+    public DoctorDashboard getDashboard(int doctorId, int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+
+        // The four reads are independent, so they run side by side
+        CompletableFuture<Optional<Doctor>> doctor = CompletableFuture
+                .supplyAsync(() -> doctorRepository.getDoctorById(doctorId), dashboardExecutor);
+        CompletableFuture<List<Appointment>> appointments = CompletableFuture
+                .supplyAsync(() -> appointmentRepository.getAppointmentsByDoctor(doctorId), dashboardExecutor);
+        CompletableFuture<List<Prescription>> prescriptions = CompletableFuture
+                .supplyAsync(() -> prescriptionRepository.getPrescriptionsByDoctor(doctorId), dashboardExecutor);
+        CompletableFuture<List<Patient>> patients = CompletableFuture
+                .supplyAsync(() -> patientRepository.findByDoctorId(doctorId), dashboardExecutor);
+
+        DoctorDashboard dashboard = new DoctorDashboard();
+        dashboard.setDoctor(join(doctor)
+                .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + doctorId)));
+        splitAppointments(dashboard, join(appointments), size);
+        dashboard.setPrescriptions(DoctorDashboard.Section.firstPage(join(prescriptions), size));
+        dashboard.setPatients(DoctorDashboard.Section.firstPage(join(patients), size));
+        return dashboard;
+    }
+
+    /**
+     * Splits the doctor's appointments, read in a single scan, into the same today /
+     * upcoming / past sections the separate appointment endpoints return.
+     */
+    private void splitAppointments(DoctorDashboard dashboard, List<Appointment> appointments, int size) {
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+
+        List<Appointment> todays = new ArrayList<>();
+        List<Appointment> upcoming = new ArrayList<>();
+        List<Appointment> past = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            if (appointment.getAppointmentDate() == null) {
+                continue;
+            }
+            LocalDate date = appointment.getAppointmentDate().toLocalDate();
+            LocalTime time = appointment.getAppointmentTime() != null
+                    ? appointment.getAppointmentTime().toLocalTime()
+                    : null;
+
+            if (date.equals(today)) {
+                todays.add(appointment);
+            }
+            if (date.isBefore(today) || (date.equals(today) && time != null && time.isBefore(now))) {
+                past.add(appointment);
+            } else if ((date.isAfter(today) || (date.equals(today) && time != null && time.isAfter(now)))
+                    && appointment.getStatus().isActive()) {
+                // Same filter as getUpcomingAppointments
+                upcoming.add(appointment);
+            }
+        }
+
+        todays.sort(EARLIEST_FIRST);
+        upcoming.sort(EARLIEST_FIRST);
+        past.sort(EARLIEST_FIRST.reversed());
+
+        dashboard.setToday(DoctorDashboard.Section.firstPage(todays, size));
+        dashboard.setUpcoming(DoctorDashboard.Section.firstPage(upcoming, size));
+        dashboard.setPast(DoctorDashboard.Section.firstPage(past, size));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Doctor;
 import com.hospital.backend.repository.DoctorRepository;
 import com.hospital.backend.service.DoctorService;
+import com.hospital.backend.service.PasswordService;
+import com.hospital.backend.service.PatientTimelineService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,20 +20,25 @@ public class DoctorServiceImpl implements DoctorService {
     private DoctorRepository doctorRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordService passwordService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
 
     @Override
     public Doctor saveDoctor(Doctor doctor) {
-        // Add null check for password
         if (doctor.getPassword() != null && !doctor.getPassword().isEmpty()) {
-            // Skip encoding - use password as-is
-            System.out.println("Password received: " + doctor.getPassword()); // Debug log
-            // Note: password will be stored as plain text
+            doctor.setPassword(passwordService.encodeIfPlain(doctor.getPassword()));
         } else {
             throw new IllegalArgumentException("Password cannot be empty");
         }
 
-        return doctorRepository.saveDoctor(doctor);
+        Doctor saved = doctorRepository.saveDoctor(doctor);
+        entityVersions.bump(EntityVersions.DOCTORS);
+        return saved;
     }
 
     @Override
@@ -47,7 +55,9 @@ public class DoctorServiceImpl implements DoctorService {
     public Doctor updateDoctor(int id, Doctor doctor) {
         if (doctorRepository.existsById(id)) {
             doctor.setDrId(id);
-            return doctorRepository.updateDoctor(doctor);
+            Doctor updated = doctorRepository.updateDoctor(doctor);
+            entityVersions.bump(EntityVersions.DOCTORS);
+            return updated;
         }
         throw new RuntimeException("Doctor not found with id: " + id);
     }
@@ -55,6 +65,11 @@ public class DoctorServiceImpl implements DoctorService {
     @Override
     public void deleteDoctor(int id) {
         doctorRepository.deleteDoctor(id);
+        entityVersions.bump(EntityVersions.DOCTORS);
+        // reviews.doctor_id is ON DELETE CASCADE
+        entityVersions.bump(EntityVersions.REVIEWS);
+        // cascades reach any number of patients' timelines
+        patientTimelineService.invalidateAll();
     }
 
     @Override
@@ -63,11 +78,13 @@ public class DoctorServiceImpl implements DoctorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Doctor> getDoctorsBySpecialization(int specialization) {
         return doctorRepository.getDoctorsBySpecialization(specialization);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Doctor> searchDoctorsByName(String name) {
         return doctorRepository.searchDoctorsByName(name);
     }
@@ -86,19 +103,22 @@ public class DoctorServiceImpl implements DoctorService {
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
 
         // Validate current password
-        if (!currentPassword.equals(doctor.getPassword())) {
+        if (!passwordService.matches(currentPassword, doctor.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
         }
 
         // Update password
-        int rowsUpdated = doctorRepository.updatePassword(id, newPassword);
+        String encoded = passwordService.encode(newPassword);
+        int rowsUpdated = doctorRepository.updatePassword(id, encoded);
 
         if (rowsUpdated == 0) {
             throw new RuntimeException("Failed to update password, no rows affected");
         }
 
+        entityVersions.bump(EntityVersions.DOCTORS);
+
         // Return the updated doctor
-        doctor.setPassword(newPassword);
+        doctor.setPassword(encoded);
         return doctor;
     }
 
@@ -0,0 +1,265 @@
+package com.hospital.backend.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.backend.exceptions.BusinessRuleException;
+import com.hospital.backend.exceptions.IdempotencyConflictException;
+import com.hospital.backend.repository.IdempotencyRepository;
+import com.hospital.backend.repository.IdempotencyRepository.StoredResponse;
+import com.hospital.backend.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated Idempotency-Key instead of running
+ * the create again. Before running a request, the key is claimed with a pending
+ * row in idempotency_keys; its primary key lets only one node win, and the row
+ * is completed with the response afterwards, or deleted if the request failed.
+ * A duplicate that finds a pending row, on any node, polls until it completes
+ * and replays it, or gets a 409 after wait-ms. Completed responses are also
+ * kept in a bounded in-memory map with a TTL, and duplicates on the same node
+ * wait on the first request directly.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Value("${hospital.idempotency.ttl-ms:86400000}")
+    private long ttlMillis;
+
+    @Value("${hospital.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${hospital.idempotency.wait-ms:30000}")
+    private long waitMillis;
+
+    // A pending claim older than this is taken to be from an instance that died mid-request
+    @Value("${hospital.idempotency.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${hospital.idempotency.poll-ms:100}")
+    private long pollMillis;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, StoredResponse> completed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String cacheKey = scope + ":" + key;
+
+        StoredResponse stored = lookupLocal(cacheKey);
+        if (stored != null) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return replay(await(running), requestHash, responseType);
+        }
+
+        try {
+            return runOnce(scope, key, cacheKey, requestHash, responseType, action, mine);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    // This node owns the key; now take it in the database, or replay or wait for whoever holds it there
+    private <T> T runOnce(String scope, String key, String cacheKey, String requestHash, Class<T> responseType,
+            Supplier<T> action, CompletableFuture<StoredResponse> mine) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            // The first request may have just finished here, or on another node (or this one before a restart)
+            StoredResponse stored = lookupLocal(cacheKey);
+            if (stored == null) {
+                stored = idempotencyRepository.find(scope, key).orElse(null);
+            }
+            long now = System.currentTimeMillis();
+            if (stored == null) {
+                if (idempotencyRepository.claim(scope, key, requestHash, new Timestamp(now))) {
+                    break;
+                }
+                // Lost the insert race; read the winner's row
+                continue;
+            }
+            if (!stored.isPending()) {
+                if (now - stored.createdAtMillis() >= ttlMillis) {
+                    idempotencyRepository.deleteIfCreatedBefore(scope, key, new Timestamp(now - ttlMillis));
+                    continue;
+                }
+                cacheLocally(cacheKey, stored);
+                mine.complete(stored);
+                return replay(stored, requestHash, responseType);
+            }
+            checkSameRequest(stored, requestHash);
+            if (idempotencyRepository.deleteIfCreatedBefore(scope, key, new Timestamp(now - leaseMillis))) {
+                System.err.println("Took over abandoned idempotency key " + cacheKey);
+                continue;
+            }
+            if (now >= deadline) {
+                throw stillProcessing();
+            }
+            sleep(pollMillis);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            // Free the key so the client's retry can run the request again
+            try {
+                idempotencyRepository.release(scope, key);
+            } catch (Exception releaseError) {
+                System.err.println("Error releasing idempotency key " + cacheKey + ": " + releaseError.getMessage());
+            }
+            throw e;
+        }
+        StoredResponse stored = new StoredResponse(requestHash, toJson(result), System.currentTimeMillis());
+        cacheLocally(cacheKey, stored);
+        try {
+            idempotencyRepository.complete(scope, key, stored.responseBody());
+        } catch (Exception e) {
+            // Retries against this node still replay from memory; other nodes wait, then take over after the lease
+            System.err.println("Error saving idempotency key " + cacheKey + ": " + e.getMessage());
+        }
+        mine.complete(stored);
+        return result;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hospital.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        synchronized (completed) {
+            completed.values().removeIf(entry -> entry.createdAtMillis() < cutoff);
+        }
+        try {
+            int removed = idempotencyRepository.deleteOlderThan(new Timestamp(cutoff));
+            if (removed > 0) {
+                System.out.println("Purged " + removed + " expired idempotency keys");
+            }
+        } catch (Exception e) {
+            System.err.println("Error purging idempotency keys: " + e.getMessage());
+        }
+    }
+
+    private StoredResponse lookupLocal(String cacheKey) {
+        synchronized (completed) {
+            StoredResponse stored = completed.get(cacheKey);
+            if (stored != null && System.currentTimeMillis() - stored.createdAtMillis() >= ttlMillis) {
+                completed.remove(cacheKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private void cacheLocally(String cacheKey, StoredResponse stored) {
+        synchronized (completed) {
+            completed.put(cacheKey, stored);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The original attempt failed; report the same failure to its duplicate
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw stillProcessing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        checkSameRequest(stored, requestHash);
+        try {
+            return objectMapper.readValue(stored.responseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not replay stored response: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkSameRequest(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BusinessRuleException("Idempotency-Key was already used with a different request body");
+        }
+    }
+
+    private static IdempotencyConflictException stillProcessing() {
+        return new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize idempotent response: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.hospital.backend.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.backend.config.EntityVersions;
+import com.hospital.backend.dto.ImportResult;
+import com.hospital.backend.entity.Doctor;
+import com.hospital.backend.entity.Patient;
+import com.hospital.backend.entity.Specialization;
+import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.repository.SpecializationRepository;
+import com.hospital.backend.service.ImportService;
+import com.hospital.backend.service.PasswordService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON upload into the patient or doctor table. The body is
+ * read one record at a time, so memory stays at one chunk however large the file.
+ * Each chunk is validated in parallel on the import executor, checked against
+ * emails already in the table or earlier in the file, and written with a single
+ * JDBC batch. A batch the database rejects is retried row by row so that only
+ * the offending rows are reported; nothing aborts the rest of the import.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int VALIDATION_SLICES = 4;
+
+    @Value("${hospital.import.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private SpecializationRepository specializationRepository;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private TaskExecutor importExecutor;
+
+    @Override
+    public ImportResult importPatients(InputStream input, String contentType, Integer chunkSize) {
+        ImportResult result = runImport(input, contentType, chunkSize, this::toPatient, Patient::getEmail,
+                patientRepository::findExistingEmails,
+                rows -> hashPasswords(rows, Patient::getPassword, Patient::setPassword),
+                patientRepository::batchInsert);
+        System.out.println("Patient import: " + result.getImported() + " imported, " + result.getFailed()
+                + " failed in " + result.getElapsedMillis() + " ms");
+        return result;
+    }
+
+    @Override
+    public ImportResult importDoctors(InputStream input, String contentType, Integer chunkSize) {
+        Set<Integer> specializationIds = specializationRepository.getAllSpecializations().stream()
+                .map(Specialization::getSpId)
+                .collect(Collectors.toSet());
+        ImportResult result = runImport(input, contentType, chunkSize, row -> toDoctor(row, specializationIds),
+                Doctor::getEmailId, doctorRepository::findExistingEmails,
+                rows -> hashPasswords(rows, Doctor::getPassword, Doctor::setPassword),
+                doctorRepository::batchInsert);
+        if (result.getImported() > 0) {
+            entityVersions.bump(EntityVersions.DOCTORS);
+        }
+        System.out.println("Doctor import: " + result.getImported() + " imported, " + result.getFailed()
+                + " failed in " + result.getElapsedMillis() + " ms");
+        return result;
+    }
+
+    private <T> ImportResult runImport(InputStream input, String contentType, Integer chunkSize,
+            Function<Map<String, String>, T> validator, Function<T, String> emailOf,
+            Function<Set<String>, Set<String>> existingEmails, Consumer<List<T>> prepare, Consumer<List<T>> insert) {
+        int chunk = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (chunk < 1 || chunk > 10_000) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and 10000");
+        }
+        long start = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+        Set<String> seenEmails = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowReader rows = isNdjson(contentType) ? new NdjsonReader(reader) : new CsvReader(reader);
+            List<Row> batch = new ArrayList<>(chunk);
+            Row row;
+            while ((row = rows.next()) != null) {
+                batch.add(row);
+                if (batch.size() == chunk) {
+                    processChunk(batch, validator, emailOf, existingEmails, prepare, insert, seenEmails, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                processChunk(batch, validator, emailOf, existingEmails, prepare, insert, seenEmails, result);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read import: " + e.getMessage());
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private <T> void processChunk(List<Row> rows, Function<Map<String, String>, T> validator,
+            Function<T, String> emailOf, Function<Set<String>, Set<String>> existingEmails,
+            Consumer<List<T>> prepare, Consumer<List<T>> insert, Set<String> seenEmails, ImportResult result) {
+        result.setTotalRows(result.getTotalRows() + rows.size());
+        List<Validated<T>> validated = validateInParallel(rows, validator);
+
+        Set<String> emails = new LinkedHashSet<>();
+        for (Validated<T> v : validated) {
+            if (v.entity != null) {
+                emails.add(emailOf.apply(v.entity).toLowerCase(Locale.ROOT));
+            }
+        }
+        Set<String> existing = existingEmails.apply(emails);
+
+        List<Validated<T>> accepted = new ArrayList<>();
+        for (Validated<T> v : validated) {
+            if (v.error != null) {
+                addError(result, v.line, v.error);
+                continue;
+            }
+            String email = emailOf.apply(v.entity).toLowerCase(Locale.ROOT);
+            if (existing.contains(email)) {
+                addError(result, v.line, "Email already registered: " + email);
+            } else if (!seenEmails.add(email)) {
+                addError(result, v.line, "Duplicate email earlier in file: " + email);
+            } else {
+                accepted.add(v);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            prepare.accept(accepted.stream().map(v -> v.entity).toList());
+        } catch (RuntimeException e) {
+            // Earlier chunks are already committed, so report this one instead of aborting the import
+            String message = e instanceof CompletionException && e.getCause() != null
+                    ? e.getCause().getMessage() : e.getMessage();
+            for (Validated<T> v : accepted) {
+                addError(result, v.line, "Password hashing failed: " + message);
+            }
+            return;
+        }
+
+        try {
+            insert.accept(accepted.stream().map(v -> v.entity).toList());
+            result.setImported(result.getImported() + accepted.size());
+        } catch (DataAccessException batchError) {
+            // Find the offending rows instead of failing the whole chunk
+            for (Validated<T> v : accepted) {
+                try {
+                    insert.accept(List.of(v.entity));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException rowError) {
+                    addError(result, v.line, "Insert failed: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    // Hashes the chunk's passwords across the whole password executor rather than one row at a time
+    private <T> void hashPasswords(List<T> rows, Function<T, String> getter, BiConsumer<T, String> setter) {
+        List<String> hashed = passwordService.encodeAll(rows.stream().map(getter).toList());
+        for (int i = 0; i < rows.size(); i++) {
+            setter.accept(rows.get(i), hashed.get(i));
+        }
+    }
+
+    private <T> List<Validated<T>> validateInParallel(List<Row> rows, Function<Map<String, String>, T> validator) {
+        int sliceSize = Math.max(1, (rows.size() + VALIDATION_SLICES - 1) / VALIDATION_SLICES);
+        List<CompletableFuture<List<Validated<T>>>> futures = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<Row> slice = rows.subList(from, Math.min(rows.size(), from + sliceSize));
+            futures.add(CompletableFuture.supplyAsync(() -> validateSlice(slice, validator), importExecutor));
+        }
+        List<Validated<T>> validated = new ArrayList<>(rows.size());
+        for (CompletableFuture<List<Validated<T>>> future : futures) {
+            validated.addAll(future.join());
+        }
+        return validated;
+    }
+
+    private <T> List<Validated<T>> validateSlice(List<Row> slice, Function<Map<String, String>, T> validator) {
+        List<Validated<T>> out = new ArrayList<>(slice.size());
+        for (Row row : slice) {
+            if (row.parseError != null) {
+                out.add(new Validated<>(row.line, null, row.parseError));
+                continue;
+            }
+            try {
+                out.add(new Validated<>(row.line, validator.apply(row.values), null));
+            } catch (IllegalArgumentException e) {
+                out.add(new Validated<>(row.line, null, e.getMessage()));
+            }
+        }
+        return out;
+    }
+
+    private Patient toPatient(Map<String, String> row) {
+        Patient patient = new Patient();
+        patient.setName(required(row, "name", 100));
+        patient.setEmail(email(required(row, "email", 150)));
+        patient.setPassword(required(row, "password", 255));
+        patient.setDob(date(row, "dob"));
+        patient.setAge(integer(row, "age"));
+        patient.setGender(optional(row, "gender", 10));
+        patient.setBloodGroup(optional(row, "bloodgroup", 10));
+        patient.setMobileNo(optional(row, "mobileno", 20));
+        patient.setAddress(optional(row, "address", 255));
+        return patient;
+    }
+
+    private Doctor toDoctor(Map<String, String> row, Set<Integer> specializationIds) {
+        Doctor doctor = new Doctor();
+        doctor.setDrName(required(row, row.containsKey("drname") ? "drname" : "name", 100));
+        doctor.setEmailId(email(required(row, row.containsKey("emailid") ? "emailid" : "email", 150)));
+        doctor.setPassword(required(row, "password", 255));
+        doctor.setMobileNo(optional(row, "mobileno", 20));
+        doctor.setGender(optional(row, "gender", 10));
+        doctor.setAge(integer(row, "age"));
+        doctor.setExperience(integer(row, "experience"));
+        doctor.setPicture(optional(row, "picture", 255));
+        Integer spId = integer(row, "spid");
+        if (spId != null && !specializationIds.contains(spId)) {
+            throw new IllegalArgumentException("Unknown specialization id: " + spId);
+        }
+        doctor.setSpId(spId);
+        return doctor;
+    }
+
+    private static String required(Map<String, String> row, String field, int maxLength) {
+        String value = optional(row, field, maxLength);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> row, String field, int maxLength) {
+        String value = row.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static Integer integer(Map<String, String> row, String field) {
+        String value = optional(row, field, 11);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static LocalDate date(Map<String, String> row, String field) {
+        String value = optional(row, field, 10);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must be yyyy-MM-dd: " + value);
+        }
+    }
+
+    private static String email(String value) {
+        int at = value.indexOf('@');
+        if (at <= 0 || at != value.lastIndexOf('@') || value.indexOf('.', at) < 0 || value.contains(" ")) {
+            throw new IllegalArgumentException("Invalid email: " + value);
+        }
+        return value;
+    }
+
+    private static void addError(ImportResult result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportResult.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static boolean isNdjson(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+    }
+
+    // Column names are matched loosely: "Blood_Group", "blood group" and "bloodGroup" are the same field
+    private static String normalise(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Row(long line, Map<String, String> values, String parseError) {
+    }
+
+    private record Validated<T>(long line, T entity, String error) {
+    }
+
+    private interface RowReader {
+        Row next() throws IOException;
+    }
+
+    private class NdjsonReader implements RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Map<?, ?> json = objectMapper.readValue(line, Map.class);
+                    Map<String, String> values = new HashMap<>();
+                    json.forEach((k, v) -> values.put(normalise(String.valueOf(k)), v == null ? null : String.valueOf(v)));
+                    return new Row(lineNumber, values, null);
+                } catch (JsonProcessingException e) {
+                    return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /** RFC 4180 records: quoted fields may contain commas, doubled quotes and line breaks. */
+    private static class CsvReader implements RowReader {
+        private final BufferedReader reader;
+        private List<String> header;
+        private long lineNumber = 1;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                List<String> first = readRecord();
+                if (first == null) {
+                    return null;
+                }
+                header = first.stream().map(ImportServiceImpl::normalise).toList();
+            }
+            List<String> fields;
+            long startLine;
+            do {
+                startLine = lineNumber;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            if (fields.size() != header.size()) {
+                return new Row(startLine, null,
+                        "Expected " + header.size() + " columns but found " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return new Row(startLine, values, null);
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    lineNumber++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
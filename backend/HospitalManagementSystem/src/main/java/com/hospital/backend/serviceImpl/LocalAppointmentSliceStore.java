@@ -0,0 +1,51 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.service.AppointmentSliceStore;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a shared slice store, enabled with
+ * hospital.slice-cache.shared-tier=local. Useful for exercising the two-tier path
+ * on a single node; a real deployment would provide a networked implementation.
+ * Always registered; AppointmentSliceCache only uses it when the property asks.
+ */
+@Service
+public class LocalAppointmentSliceStore implements AppointmentSliceStore {
+
+    private final ConcurrentHashMap<String, Stored> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public String tier() {
+        return "local";
+    }
+
+    @Override
+    public Optional<Entry> get(String key) {
+        Stored stored = entries.get(key);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        if (stored.expiresAtMillis < System.currentTimeMillis()) {
+            entries.remove(key, stored);
+            return Optional.empty();
+        }
+        return Optional.of(stored.entry);
+    }
+
+    @Override
+    public void put(String key, Entry entry, Duration ttl) {
+        entries.put(key, new Stored(entry, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    private record Stored(Entry entry, long expiresAtMillis) {
+    }
+}
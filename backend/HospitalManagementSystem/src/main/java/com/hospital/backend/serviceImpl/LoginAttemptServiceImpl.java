@@ -0,0 +1,283 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.service.LoginAttemptService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Failed-login counters per account and client IP pair, per account (user type
+ * + email) and per client IP, kept in memory so a blocked attempt is refused
+ * before any findByEmail query or password check. Each counter is a sliding window made of a small ring of
+ * time buckets in an AtomicLongArray; recording a failure is one CAS on the
+ * current bucket and old buckets expire as the ring wraps, so counts decay on
+ * their own.
+ *
+ * Reaching the limit locks the key. The hard lockout is per (account, IP), so
+ * guessing from one address cannot lock the owner out from theirs; each further
+ * lockout of the same key doubles it, up to the maximum. An account failing from
+ * many addresses only gets a short, fixed backoff, and addresses have their own
+ * limit. Keys with an empty window and no active lock are dropped by the cleanup
+ * job, which also resets the escalation. Logs name accounts by a hash prefix.
+ */
+@Service
+public class LoginAttemptServiceImpl implements LoginAttemptService {
+
+    @Value("${hospital.login-attempts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hospital.login-attempts.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${hospital.login-attempts.buckets:15}")
+    private int bucketCount;
+
+    // Per account from one address
+    @Value("${hospital.login-attempts.max-per-email:5}")
+    private int maxPerEmail;
+
+    // Per account across all addresses; only triggers the short account backoff
+    @Value("${hospital.login-attempts.max-per-account:20}")
+    private int maxPerAccount;
+
+    @Value("${hospital.login-attempts.account-backoff-seconds:10}")
+    private long accountBackoffSeconds;
+
+    // Higher than per email: several people can share one address behind NAT
+    @Value("${hospital.login-attempts.max-per-ip:20}")
+    private int maxPerIp;
+
+    @Value("${hospital.login-attempts.lockout-seconds:60}")
+    private long lockoutSeconds;
+
+    @Value("${hospital.login-attempts.max-lockout-seconds:1800}")
+    private long maxLockoutSeconds;
+
+    @Value("${hospital.login-attempts.max-keys:100000}")
+    private int maxKeys;
+
+    private final ConcurrentHashMap<String, Window> pairs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> emails = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> ips = new ConcurrentHashMap<>();
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder blockedByEmail = new LongAdder();
+    private final LongAdder blockedByIp = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    @Override
+    public long checkBlocked(String userType, String email, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        checked.increment();
+        long now = System.currentTimeMillis();
+        Window ip = ips.get(clientIp);
+        long ipWait = ip != null ? ip.lockRemaining(now) : 0;
+        if (ipWait > 0) {
+            blockedByIp.increment();
+            return toSeconds(ipWait);
+        }
+        if (email == null) {
+            return 0;
+        }
+        Window pair = pairs.get(pairKey(userType, email, clientIp));
+        Window account = emails.get(emailKey(userType, email));
+        long emailWait = Math.max(pair != null ? pair.lockRemaining(now) : 0,
+                account != null ? account.lockRemaining(now) : 0);
+        if (emailWait > 0) {
+            blockedByEmail.increment();
+            return toSeconds(emailWait);
+        }
+        return 0;
+    }
+
+    @Override
+    public void recordFailure(String userType, String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        failures.increment();
+        long now = System.currentTimeMillis();
+        long lockMillis = TimeUnit.SECONDS.toMillis(lockoutSeconds);
+        record(ips, clientIp, clientIp, maxPerIp, now, lockMillis, TimeUnit.SECONDS.toMillis(maxLockoutSeconds));
+        if (email != null && !email.isEmpty()) {
+            String account = emailKey(userType, email);
+            String label = userType + ":" + hashPrefix(account);
+            record(pairs, pairKey(userType, email, clientIp), label + " from " + clientIp, maxPerEmail, now,
+                    lockMillis, TimeUnit.SECONDS.toMillis(maxLockoutSeconds));
+            // Same length every time: anyone can trigger this one for someone else's account
+            long backoffMillis = TimeUnit.SECONDS.toMillis(accountBackoffSeconds);
+            record(emails, account, label, maxPerAccount, now, backoffMillis, backoffMillis);
+        }
+    }
+
+    @Override
+    public void recordSuccess(String userType, String email, String clientIp) {
+        // Only the account is cleared; one valid login must not reset an address that is guessing other accounts
+        if (enabled && email != null) {
+            pairs.remove(pairKey(userType, email, clientIp));
+            emails.remove(emailKey(userType, email));
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        long blocked = blockedByEmail.sum() + blockedByIp.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("attemptsChecked", checked.sum());
+        stats.put("failures", failures.sum());
+        stats.put("blockedByEmail", blockedByEmail.sum());
+        stats.put("blockedByIp", blockedByIp.sum());
+        // Every blocked attempt skipped the account lookup (and the BCrypt check behind it)
+        stats.put("lookupQueriesSaved", blocked);
+        stats.put("lockouts", lockouts.sum());
+        stats.put("trackedEmailAddressPairs", pairs.size());
+        stats.put("trackedEmails", emails.size());
+        stats.put("trackedIps", ips.size());
+        stats.put("lockedEmailAddressPairs", pairs.values().stream().filter(w -> w.lockRemaining(now) > 0).count());
+        stats.put("backedOffEmails", emails.values().stream().filter(w -> w.lockRemaining(now) > 0).count());
+        stats.put("lockedIps", ips.values().stream().filter(w -> w.lockRemaining(now) > 0).count());
+        stats.put("untrackedFailures", untracked.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.login-attempts.cleanup-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        long bucket = bucketOf(now);
+        pairs.values().removeIf(w -> w.isIdle(bucket, now));
+        emails.values().removeIf(w -> w.isIdle(bucket, now));
+        ips.values().removeIf(w -> w.isIdle(bucket, now));
+    }
+
+    private void record(ConcurrentHashMap<String, Window> windows, String key, String label, int max, long now,
+            long lockMillis, long maxLockMillis) {
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys) {
+                // Table is full; the address window still applies to whoever is filling it
+                untracked.increment();
+                return;
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(bucketCount));
+        }
+        long bucket = bucketOf(now);
+        if (window.record(bucket) >= max) {
+            long lock = window.lock(now, lockMillis, maxLockMillis);
+            if (lock > 0) {
+                lockouts.increment();
+                System.out.println("Login attempts locked for " + lock / 1000 + "s: " + label);
+            }
+        }
+    }
+
+    private long bucketOf(long nowMillis) {
+        return nowMillis / Math.max(1, TimeUnit.SECONDS.toMillis(windowSeconds) / bucketCount);
+    }
+
+    private static String emailKey(String userType, String email) {
+        return userType + ":" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String pairKey(String userType, String email, String clientIp) {
+        return emailKey(userType, email) + "|" + clientIp;
+    }
+
+    // Enough to correlate log lines for one account without writing its email to the log
+    private static String hashPrefix(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * Ring of time buckets. Each slot packs the bucket number (high bits) with its
+     * failure count (low 20 bits), so a slot left over from an earlier lap of the
+     * ring is recognised and restarted by the same CAS that records the failure.
+     */
+    private static final class Window {
+        private static final int COUNT_BITS = 20;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final AtomicLongArray slots;
+        private final AtomicLong lockedUntil = new AtomicLong();
+        private final AtomicInteger lockCount = new AtomicInteger();
+
+        Window(int buckets) {
+            slots = new AtomicLongArray(buckets);
+        }
+
+        // Records one failure and returns the total within the window
+        int record(long bucket) {
+            int index = (int) (bucket % slots.length());
+            while (true) {
+                long current = slots.get(index);
+                long next;
+                if (current >>> COUNT_BITS == bucket) {
+                    next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+                } else {
+                    next = bucket << COUNT_BITS | 1;
+                }
+                if (slots.compareAndSet(index, current, next)) {
+                    return count(bucket);
+                }
+            }
+        }
+
+        int count(long bucket) {
+            int total = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                long slot = slots.get(i);
+                if (bucket - (slot >>> COUNT_BITS) < slots.length()) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+
+        // Starts a lockout unless one is already running; returns its length or 0
+        long lock(long now, long baseMillis, long maxMillis) {
+            long current = lockedUntil.get();
+            if (current > now) {
+                return 0;
+            }
+            int strikes = Math.min(20, lockCount.getAndIncrement());
+            long duration = Math.min(maxMillis, baseMillis << strikes);
+            return lockedUntil.compareAndSet(current, now + duration) ? duration : 0;
+        }
+
+        long lockRemaining(long now) {
+            return Math.max(0, lockedUntil.get() - now);
+        }
+
+        boolean isIdle(long bucket, long now) {
+            return lockRemaining(now) == 0 && count(bucket) == 0;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.exceptions.MailDeliveryException;
+import com.hospital.backend.service.MailDeliveryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers outgoing mail over a small pool of long-lived, authenticated SMTP
+ * connections instead of a new TCP/TLS/AUTH handshake per message. Each worker
+ * on mailExecutor owns one connection: it takes up to a batch of queued messages
+ * and sends them back to back over that session. A connection is recycled after
+ * max-messages-per-connection messages (servers cap this) and closed when idle.
+ *
+ * Every send returns a future that reports the outcome. A message the server
+ * refused with a temporary 4xx reply (e.g. 421) is retried once on a fresh
+ * connection; one that got no reply at all is not, since the server may already
+ * have it, and fails as outcome unknown so callers do not send it again either.
+ *
+ * The queue is in memory only. On shutdown new mail is refused and the queue is
+ * given shutdown-drain-ms to empty; whatever is left then fails and is logged,
+ * and a crash loses it. Mail that must survive a restart (none does today: the
+ * user can ask for a reset or prescription email again) needs an outbox table.
+ */
+@Service
+public class MailDeliveryServiceImpl implements MailDeliveryService {
+
+    @Value("${hospital.mail.batch-size:50}")
+    private int batchSize;
+
+    @Value("${hospital.mail.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    // Below the usual server-side idle timeout, so we close first
+    @Value("${hospital.mail.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Value("${hospital.mail.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${hospital.mail.shutdown-drain-ms:10000}")
+    private long shutdownDrainMillis;
+
+    // Only defined when spring.mail.host is set
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Autowired
+    @Qualifier("mailExecutor")
+    private ThreadPoolTaskExecutor mailExecutor;
+
+    private BlockingQueue<Outgoing> queue;
+    private volatile boolean stopping;
+    // Taken off the queue but not yet finished
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unknownOutcome = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        if (mailSender == null) {
+            System.out.println("Mail is not configured (spring.mail.host); outgoing email will not be sent");
+            return;
+        }
+        for (int i = 0; i < mailExecutor.getMaxPoolSize(); i++) {
+            mailExecutor.execute(new Worker());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> send(MimeMessage message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (mailSender == null) {
+            failed.increment();
+            future.completeExceptionally(new MailDeliveryException("Mail is not configured", null, false));
+        } else if (stopping) {
+            rejected.increment();
+            future.completeExceptionally(new MailDeliveryException("Mail delivery is shutting down", null, false));
+        } else if (!queue.offer(new Outgoing(message, future))) {
+            rejected.increment();
+            future.completeExceptionally(new MailDeliveryException("Mail queue is full", null, false));
+        } else {
+            queued.increment();
+        }
+        return future;
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> sendAll(Collection<MimeMessage> messages) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(messages.size());
+        for (MimeMessage message : messages) {
+            futures.add(send(message));
+        }
+        return futures;
+    }
+
+    // Runs before mailExecutor is shut down, since this bean depends on it
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        long deadline = System.currentTimeMillis() + shutdownDrainMillis;
+        try {
+            while ((!queue.isEmpty() || inFlight.get() > 0) && mailSender != null
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Outgoing> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Outgoing outgoing : left) {
+            failed.increment();
+            outgoing.future().completeExceptionally(
+                    new MailDeliveryException("Mail delivery stopped before sending", null, false));
+        }
+        if (!left.isEmpty()) {
+            System.err.println("Mail delivery stopped with " + left.size() + " message(s) unsent");
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("configured", mailSender != null);
+        stats.put("queueDepth", queue.size());
+        stats.put("queued", queued.sum());
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("outcomeUnknown", unknownOutcome.sum());
+        stats.put("rejectedQueueFull", rejected.sum());
+        stats.put("batches", batchCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : Math.round(10.0 * (sent.sum() + failed.sum()) / batchCount) / 10.0);
+        stats.put("openConnections", openConnections.get());
+        stats.put("connectionsOpened", connectionsOpened.sum());
+        stats.put("reconnects", reconnects.sum());
+        return stats;
+    }
+
+    private record Outgoing(MimeMessage message, CompletableFuture<Void> future) {
+    }
+
+    private final class Worker implements Runnable {
+        private Transport transport;
+        private int sentOnConnection;
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Outgoing first = queue.poll(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        close();
+                        continue;
+                    }
+                    List<Outgoing> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    inFlight.addAndGet(batch.size());
+                    batches.increment();
+                    try {
+                        validate();
+                        deliver(batch);
+                    } finally {
+                        inFlight.addAndGet(-batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void deliver(List<Outgoing> batch) {
+            if (!(mailSender instanceof JavaMailSenderImpl)) {
+                deliverWithSender(batch);
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                MessagingException connectionError = deliverOne(batch.get(i));
+                if (connectionError != null) {
+                    // Server unreachable; fail the rest of the batch rather than retry each message
+                    for (Outgoing rest : batch.subList(i + 1, batch.size())) {
+                        fail(rest, connectionError, false);
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Returns the error when the server could not be reached even after reconnecting
+        private MessagingException deliverOne(Outgoing outgoing) {
+            MimeMessage message = outgoing.message();
+            try {
+                prepare(message);
+            } catch (MessagingException e) {
+                fail(outgoing, e, false);
+                return null;
+            }
+            for (int attempt = 0; ; attempt++) {
+                Transport connection;
+                try {
+                    connection = connection();
+                } catch (MessagingException e) {
+                    close();
+                    if (attempt > 0) {
+                        fail(outgoing, e, false);
+                        return e;
+                    }
+                    reconnects.increment();
+                    continue;
+                }
+                try {
+                    connection.sendMessage(message, message.getAllRecipients());
+                    sentOnConnection++;
+                    sent.increment();
+                    outgoing.future().complete(null);
+                    return null;
+                } catch (MessagingException e) {
+                    if (refusedRecipients(e)) {
+                        // The session itself is still usable
+                        fail(outgoing, e, false);
+                        return null;
+                    }
+                    close();
+                    int reply = replyCode(e);
+                    if (reply < 0) {
+                        // No answer: the server may have queued it already, so sending again could duplicate it
+                        fail(outgoing, e, true);
+                        return null;
+                    }
+                    // Refused with a reply, so the server does not have it; only a 4xx (e.g. 421) is worth a retry
+                    if (reply >= 500 || attempt > 0) {
+                        fail(outgoing, e, false);
+                        return null;
+                    }
+                    reconnects.increment();
+                }
+            }
+        }
+
+        private void deliverWithSender(List<Outgoing> batch) {
+            try {
+                mailSender.send(batch.stream().map(Outgoing::message).toArray(MimeMessage[]::new));
+                for (Outgoing outgoing : batch) {
+                    sent.increment();
+                    outgoing.future().complete(null);
+                }
+            } catch (MailSendException e) {
+                // Messages missing from the failed map went out
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                for (Outgoing outgoing : batch) {
+                    Exception cause = failedMessages.get(outgoing.message());
+                    if (cause == null) {
+                        sent.increment();
+                        outgoing.future().complete(null);
+                    } else {
+                        fail(outgoing, cause, false);
+                    }
+                }
+            } catch (MailException e) {
+                for (Outgoing outgoing : batch) {
+                    fail(outgoing, e, false);
+                }
+            }
+        }
+
+        // A pooled session may have been dropped by the server while the worker waited;
+        // finding out now keeps that from looking like a failure mid-transaction
+        private void validate() {
+            if (transport != null && !transport.isConnected()) {
+                close();
+                reconnects.increment();
+            }
+        }
+
+        private Transport connection() throws MessagingException {
+            if (transport != null && sentOnConnection >= maxMessagesPerConnection) {
+                close();
+            }
+            if (transport == null) {
+                JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+                Transport opened = sender.getSession().getTransport(
+                        sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+                opened.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+                transport = opened;
+                sentOnConnection = 0;
+                connectionsOpened.increment();
+                openConnections.incrementAndGet();
+            }
+            return transport;
+        }
+
+        private void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // Already dropped by the server
+            }
+            transport = null;
+            openConnections.decrementAndGet();
+        }
+
+        private void fail(Outgoing outgoing, Exception e, boolean outcomeUnknown) {
+            failed.increment();
+            if (outcomeUnknown) {
+                unknownOutcome.increment();
+            }
+            System.err.println((outcomeUnknown ? "Email may not have been sent: " : "Error sending email: ")
+                    + e.getMessage());
+            outgoing.future().completeExceptionally(new MailDeliveryException(e.getMessage(), e, outcomeUnknown));
+        }
+    }
+
+    // A 421 "too many messages" also arrives as SendFailedException, but names no bad address
+    private static boolean refusedRecipients(MessagingException e) {
+        return e instanceof SendFailedException failed
+                && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0;
+    }
+
+    // The SMTP reply that refused the message, or -1 when the connection failed without one
+    private static int replyCode(MessagingException e) {
+        return e instanceof SMTPSendFailedException refused ? refused.getReturnCode() : -1;
+    }
+
+    // Same header handling as JavaMailSenderImpl: keep a caller-set Message-ID across saveChanges()
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.config.MedicineIndex;
+import com.hospital.backend.dto.MedicineCount;
+import com.hospital.backend.dto.PatientMedicineUsage;
+import com.hospital.backend.repository.PrescriptionRepository;
+import com.hospital.backend.service.MedicineUsageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drug usage queries answered from the in-memory MedicineIndex instead of
+ * LIKE '%x%' scans over prescription. The index is loaded in the background once
+ * the application is ready. The repositories reindex the affected prescriptions
+ * after each write, including rescheduled appointments and cascaded deletes; the
+ * periodic rebuild only catches changes made outside the application.
+ */
+@Service
+public class MedicineUsageServiceImpl implements MedicineUsageService {
+
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private MedicineIndex medicineIndex;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ThreadPoolTaskExecutor dashboardExecutor;
+
+    @Override
+    public List<PatientMedicineUsage> getPatientsPrescribed(String medicine, int days) {
+        checkDays(days);
+        ensureBuilt();
+        return medicineIndex.patientsPrescribed(medicine, LocalDate.now().minusDays(days));
+    }
+
+    @Override
+    public List<MedicineCount> getTopMedicines(Integer doctorId, Integer days, int limit) {
+        if (days != null) {
+            checkDays(days);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        ensureBuilt();
+        return medicineIndex.topMedicines(doctorId, days != null ? LocalDate.now().minusDays(days) : null, limit);
+    }
+
+    // Off the main thread, so startup does not wait for a scan of the whole table
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        dashboardExecutor.execute(this::ensureBuilt);
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${hospital.medicine-index.rebuild-ms:21600000}",
+            fixedDelayString = "${hospital.medicine-index.rebuild-ms:21600000}")
+    public synchronized void rebuildIndex() {
+        MedicineIndex.Builder builder = medicineIndex.newBuilder();
+        try {
+            prescriptionRepository.streamMedicineRows(rs -> {
+                Date date = rs.getDate("appointment_date");
+                builder.add(rs.getInt("Pr_ID"), rs.getInt("P_ID"), rs.getObject("DR_ID", Integer.class),
+                        date != null ? date.toLocalDate() : null, rs.getString("medicine"));
+            });
+            medicineIndex.install(builder);
+            System.out.println("Medicine index rebuilt: " + medicineIndex.getStats());
+        } catch (Exception e) {
+            medicineIndex.abandon();
+            System.err.println("Error rebuilding medicine index: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getIndexStats() {
+        return medicineIndex.getStats();
+    }
+
+    // Queries that arrive before the startup load wait for it rather than see an empty index
+    private void ensureBuilt() {
+        if (!medicineIndex.isBuilt()) {
+            synchronized (this) {
+                if (!medicineIndex.isBuilt()) {
+                    rebuildIndex();
+                }
+            }
+        }
+    }
+
+    private static void checkDays(int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.EmailService;
+import com.hospital.backend.config.EntityVersions;
+import com.hospital.backend.exceptions.BusinessRuleException;
+import com.hospital.backend.repository.AdminRepository;
+import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.repository.PasswordResetTokenRepository;
+import com.hospital.backend.repository.PasswordResetTokenRepository.ResetToken;
+import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.service.PasswordResetService;
+import com.hospital.backend.service.PasswordService;
+import com.hospital.backend.service.PatientTimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password reset for patients, doctors and admins. Tokens live in their own
+ * password_reset_tokens table keyed by the SHA-256 of the token, so a
+ * confirmation is a primary-key lookup and a leaked table holds nothing usable.
+ * Tokens are random, single use (consumed by a DELETE before the password is
+ * changed) and each account has at most one outstanding. Expired rows are
+ * purged in batches by a scheduled job.
+ */
+@Service
+public class PasswordResetServiceImpl implements PasswordResetService {
+
+    // No 0/O or 1/I so tokens copied by hand from the email still match
+    private static final char[] TOKEN_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int TOKEN_LENGTH = 10;
+
+    @Value("${hospital.password-reset.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${hospital.password-reset.purge-batch:1000}")
+    private int purgeBatch;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    @Lazy
+    private EmailService emailService;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public void initiateReset(String userType, String email) {
+        String type = normalizeType(userType);
+        int userId = findAccountId(type, email);
+
+        String token = newToken();
+        long expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes);
+        passwordResetTokenRepository.deleteByUser(type, userId);
+        passwordResetTokenRepository.save(hash(token), type, userId, new Timestamp(expiresAt));
+        // The response is the same either way, so a failed delivery only reaches the log
+        emailService.sendPasswordResetEmail(email, token).whenComplete((sent, error) -> {
+            if (error != null) {
+                System.err.println("Password reset email for " + type + " " + userId + " was not delivered");
+            }
+        });
+    }
+
+    @Override
+    public void resetPassword(String userType, String token, String newPassword) {
+        String type = normalizeType(userType);
+        if (newPassword == null || newPassword.isEmpty()) {
+            throw new IllegalArgumentException("New password cannot be empty");
+        }
+        if (token == null || token.isBlank()) {
+            throw new BusinessRuleException("Invalid token");
+        }
+
+        String tokenHash = hash(token.trim().toUpperCase(Locale.ROOT));
+        ResetToken stored = passwordResetTokenRepository.findByHash(tokenHash)
+                .filter(t -> t.userType().equals(type))
+                .orElseThrow(() -> new BusinessRuleException("Invalid token"));
+        if (!passwordResetTokenRepository.consume(tokenHash)) {
+            // Used by a concurrent request in the meantime
+            throw new BusinessRuleException("Invalid token");
+        }
+        if (stored.expiresAtMillis() < System.currentTimeMillis()) {
+            throw new BusinessRuleException("Token expired");
+        }
+
+        String encoded = passwordService.encode(newPassword);
+        int updated = switch (type) {
+            case PATIENT -> patientRepository.updatePassword(stored.userId(), encoded);
+            case DOCTOR -> doctorRepository.updatePassword(stored.userId(), encoded);
+            default -> adminRepository.updatePassword(stored.userId(), encoded);
+        };
+        if (updated == 0) {
+            throw new RuntimeException("Account not found with id: " + stored.userId());
+        }
+        if (PATIENT.equals(type)) {
+            patientTimelineService.invalidate(stored.userId());
+        } else if (DOCTOR.equals(type)) {
+            entityVersions.bump(EntityVersions.DOCTORS);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hospital.password-reset.purge-ms:900000}")
+    public void purgeExpired() {
+        try {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            int total = 0;
+            int removed;
+            do {
+                removed = passwordResetTokenRepository.deleteExpired(now, purgeBatch);
+                total += removed;
+            } while (removed == purgeBatch);
+            if (total > 0) {
+                System.out.println("Purged " + total + " expired password reset tokens");
+            }
+        } catch (Exception e) {
+            System.err.println("Error purging password reset tokens: " + e.getMessage());
+        }
+    }
+
+    private int findAccountId(String type, String email) {
+        return switch (type) {
+            case PATIENT -> patientRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("Patient with email " + email + " not found"))
+                    .getpId();
+            case DOCTOR -> doctorRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("Doctor with email " + email + " not found"))
+                    .getDrId();
+            default -> adminRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("Admin with email " + email + " not found"))
+                    .getAd_ID();
+        };
+    }
+
+    private static String normalizeType(String userType) {
+        String type = userType == null ? "" : userType.toUpperCase(Locale.ROOT);
+        if (!PATIENT.equals(type) && !DOCTOR.equals(type) && !ADMIN.equals(type)) {
+            throw new IllegalArgumentException("Unknown user type: " + userType);
+        }
+        return type;
+    }
+
+    private String newToken() {
+        char[] token = new char[TOKEN_LENGTH];
+        for (int i = 0; i < token.length; i++) {
+            token[i] = TOKEN_ALPHABET[random.nextInt(TOKEN_ALPHABET.length)];
+        }
+        return new String(token);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
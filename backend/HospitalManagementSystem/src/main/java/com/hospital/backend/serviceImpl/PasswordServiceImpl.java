@@ -0,0 +1,210 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.exceptions.ServiceBusyException;
+import com.hospital.backend.service.PasswordService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies passwords on the CPU-sized passwordExecutor so BCrypt work
+ * never runs on (or multiplies with) request threads. Rows written before hashing
+ * was enabled still hold plaintext; they are compared in constant time and report
+ * needsUpgrade() so the caller can store a hash after a successful login.
+ */
+@Service
+public class PasswordServiceImpl implements PasswordService {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    @Value("${hospital.password.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${hospital.password.bcrypt-cost:10}")
+    private int cost;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("passwordExecutor")
+    private ThreadPoolTaskExecutor passwordExecutor;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder legacyMatches = new LongAdder();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    @Override
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String raw : rawPasswords) {
+            futures.add(submitBlocking(() -> passwordEncoder.encode(raw)));
+        }
+        List<String> encoded = new ArrayList<>(futures.size());
+        for (CompletableFuture<String> future : futures) {
+            encoded.add(future.join());
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            legacyMatches.increment();
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> passwordEncoder.matches(rawPassword, storedPassword)));
+    }
+
+    @Override
+    public boolean needsUpgrade(String storedPassword) {
+        if (storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return true;
+        }
+        return passwordEncoder instanceof BCryptPasswordEncoder bcrypt && bcrypt.upgradeEncoding(storedPassword);
+    }
+
+    @Override
+    public String encodeIfPlain(String password) {
+        if (password == null || password.isEmpty() || isHashed(password)) {
+            return password;
+        }
+        return encode(password);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        ThreadPoolExecutor pool = passwordExecutor.getThreadPoolExecutor();
+        long count = hashes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bcryptCost", cost);
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queueDepth", pool.getQueue().size());
+        stats.put("peakQueueDepth", peakQueueDepth.get());
+        stats.put("queueCapacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMs", count == 0 ? 0 : Math.round(hashNanos.sum() / (double) count / 10_000.0) / 100.0);
+        stats.put("avgQueueWaitMs", count == 0 ? 0 : Math.round(queueNanos.sum() / (double) count / 10_000.0) / 100.0);
+        stats.put("legacyPlaintextMatches", legacyMatches.sum());
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(timed(work), passwordExecutor);
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many logins in progress, please retry shortly");
+        } finally {
+            peakQueueDepth.accumulateAndGet(passwordExecutor.getThreadPoolExecutor().getQueue().size(), Math::max);
+        }
+    }
+
+    // Bulk work (imports) only fills the queue halfway and waits for room, leaving the rest for logins.
+    // It is never rejected or dropped for waiting too long: the import is blocked on it, not a user.
+    private <T> CompletableFuture<T> submitBlocking(Supplier<T> work) {
+        ThreadPoolExecutor pool = passwordExecutor.getThreadPoolExecutor();
+        while (true) {
+            if (pool.getQueue().remainingCapacity() > pool.getQueue().size()) {
+                try {
+                    return CompletableFuture.supplyAsync(timed(work, false), passwordExecutor);
+                } catch (TaskRejectedException e) {
+                    // Logins took the room between the check and the submit; wait again
+                }
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> work) {
+        return timed(work, true);
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> work, boolean dropIfLate) {
+        long queued = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            queueNanos.add(start - queued);
+            // The caller has already timed out; hashing now would only delay the logins behind it
+            if (dropIfLate && start - queued > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+                rejected.increment();
+                throw new ServiceBusyException("Password check timed out, please retry shortly");
+            }
+            try {
+                return work.get();
+            } finally {
+                hashNanos.add(System.nanoTime() - start);
+                hashes.increment();
+            }
+        };
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ServiceBusyException("Password check timed out, please retry shortly");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isHashed(String password) {
+        return BCRYPT.matcher(password).matches();
+    }
+}
@@ -1,18 +1,20 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Patient;
+import com.hospital.backend.exceptions.PreconditionRequiredException;
+import com.hospital.backend.exceptions.VersionConflictException;
 import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.service.PasswordResetService;
+import com.hospital.backend.service.PasswordService;
 import com.hospital.backend.service.PatientService;
+import com.hospital.backend.service.PatientTimelineService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.time.LocalDateTime;
-import java.util.UUID;
-import com.hospital.backend.EmailService;
 
 @Service
 public class PatientServiceImpl implements PatientService {
@@ -21,18 +23,21 @@ public class PatientServiceImpl implements PatientService {
     private PatientRepository patientRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordService passwordService;
 
     @Autowired
-    private EmailService emailService;
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
 
     @Override
     public Patient save(Patient patient) {
-        // Add null check but skip encoding
         if (patient.getPassword() != null && !patient.getPassword().isEmpty()) {
-            // Skip encoding - just use password as-is
-            // patient.setPassword(passwordEncoder.encode(patient.getPassword()));
-            System.out.println("Password received: " + patient.getPassword()); // Debug log
+            patient.setPassword(passwordService.encodeIfPlain(patient.getPassword()));
         } else {
             throw new IllegalArgumentException("Password cannot be empty");
         }
@@ -40,6 +45,7 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Patient> getAllPatients() {
         return patientRepository.getAllPatients();
     }
@@ -50,17 +56,45 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    public Patient updatePatient(int id, Patient patient) {
-        if (patientRepository.existsById(id)) {
-            patient.setpId(id);
-            return patientRepository.save(patient);
+    public Patient updatePatient(int id, Patient patient, Integer expectedVersion) {
+        // The version the edit was made against; falling back to the stored one would accept a stale form
+        Integer sent = expectedVersion != null ? expectedVersion : patient.getVersion();
+        if (sent == null) {
+            throw new PreconditionRequiredException("Updating patient " + id
+                    + " needs the version it was read at, in If-Match or the body");
         }
-        throw new RuntimeException("Patient not found with id: " + id);
+        int expected = sent;
+        Patient current = patientRepository.getPatientById(id)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
+        if (expected != current.getVersion()) {
+            throw staleVersion(id, expected, current.getVersion());
+        }
+
+        patient.setpId(id);
+        // The edit form sends back the stored hash unless the password was changed
+        patient.setPassword(passwordService.encodeIfPlain(patient.getPassword()));
+        if (patientRepository.updateIfVersion(patient, expected) == 0) {
+            Integer now = patientRepository.getPatientById(id).map(Patient::getVersion).orElse(null);
+            if (now == null) {
+                throw new RuntimeException("Patient not found with id: " + id);
+            }
+            throw staleVersion(id, expected, now);
+        }
+        patientTimelineService.invalidate(id);
+        return patient;
+    }
+
+    private static VersionConflictException staleVersion(int id, int expected, int current) {
+        return new VersionConflictException("Patient " + id + " was changed by someone else (version " + current
+                + ", expected " + expected + "); reload it and apply the edit again");
     }
 
     @Override
     public void deletePatient(int id) {
         patientRepository.deletePatient(id);
+        // reviews.patient_id is ON DELETE CASCADE
+        entityVersions.bump(EntityVersions.REVIEWS);
+        patientTimelineService.invalidate(id);
     }
 
     @Override
@@ -69,6 +103,7 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Patient> getPatientsByBloodGroup(String bloodGroup) {
         return patientRepository.getPatientsByBloodGroup(bloodGroup);
     }
@@ -78,17 +113,20 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.existsById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Patient> searchPatientsByName(String name) {
         return patientRepository.searchPatientsByName(name);
 
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Patient> findByContactContaining(String contact) {
         return patientRepository.findByContactContaining(contact);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Patient> findByDoctorId(int doctorId) {
         return patientRepository.findByDoctorId(doctorId);
     }
@@ -103,47 +141,32 @@ public class PatientServiceImpl implements PatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
 
         // Validate current password
-        if (!currentPassword.equals(patient.getPassword())) {
+        if (!passwordService.matches(currentPassword, patient.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
         }
 
         // Update password
-        int rowsUpdated = patientRepository.updatePassword(id, newPassword);
+        String encoded = passwordService.encode(newPassword);
+        int rowsUpdated = patientRepository.updatePassword(id, encoded);
 
         if (rowsUpdated == 0) {
             throw new RuntimeException("Failed to update password, no rows affected");
         }
 
+        patientTimelineService.invalidate(id);
+
         // Return the updated patient
-        patient.setPassword(newPassword);
+        patient.setPassword(encoded);
         return patient;
     }
 
     @Override
     public void initiatePasswordReset(String email) {
-        Patient patient = patientRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient with email " + email + " not found"));
-
-        String token = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        patient.setResetToken(token);
-        patient.setResetTokenExpiryDate(LocalDateTime.now().plusMinutes(15));
-
-        patientRepository.save(patient);
-        emailService.sendPasswordResetEmail(patient.getEmail(), token);
+        passwordResetService.initiateReset(PasswordResetService.PATIENT, email);
     }
 
     @Override
     public void resetPassword(String token, String newPassword) {
-        Patient patient = patientRepository.findByResetToken(token)
-                .orElseThrow(() -> new RuntimeException("Invalid token"));
-
-        if (patient.getResetTokenExpiryDate().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Token expired");
-        }
-
-        patient.setPassword(newPassword);
-        patient.setResetToken(null);
-        patient.setResetTokenExpiryDate(null);
-        patientRepository.save(patient);
+        passwordResetService.resetPassword(PasswordResetService.PATIENT, token, newPassword);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.dto.PatientTimeline;
+import com.hospital.backend.dto.PrescriptionDTO;
+import com.hospital.backend.dto.TimelineEntry;
+import com.hospital.backend.entity.Appointment;
+import com.hospital.backend.entity.AppointmentStatus;
+import com.hospital.backend.entity.Patient;
+import com.hospital.backend.entity.Review;
+import com.hospital.backend.repository.AppointmentRepository;
+import com.hospital.backend.repository.PatientRepository;
+import com.hospital.backend.repository.PrescriptionRepository;
+import com.hospital.backend.repository.ReviewRepository;
+import com.hospital.backend.service.PatientTimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class PatientTimelineServiceImpl implements PatientTimelineService {
+
+    // Newest first; undated records go to the end
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator.comparing(
+            TimelineEntry::getTimestamp, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Value("${hospital.timeline.cache-size:1000}")
+    private int cacheSize;
+
+    // Caps how long another node's write can go unseen here
+    @Value("${hospital.timeline.cache-ttl-ms:300000}")
+    private long cacheTtlMillis;
+
+    // Per-patient LRU of the three pre-sorted source lists
+    private final Map<Integer, TimelineSources> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TimelineSources> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Override
+    public PatientTimeline getTimeline(int patientId, int page, int size) {
+        if (page < 0 || size < 1 || size > 200) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 200");
+        }
+
+        TimelineSources sources = getSources(patientId);
+        List<TimelineEntry> entries = mergePage(sources.streams(), (long) page * size, size);
+        return new PatientTimeline(sources.patient, entries, page, size, sources.totalEntries());
+    }
+
+    @Override
+    public void invalidate(int patientId) {
+        invalidations.incrementAndGet();
+        synchronized (cache) {
+            cache.remove(patientId);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private TimelineSources getSources(int patientId) {
+        synchronized (cache) {
+            TimelineSources cached = cache.get(patientId);
+            if (cached != null && cached.isFresh(cacheTtlMillis)) {
+                return cached;
+            }
+            // Expired, or loaded before midnight: past appointments must be re-derived as COMPLETED
+            cache.remove(patientId);
+        }
+
+        long seen = invalidations.get();
+        Patient patient = patientRepository.getPatientById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
+
+        java.sql.Date today = new java.sql.Date(System.currentTimeMillis());
+        List<TimelineEntry> appointments = new ArrayList<>();
+        for (Appointment appointment : appointmentRepository.getAppointmentsByPatientNewestFirst(patientId)) {
+            // Same rule as the appointment list sweep, but derived here instead of written back
+            if (appointment.getAppointmentDate() != null && appointment.getAppointmentDate().before(today)
+                    && appointment.getStatus().isActive()) {
+                appointment.setStatus(AppointmentStatus.COMPLETED);
+            }
+            appointments.add(new TimelineEntry(TimelineEntry.APPOINTMENT, appointment.getApId(),
+                    toTimestamp(appointment.getAppointmentDate(), appointment.getAppointmentTime()),
+                    appointment.getDrId(), appointment));
+        }
+
+        List<TimelineEntry> prescriptions = new ArrayList<>();
+        for (PrescriptionDTO prescription : prescriptionRepository.getPrescriptionDetailsByPatientNewestFirst(patientId)) {
+            prescriptions.add(new TimelineEntry(TimelineEntry.PRESCRIPTION, prescription.getPrId(),
+                    toTimestamp(prescription.getAppointmentDate(), null),
+                    prescription.getDrId(), prescription));
+        }
+
+        List<TimelineEntry> reviews = new ArrayList<>();
+        for (Review review : reviewRepository.findByPatientId(patientId)) {
+            reviews.add(new TimelineEntry(TimelineEntry.REVIEW, review.getId(), review.getReviewDate(),
+                    review.getDoctorId(), review));
+        }
+
+        TimelineSources sources = new TimelineSources(patient, appointments, prescriptions, reviews);
+        synchronized (cache) {
+            if (invalidations.get() == seen) {
+                cache.put(patientId, sources);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * k-way merge of lists that are each already sorted newest first. Only walks as
+     * far as the requested page, so the full merged timeline is never built.
+     */
+    static List<TimelineEntry> mergePage(List<List<TimelineEntry>> streams, long offset, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.head, b.head));
+        for (List<TimelineEntry> stream : streams) {
+            Iterator<TimelineEntry> it = stream.iterator();
+            if (it.hasNext()) {
+                heads.add(new Cursor(it));
+            }
+        }
+
+        List<TimelineEntry> page = new ArrayList<>(limit);
+        long position = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            Cursor cursor = heads.poll();
+            if (position++ >= offset) {
+                page.add(cursor.head);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    private static LocalDateTime toTimestamp(java.sql.Date date, java.sql.Time time) {
+        if (date == null) {
+            return null;
+        }
+        LocalDate day = date.toLocalDate();
+        return day.atTime(time != null ? time.toLocalTime() : LocalTime.MIDNIGHT);
+    }
+
+    private static class Cursor {
+        private final Iterator<TimelineEntry> it;
+        private TimelineEntry head;
+
+        Cursor(Iterator<TimelineEntry> it) {
+            this.it = it;
+            this.head = it.next();
+        }
+
+        boolean advance() {
+            if (it.hasNext()) {
+                head = it.next();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class TimelineSources {
+        private final Patient patient;
+        private final List<TimelineEntry> appointments;
+        private final List<TimelineEntry> prescriptions;
+        private final List<TimelineEntry> reviews;
+        private final LocalDate loadedOn = LocalDate.now();
+        private final long loadedAt = System.currentTimeMillis();
+
+        TimelineSources(Patient patient, List<TimelineEntry> appointments, List<TimelineEntry> prescriptions,
+                List<TimelineEntry> reviews) {
+            this.patient = patient;
+            this.appointments = Collections.unmodifiableList(appointments);
+            this.prescriptions = Collections.unmodifiableList(prescriptions);
+            this.reviews = Collections.unmodifiableList(reviews);
+        }
+
+        List<List<TimelineEntry>> streams() {
+            return List.of(appointments, prescriptions, reviews);
+        }
+
+        boolean isFresh(long ttlMillis) {
+            return loadedOn.equals(LocalDate.now()) && System.currentTimeMillis() - loadedAt < ttlMillis;
+        }
+
+        int totalEntries() {
+            return appointments.size() + prescriptions.size() + reviews.size();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.config.MedicineIndex;
+import com.hospital.backend.dto.DispenseResult;
+import com.hospital.backend.dto.LowStockAlert;
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.exceptions.BusinessRuleException;
+import com.hospital.backend.repository.MedicineStockRepository;
+import com.hospital.backend.service.PharmacyService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pharmacy stock dispensed from a per-instance allotment, so a dispense is a CAS
+ * on a StripedStockCounter rather than a row lock on medicine_stock. An instance
+ * reserves units with a conditional "quantity = quantity - k WHERE quantity >= k"
+ * and hands them out locally; medicine_stock.quantity is what no instance holds,
+ * so two instances can never dispense the same unit. When the allotment runs
+ * out the next dispense reserves more. Allotments shrink as the shared quantity
+ * runs low, down to one unit at a time, so the last units are not stranded on
+ * one instance; an allotment left idle is given back, and so is everything on
+ * shutdown. If the process dies, its unused allotment is lost to the table, at
+ * most the allotment size per medicine, which understates stock rather than
+ * overselling it.
+ *
+ * Quantities reported here are the shared quantity plus this instance's
+ * allotment. Crossing the reorder level raises a low-stock alert, cleared again
+ * by a restock.
+ */
+@Service
+public class PharmacyServiceImpl implements PharmacyService {
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    // Most units reserved at once for local dispensing
+    @Value("${hospital.pharmacy.allotment:50}")
+    private int allotment;
+
+    // An allotment nobody has dispensed from for this long goes back to the table
+    @Value("${hospital.pharmacy.allotment-idle-ms:60000}")
+    private long allotmentIdleMillis;
+
+    private final int stripes = StripedStockCounter.defaultStripes();
+    private final ConcurrentHashMap<Integer, Item> items = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Item> itemsByName = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private final LongAdder dispensed = new LongAdder();
+    private final LongAdder outOfStock = new LongAdder();
+    private final LongAdder notStocked = new LongAdder();
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder reservedUnits = new LongAdder();
+    private final LongAdder releasedUnits = new LongAdder();
+    private final LongAdder failedReservations = new LongAdder();
+    private final LongAdder failedReleases = new LongAdder();
+
+    @Override
+    public DispenseResult dispense(Prescription prescription) {
+        List<String> taken = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String name : MedicineIndex.tokenize(prescription.getMedicine())) {
+            Item item = ensureLoaded() ? itemsByName.get(name) : null;
+            if (item == null) {
+                unknown.add(name);
+                notStocked.increment();
+                continue;
+            }
+            item.lastDispenseMillis = System.currentTimeMillis();
+            if (item.stock.tryTake(1) || (refill(item) && item.stock.tryTake(1))) {
+                taken.add(name);
+                dispensed.increment();
+            } else {
+                missing.add(name);
+                outOfStock.increment();
+            }
+            checkLowStock(item);
+        }
+        if (!missing.isEmpty()) {
+            System.out.println("Prescription #" + prescription.getPrId() + ": out of stock: " + missing);
+        }
+        return new DispenseResult(prescription.getPrId(), taken, missing, unknown);
+    }
+
+    @Override
+    public List<MedicineStock> getAllStock() {
+        ensureLoaded();
+        List<MedicineStock> stock = new ArrayList<>(items.size());
+        for (Item item : items.values()) {
+            stock.add(item.toStock());
+        }
+        stock.sort(Comparator.comparing(MedicineStock::getName));
+        return stock;
+    }
+
+    @Override
+    public MedicineStock getStockById(int id) {
+        return item(id).toStock();
+    }
+
+    @Override
+    public synchronized MedicineStock createStock(MedicineStock stock) {
+        List<String> terms = MedicineIndex.tokenize(stock.getName());
+        if (terms.size() != 1) {
+            throw new IllegalArgumentException("Stock name must be a single drug name, e.g. \"Paracetamol\"");
+        }
+        if (stock.getQuantity() < 0 || stock.getReorderLevel() < 0) {
+            throw new IllegalArgumentException("Quantity and reorder level cannot be negative");
+        }
+        ensureLoaded();
+        if (itemsByName.containsKey(terms.get(0))) {
+            throw new BusinessRuleException("Medicine is already stocked: " + terms.get(0));
+        }
+        stock.setName(terms.get(0));
+        MedicineStock created = medicineStockRepository.createMedicineStock(stock);
+        Item item = register(created);
+        checkLowStock(item);
+        return item.toStock();
+    }
+
+    @Override
+    public synchronized MedicineStock updateReorderLevel(int id, int reorderLevel) {
+        if (reorderLevel < 0) {
+            throw new IllegalArgumentException("Reorder level cannot be negative");
+        }
+        Item item = item(id);
+        medicineStockRepository.updateReorderLevel(id, reorderLevel);
+        item.reorderLevel = reorderLevel;
+        checkLowStock(item);
+        return item.toStock();
+    }
+
+    @Override
+    public synchronized MedicineStock restock(int id, int units) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Restock quantity must be positive");
+        }
+        Item item = item(id);
+        medicineStockRepository.addQuantity(id, units);
+        item.shared += units;
+        checkLowStock(item);
+        return item.toStock();
+    }
+
+    @Override
+    public synchronized void deleteStock(int id) {
+        Item item = item(id);
+        medicineStockRepository.deleteMedicineStock(id);
+        items.remove(id);
+        itemsByName.remove(item.name, item);
+    }
+
+    @Override
+    public List<LowStockAlert> getLowStockAlerts() {
+        ensureLoaded();
+        List<LowStockAlert> alerts = new ArrayList<>();
+        for (Item item : items.values()) {
+            long since = item.lowSince;
+            if (since != 0) {
+                alerts.add(new LowStockAlert(item.medId, item.name, item.available(), item.reorderLevel,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(since), ZoneId.systemDefault())));
+            }
+        }
+        alerts.sort(Comparator.comparingInt(LowStockAlert::available).thenComparing(LowStockAlert::name));
+        return alerts;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hospital.pharmacy.flush-ms:1000}")
+    public void flush() {
+        if (!loaded) {
+            return;
+        }
+        long idleSince = System.currentTimeMillis() - allotmentIdleMillis;
+        for (Item item : items.values()) {
+            if (item.lastDispenseMillis <= idleSince) {
+                release(item);
+            }
+        }
+    }
+
+    // Picks up restocks, new medicines and deletions made by other instances or directly in the table
+    @Scheduled(fixedDelayString = "${hospital.pharmacy.resync-ms:30000}")
+    public synchronized void resync() {
+        if (!ensureLoaded()) {
+            return;
+        }
+        try {
+            Set<Integer> seen = new HashSet<>();
+            for (MedicineStock row : medicineStockRepository.getAllMedicineStock()) {
+                seen.add(row.getMedId());
+                Item item = items.get(row.getMedId());
+                if (item == null) {
+                    register(row);
+                    continue;
+                }
+                item.reorderLevel = row.getReorderLevel();
+                // Allotments are already subtracted from the row, so the local one is not part of it
+                item.shared = row.getQuantity();
+                checkLowStock(item);
+            }
+            for (Item item : items.values()) {
+                if (!seen.contains(item.medId)) {
+                    items.remove(item.medId);
+                    itemsByName.remove(item.name, item);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error resyncing pharmacy stock: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Item item : items.values()) {
+            release(item);
+        }
+    }
+
+    // Reserves the next allotment once this instance's is used up; false when the table has none left
+    private boolean refill(Item item) {
+        synchronized (item) {
+            if (item.stock.available() > 0) {
+                return true;
+            }
+            // A quarter of what is left, so a few instances can each still get some near the end
+            int wanted = Math.min(allotment, Math.max(1, item.shared / 4));
+            try {
+                int granted = medicineStockRepository.reserve(item.medId, wanted);
+                if (granted > 0) {
+                    reservations.increment();
+                    reservedUnits.add(granted);
+                    item.stock.add(granted);
+                }
+                // Getting less than asked for means the row is now empty
+                item.shared = granted < wanted ? 0 : Math.max(0, item.shared - granted);
+                return granted > 0;
+            } catch (Exception e) {
+                failedReservations.increment();
+                System.err.println("Error reserving pharmacy stock: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // Gives this instance's unused units back to the table
+    private void release(Item item) {
+        synchronized (item) {
+            int units = item.stock.drain();
+            if (units == 0) {
+                return;
+            }
+            try {
+                medicineStockRepository.addQuantity(item.medId, units);
+                item.shared += units;
+                releasedUnits.add(units);
+            } catch (Exception e) {
+                // Keep them and try again next time
+                item.stock.add(units);
+                failedReleases.increment();
+                System.err.println("Error releasing pharmacy stock: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long held = 0;
+        int low = 0;
+        for (Item item : items.values()) {
+            held += item.stock.available();
+            low += item.lowSince != 0 ? 1 : 0;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("medicines", items.size());
+        stats.put("stripesPerMedicine", stripes);
+        stats.put("dispensed", dispensed.sum());
+        stats.put("outOfStock", outOfStock.sum());
+        stats.put("notStocked", notStocked.sum());
+        stats.put("allotment", allotment);
+        stats.put("heldUnits", held);
+        stats.put("reservations", reservations.sum());
+        stats.put("reservedUnits", reservedUnits.sum());
+        stats.put("releasedUnits", releasedUnits.sum());
+        stats.put("failedReservations", failedReservations.sum());
+        stats.put("failedReleases", failedReleases.sum());
+        stats.put("lowStock", low);
+        return stats;
+    }
+
+    private Item item(int id) {
+        ensureLoaded();
+        Item item = items.get(id);
+        if (item == null) {
+            throw new RuntimeException("Medicine stock not found with id: " + id);
+        }
+        return item;
+    }
+
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return true;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                try {
+                    for (MedicineStock row : medicineStockRepository.getAllMedicineStock()) {
+                        checkLowStock(register(row));
+                    }
+                    loaded = true;
+                    System.out.println("Pharmacy stock loaded: " + items.size() + " medicines");
+                } catch (Exception e) {
+                    System.err.println("Error loading pharmacy stock: " + e.getMessage());
+                }
+            }
+            return loaded;
+        }
+    }
+
+    private Item register(MedicineStock row) {
+        Item item = new Item(row.getMedId(), row.getName(), row.getReorderLevel(), row.getQuantity(),
+                new StripedStockCounter(stripes, 0));
+        items.put(item.medId, item);
+        itemsByName.put(item.name, item);
+        return item;
+    }
+
+    // Raises the alert once when stock falls to the reorder level and clears it once above
+    private void checkLowStock(Item item) {
+        int available = item.available();
+        if (available <= item.reorderLevel) {
+            if (item.lowSince == 0) {
+                item.lowSince = System.currentTimeMillis();
+                System.out.println("Low stock: " + item.name + " has " + available + " left (reorder level "
+                        + item.reorderLevel + ")");
+            }
+        } else if (item.lowSince != 0) {
+            item.lowSince = 0;
+        }
+    }
+
+    private static final class Item {
+        final int medId;
+        final String name;
+        // This instance's allotment
+        final StripedStockCounter stock;
+        // medicine_stock.quantity as last seen: what no instance has reserved
+        volatile int shared;
+        volatile int reorderLevel;
+        volatile long lowSince;
+        volatile long lastDispenseMillis;
+
+        Item(int medId, String name, int reorderLevel, int shared, StripedStockCounter stock) {
+            this.medId = medId;
+            this.name = name;
+            this.reorderLevel = reorderLevel;
+            this.shared = shared;
+            this.stock = stock;
+        }
+
+        int available() {
+            return shared + stock.available();
+        }
+
+        MedicineStock toStock() {
+            MedicineStock stock = new MedicineStock();
+            stock.setMedId(medId);
+            stock.setName(name);
+            stock.setQuantity(available());
+            stock.setReorderLevel(reorderLevel);
+            return stock;
+        }
+    }
+}
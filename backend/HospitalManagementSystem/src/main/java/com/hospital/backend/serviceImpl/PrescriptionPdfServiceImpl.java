@@ -0,0 +1,195 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.dto.PrescriptionDocument;
+import com.hospital.backend.repository.PrescriptionRepository;
+import com.hospital.backend.service.PrescriptionPdfService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders prescription PDFs and keeps the bytes in an LRU cache bounded by total
+ * size. Entries are keyed by prescription id and tagged with a version, a hash of
+ * every field printed on the document, so an edit to the prescription, patient or
+ * doctor simply misses and replaces the old entry; nothing has to invalidate it.
+ * A miss streams the PDF to the caller while it is rendered and caches a copy.
+ */
+@Service
+public class PrescriptionPdfServiceImpl implements PrescriptionPdfService {
+
+    // Bump when the layout changes so cached PDFs and client ETags are not reused
+    private static final String LAYOUT_VERSION = "1";
+
+    @Value("${hospital.prescription-pdf.cache-max-bytes:33554432}")
+    private long cacheMaxBytes;
+
+    // Larger PDFs are still served, just not cached
+    @Value("${hospital.prescription-pdf.max-entry-bytes:1048576}")
+    private int maxEntryBytes;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private final LinkedHashMap<Integer, CachedPdf> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes; // guarded by cache
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder renderedBytes = new LongAdder();
+
+    @Override
+    public PrescriptionDocument getDocument(int prescriptionId) {
+        return prescriptionRepository.getPrescriptionDocument(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found with id: " + prescriptionId));
+    }
+
+    @Override
+    public String getVersion(PrescriptionDocument d) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Object[] fields = { LAYOUT_VERSION, d.getPrId(), d.getMedicine(), d.getAdvice(), d.getRemark(),
+                    d.getPatientName(), d.getPatientEmail(), d.getPatientAge(), d.getPatientGender(),
+                    d.getDoctorName(), d.getSpecialization(), d.getAppointmentDate(), d.getAppointmentTime() };
+            for (Object field : fields) {
+                digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return d.getPrId() + "-" + HexFormat.of().formatHex(digest.digest(), 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void writePdf(PrescriptionDocument document, OutputStream out) throws IOException {
+        String version = getVersion(document);
+        byte[] cached = lookup(document.getPrId(), version);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        TeeOutputStream tee = new TeeOutputStream(out);
+        render(document, tee);
+        if (tee.copy != null) {
+            store(document.getPrId(), version, tee.copy.toByteArray());
+        }
+    }
+
+    @Override
+    public byte[] getPdf(PrescriptionDocument document) {
+        String version = getVersion(document);
+        byte[] cached = lookup(document.getPrId(), version);
+        if (cached != null) {
+            return cached;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        try {
+            render(document, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] pdf = buffer.toByteArray();
+        store(document.getPrId(), version, pdf);
+        return pdf;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("entries", cache.size());
+            stats.put("bytes", cachedBytes);
+        }
+        stats.put("maxBytes", cacheMaxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("avgRenderMs", missCount == 0 ? 0 : Math.round(renderNanos.sum() / (double) missCount / 10_000.0) / 100.0);
+        stats.put("avgPdfBytes", missCount == 0 ? 0 : renderedBytes.sum() / missCount);
+        return stats;
+    }
+
+    private void render(PrescriptionDocument document, OutputStream out) throws IOException {
+        misses.increment();
+        long start = System.nanoTime();
+        long size = PrescriptionPdfWriter.write(document, out);
+        renderNanos.add(System.nanoTime() - start);
+        renderedBytes.add(size);
+    }
+
+    private byte[] lookup(int prescriptionId, String version) {
+        synchronized (cache) {
+            CachedPdf entry = cache.get(prescriptionId);
+            if (entry != null && entry.version().equals(version)) {
+                hits.increment();
+                return entry.pdf();
+            }
+            return null;
+        }
+    }
+
+    private void store(int prescriptionId, String version, byte[] pdf) {
+        if (pdf.length > maxEntryBytes) {
+            return;
+        }
+        synchronized (cache) {
+            CachedPdf previous = cache.put(prescriptionId, new CachedPdf(version, pdf));
+            if (previous != null) {
+                cachedBytes -= previous.pdf().length;
+            }
+            cachedBytes += pdf.length;
+            var eldest = cache.values().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().pdf().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private record CachedPdf(String version, byte[] pdf) {
+    }
+
+    // Sends to the client as it renders and keeps a copy for the cache, up to max-entry-bytes
+    private final class TeeOutputStream extends FilterOutputStream {
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(8192);
+
+        TeeOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                if (copy.size() > maxEntryBytes) {
+                    copy = null;
+                }
+            }
+        }
+    }
+}
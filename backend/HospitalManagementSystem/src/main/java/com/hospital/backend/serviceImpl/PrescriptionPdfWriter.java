@@ -0,0 +1,262 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.dto.PrescriptionDocument;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a prescription as a small PDF 1.4 file using the standard Helvetica
+ * fonts, so nothing has to be embedded. Each page's content stream is written
+ * out as soon as the page is full; only the object offsets are kept until the
+ * cross-reference table at the end. Text outside Latin-1 is printed as '?'.
+ */
+final class PrescriptionPdfWriter {
+
+    private static final float PAGE_WIDTH = 595; // A4 in points
+    private static final float PAGE_HEIGHT = 842;
+    private static final float MARGIN = 56;
+    private static final float TEXT_WIDTH = PAGE_WIDTH - 2 * MARGIN;
+
+    private static final String REGULAR = "F1";
+    private static final String BOLD = "F2";
+
+    // Helvetica advance widths (1/1000 em) for ' ' through '~'
+    private static final short[] WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584 };
+
+    private final CountingOutputStream out;
+    private final List<Long> offsets = new ArrayList<>(); // index = object number - 1
+    private final List<Integer> pages = new ArrayList<>();
+    private StringBuilder content;
+    private float y;
+
+    private PrescriptionPdfWriter(OutputStream target) {
+        this.out = new CountingOutputStream(target);
+    }
+
+    // Returns the number of bytes written
+    static long write(PrescriptionDocument document, OutputStream target) throws IOException {
+        PrescriptionPdfWriter writer = new PrescriptionPdfWriter(target);
+        writer.render(document);
+        return writer.out.count();
+    }
+
+    private void render(PrescriptionDocument d) throws IOException {
+        out.write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n".getBytes(StandardCharsets.ISO_8859_1));
+        // 1 catalog, 2 page tree (written last, once the pages are known), 3-4 fonts
+        object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        offsets.add(null);
+        object(3, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        object(4, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+
+        startPage();
+        line(BOLD, 18, "Hospital Management System");
+        line(REGULAR, 12, "Prescription #" + d.getPrId());
+        rule();
+
+        heading("Patient");
+        field("Name", d.getPatientName());
+        field("Age", d.getPatientAge() != null ? String.valueOf(d.getPatientAge()) : null);
+        field("Gender", d.getPatientGender());
+        field("Email", d.getPatientEmail());
+
+        heading("Doctor");
+        field("Name", d.getDoctorName() != null ? "Dr. " + d.getDoctorName() : null);
+        field("Specialization", d.getSpecialization());
+
+        heading("Appointment");
+        field("Date", d.getAppointmentDate() != null ? d.getAppointmentDate().toString() : null);
+        field("Time", d.getAppointmentTime() != null ? d.getAppointmentTime().toString().substring(0, 5) : null);
+
+        heading("Medicine");
+        paragraph(d.getMedicine());
+        heading("Advice");
+        paragraph(d.getAdvice());
+        if (d.getRemark() != null && !d.getRemark().isBlank()) {
+            heading("Remarks");
+            paragraph(d.getRemark());
+        }
+        y -= 18;
+        line(REGULAR, 9, "Follow the prescribed dosage and contact your doctor if you experience any side effects.");
+        finishPage();
+
+        StringBuilder kids = new StringBuilder();
+        for (int page : pages) {
+            kids.append(page).append(" 0 R ");
+        }
+        object(2, "<< /Type /Pages /Kids [ " + kids + "] /Count " + pages.size() + " >>");
+        writeTrailer();
+        out.flush();
+    }
+
+    private void heading(String text) throws IOException {
+        y -= 10;
+        line(BOLD, 12, text);
+    }
+
+    private void field(String label, String value) throws IOException {
+        wrap(REGULAR, 11, label + ": " + (value != null && !value.isBlank() ? value : "-"));
+    }
+
+    private void paragraph(String text) throws IOException {
+        wrap(REGULAR, 11, text != null && !text.isBlank() ? text : "-");
+    }
+
+    // Greedy word wrap; a single word wider than the line is split by character
+    private void wrap(String font, float size, String text) throws IOException {
+        for (String paragraph : text.split("\\r?\\n")) {
+            StringBuilder current = new StringBuilder();
+            for (String word : paragraph.split(" +")) {
+                String candidate = current.length() == 0 ? word : current + " " + word;
+                if (width(candidate, font, size) <= TEXT_WIDTH) {
+                    current.setLength(0);
+                    current.append(candidate);
+                    continue;
+                }
+                if (current.length() > 0) {
+                    line(font, size, current.toString());
+                    current.setLength(0);
+                }
+                for (char c : word.toCharArray()) {
+                    if (current.length() > 0 && width(current.toString() + c, font, size) > TEXT_WIDTH) {
+                        line(font, size, current.toString());
+                        current.setLength(0);
+                    }
+                    current.append(c);
+                }
+            }
+            line(font, size, current.toString());
+        }
+    }
+
+    private void line(String font, float size, String text) throws IOException {
+        float leading = size * 1.4f;
+        if (y - leading < MARGIN) {
+            finishPage();
+            startPage();
+        }
+        y -= leading;
+        content.append("BT /").append(font).append(' ').append(number(size)).append(" Tf ")
+                .append(number(MARGIN)).append(' ').append(number(y)).append(" Td (")
+                .append(escape(text)).append(") Tj ET\n");
+    }
+
+    private void rule() {
+        y -= 8;
+        content.append("0.6 w ").append(number(MARGIN)).append(' ').append(number(y)).append(" m ")
+                .append(number(PAGE_WIDTH - MARGIN)).append(' ').append(number(y)).append(" l S\n");
+        y -= 4;
+    }
+
+    private void startPage() {
+        content = new StringBuilder();
+        y = PAGE_HEIGHT - MARGIN;
+    }
+
+    private void finishPage() throws IOException {
+        byte[] stream = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int contentId = offsets.size() + 1;
+        offsets.add(out.count());
+        out.write(ascii(contentId + " 0 obj\n<< /Length " + stream.length + " >>\nstream\n"));
+        out.write(stream);
+        out.write(ascii("endstream\nendobj\n"));
+
+        int pageId = offsets.size() + 1;
+        object(pageId, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + number(PAGE_WIDTH) + " " + number(PAGE_HEIGHT)
+                + "] /Resources << /Font << /F1 3 0 R /F2 4 0 R >> >> /Contents " + contentId + " 0 R >>");
+        pages.add(pageId);
+    }
+
+    private void object(int id, String body) throws IOException {
+        if (id <= offsets.size()) {
+            offsets.set(id - 1, out.count());
+        } else {
+            offsets.add(out.count());
+        }
+        out.write(ascii(id + " 0 obj\n" + body + "\nendobj\n"));
+    }
+
+    private void writeTrailer() throws IOException {
+        long xref = out.count();
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size() + 1).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (Long offset : offsets) {
+            table.append(String.format("%010d 00000 n \n", offset));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        out.write(ascii(table.toString()));
+    }
+
+    private static float width(String text, String font, float size) {
+        float units = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            units += c >= ' ' && c <= '~' ? WIDTHS[c - ' '] : 556;
+        }
+        // Bold glyphs run roughly 5% wider
+        return units * size / 1000 * (BOLD.equals(font) ? 1.05f : 1f);
+    }
+
+    // Literal string in WinAnsi, which matches Latin-1 for everything we keep
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if ((c >= ' ' && c <= '~') || (c >= '\u00a0' && c <= '\u00ff')) {
+                escaped.append(c);
+            } else if (c == '\t') {
+                escaped.append(' ');
+            } else if (!Character.isLowSurrogate(c)) {
+                escaped.append('?');
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String number(float value) {
+        return value == (int) value ? String.valueOf((int) value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream target) {
+            super(target);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
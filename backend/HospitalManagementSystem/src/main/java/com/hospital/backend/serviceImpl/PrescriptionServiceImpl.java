@@ -1,22 +1,27 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.dto.PrescriptionDocument;
 import com.hospital.backend.entity.Prescription;
-import com.hospital.backend.entity.Appointment;
-import com.hospital.backend.entity.Patient;
-import com.hospital.backend.entity.Doctor;
 import com.hospital.backend.repository.AppointmentRepository;
 import com.hospital.backend.repository.PrescriptionRepository;
-import com.hospital.backend.repository.PatientRepository;
-import com.hospital.backend.repository.DoctorRepository;
+import com.hospital.backend.service.PatientTimelineService;
+import com.hospital.backend.service.PharmacyService;
+import com.hospital.backend.service.PrescriptionPdfService;
 import com.hospital.backend.service.PrescriptionService;
 import com.hospital.backend.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class PrescriptionServiceImpl implements PrescriptionService {
@@ -28,16 +33,28 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     private AppointmentRepository appointmentRepository;
 
     @Autowired
-    private PatientRepository patientRepository;
+    private PrescriptionPdfService prescriptionPdfService;
 
     @Autowired
-    private DoctorRepository doctorRepository;
+    private PharmacyService pharmacyService;
 
     @Autowired
+    @Lazy
     private EmailService emailService;
 
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Value("${hospital.mail.send-timeout-ms:15000}")
+    private long sendTimeoutMillis;
+
     @Override
     public Prescription createPrescription(Prescription prescription) {
+        // The repository would treat an id as an update, and stock would be dispensed again
+        if (prescription.getPrId() != 0) {
+            throw new IllegalArgumentException("A new prescription cannot carry an id; update prescription "
+                    + prescription.getPrId() + " with PUT instead");
+        }
         // Ensure required fields are present; infer patient from appointment when
         // possible
         Integer currentPid = prescription.getpId();
@@ -55,7 +72,15 @@ public class PrescriptionServiceImpl implements PrescriptionService {
             throw new IllegalArgumentException("Patient ID (pId) is required or resolvable from appointment");
         }
 
-        return prescriptionRepository.createPrescription(prescription);
+        Prescription created = prescriptionRepository.createPrescription(prescription);
+        patientTimelineService.invalidate(currentPid);
+        try {
+            pharmacyService.dispense(created);
+        } catch (Exception e) {
+            // Stock keeping must never stop a prescription from being issued
+            System.err.println("Error dispensing prescription " + created.getPrId() + ": " + e.getMessage());
+        }
+        return created;
     }
 
     @Override
@@ -70,17 +95,28 @@ public class PrescriptionServiceImpl implements PrescriptionService {
 
     @Override
     public Prescription updatePrescription(int id, Prescription prescription) {
-        if (prescriptionRepository.existsById(id)) {
+        Optional<Prescription> existing = prescriptionRepository.getPrescriptionById(id);
+        if (existing.isPresent()) {
             prescription.setPrId(id);
-            return prescriptionRepository.createPrescription(prescription);
+            Prescription updated = prescriptionRepository.createPrescription(prescription);
+            invalidateTimeline(existing.get());
+            invalidateTimeline(prescription);
+            return updated;
         }
         throw new RuntimeException("Prescription not found with id: " + id);
     }
 
     @Override
     public void deletePrescription(int id) {
-
+        Optional<Prescription> existing = prescriptionRepository.getPrescriptionById(id);
         prescriptionRepository.deletePrescription(id);
+        existing.ifPresent(this::invalidateTimeline);
+    }
+
+    private void invalidateTimeline(Prescription prescription) {
+        if (prescription.getpId() != 0) {
+            patientTimelineService.invalidate(prescription.getpId());
+        }
     }
 
     @Override
@@ -111,59 +147,41 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     @Override
     public void sendPrescriptionEmailToPatient(int prescriptionId) {
         try {
-            // Fetch prescription
-            Optional<Prescription> prescriptionOpt = prescriptionRepository.getPrescriptionById(prescriptionId);
-            if (!prescriptionOpt.isPresent()) {
-                throw new RuntimeException("Prescription not found with id: " + prescriptionId);
-            }
-            Prescription prescription = prescriptionOpt.get();
-
-            // Fetch patient details
-            Optional<Patient> patientOpt = patientRepository.getPatientById(prescription.getpId());
-            if (!patientOpt.isPresent()) {
-                throw new RuntimeException("Patient not found with id: " + prescription.getpId());
-            }
-            Patient patient = patientOpt.get();
+            // Prescription, patient, doctor and specialization in one query
+            PrescriptionDocument document = prescriptionPdfService.getDocument(prescriptionId);
 
             // Check if patient has email
-            if (patient.getEmail() == null || patient.getEmail().isEmpty()) {
+            if (document.getPatientEmail() == null || document.getPatientEmail().isEmpty()) {
                 throw new RuntimeException("Patient does not have an email address");
             }
 
-            // Fetch doctor details from appointment
-            String doctorName = "Unknown Doctor";
-            String specialization = "General";
-
-            if (prescription.getApId() != null) {
-                Optional<Appointment> appointmentOpt = appointmentRepository.getAppointmentById(prescription.getApId());
-                if (appointmentOpt.isPresent()) {
-                    Appointment appointment = appointmentOpt.get();
-                    Optional<Doctor> doctorOpt = doctorRepository.getDoctorById(appointment.getDrId());
-                    if (doctorOpt.isPresent()) {
-                        Doctor doctor = doctorOpt.get();
-                        doctorName = doctor.getDrName();
-                        // You can fetch specialization from SpecializationRepository if needed
-                        // For now, we'll use a default or fetch it separately
-                    }
-                }
-            }
+            String doctorName = document.getDoctorName() != null ? document.getDoctorName() : "Unknown Doctor";
 
             // Format date
             String dateIssued = LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
 
-            // Send email
-            emailService.sendPrescriptionEmail(
-                    patient.getEmail(),
-                    patient.getName(),
+            // Send email with the same PDF bytes as the download, usually from the cache
+            CompletableFuture<Void> delivery = emailService.sendPrescriptionEmail(
+                    document.getPatientEmail(),
+                    document.getPatientName(),
                     doctorName,
-                    specialization,
-                    prescription.getMedicine(),
-                    prescription.getAdvice(),
-                    prescription.getRemark(),
-                    String.valueOf(prescription.getPrId()),
-                    dateIssued);
-
-            System.out.println("Prescription email sent successfully to: " + patient.getEmail());
+                    document.getSpecialization(),
+                    document.getMedicine(),
+                    document.getAdvice(),
+                    document.getRemark(),
+                    String.valueOf(document.getPrId()),
+                    dateIssued,
+                    prescriptionPdfService.getPdf(document));
+
+            // The doctor asked for this one, so report the outcome instead of just queueing it
+            try {
+                delivery.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+                System.out.println("Prescription email sent successfully to: " + document.getPatientEmail());
+            } catch (TimeoutException e) {
+                System.out.println("Prescription email to " + document.getPatientEmail() + " is still queued");
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+            }
         } catch (Exception e) {
             System.err.println("Error sending prescription email: " + e.getMessage());
             throw new RuntimeException("Failed to send prescription email: " + e.getMessage());
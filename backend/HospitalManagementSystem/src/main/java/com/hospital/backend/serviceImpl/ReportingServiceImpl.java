@@ -0,0 +1,123 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.entity.AppointmentStatus;
+import com.hospital.backend.repository.AppointmentRepository;
+import com.hospital.backend.service.ReportingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers admin report filters from an in-memory columnar snapshot of the
+ * appointment table joined with patient blood group, instead of re-reading every
+ * appointment and patient for each filter change.
+ *
+ * The snapshot is only rebuilt when a report is asked for, and then only if
+ * this instance has written appointments since it was taken (at most once per
+ * refresh-ms), or it is older than max-age-ms, which bounds how long writes made
+ * on other instances or by cascades go unseen. The rebuild runs in the
+ * background; the request that triggered it is answered from the old snapshot.
+ */
+@Service
+public class ReportingServiceImpl implements ReportingService {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ThreadPoolTaskExecutor dashboardExecutor;
+
+    @Value("${hospital.reporting.refresh-ms:60000}")
+    private long refreshMillis;
+
+    @Value("${hospital.reporting.max-age-ms:900000}")
+    private long maxAgeMillis;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> queryAppointments(LocalDate from, LocalDate to, Integer doctorId, String status,
+            String bloodGroup, String groupBy) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        String statusName = status != null && !status.isBlank() ? AppointmentStatus.parse(status).name() : null;
+
+        AppointmentColumns columns = current().columns;
+        int[] selection = columns.select(from, to, doctorId, statusName, bloodGroup);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", selection.length);
+        if (groupBy != null && !groupBy.isBlank()) {
+            result.put("groupBy", groupBy);
+            result.put("groups", columns.countBy(groupBy, selection));
+        }
+        result.put("snapshotRows", columns.size);
+        result.put("snapshotTakenAt", columns.takenAt);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void refresh() {
+        long changes = appointmentRepository.getChangeCount();
+        long start = System.currentTimeMillis();
+        try {
+            AppointmentColumns.Builder builder = new AppointmentColumns.Builder();
+            appointmentRepository.streamReportRows(rs -> {
+                Date date = rs.getDate("appointment_date");
+                builder.add(rs.getInt("Ap_ID"), rs.getInt("P_ID"), rs.getInt("DR_ID"),
+                        date != null ? date.toLocalDate() : null,
+                        AppointmentStatus.fromCode(rs.getInt("status_code")).name(), rs.getString("Blood_Group"));
+            });
+            snapshot = new Snapshot(builder.build(), changes, start);
+        } catch (Exception e) {
+            System.err.println("Error refreshing reporting snapshot: " + e.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot != null ? snapshot : new Snapshot(AppointmentColumns.empty(), -1, 0);
+            }
+        } else if (isStale(current) && refreshing.compareAndSet(false, true)) {
+            // Runs with this request's read-only routing, so it may read from a replica
+            dashboardExecutor.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    private boolean isStale(Snapshot current) {
+        long age = System.currentTimeMillis() - current.takenAtMillis;
+        boolean written = appointmentRepository.getChangeCount() != current.changeCount;
+        return age >= maxAgeMillis || (written && age >= refreshMillis);
+    }
+
+    private record Snapshot(AppointmentColumns columns, long changeCount, long takenAtMillis) {
+    }
+}
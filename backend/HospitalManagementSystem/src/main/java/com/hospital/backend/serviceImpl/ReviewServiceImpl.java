@@ -1,7 +1,9 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Review;
 import com.hospital.backend.repository.ReviewRepository;
+import com.hospital.backend.service.PatientTimelineService;
 import com.hospital.backend.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -16,12 +18,21 @@ public class ReviewServiceImpl implements ReviewService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
     @Override
     public Review addReview(Review review) {
         if (review.getRating() < 1 || review.getRating() > 5) {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        entityVersions.bump(EntityVersions.REVIEWS);
+        patientTimelineService.invalidate(review.getPatientId());
+        return saved;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.hospital.backend.serviceImpl;
 
+import com.hospital.backend.config.EntityVersions;
 import com.hospital.backend.entity.Specialization;
 import com.hospital.backend.repository.SpecializationRepository;
 import com.hospital.backend.service.SpecializationService;
@@ -15,9 +16,14 @@ public class SpecializationServiceImpl implements SpecializationService {
     @Autowired
     private SpecializationRepository specializationRepository;
 
+    @Autowired
+    private EntityVersions entityVersions;
+
     @Override
     public Specialization createSpecialization(Specialization specialization) {
-        return specializationRepository.createSpecialization(specialization);
+        Specialization saved = specializationRepository.createSpecialization(specialization);
+        entityVersions.bump(EntityVersions.SPECIALIZATIONS);
+        return saved;
     }
 
     @Override
@@ -34,7 +40,9 @@ public class SpecializationServiceImpl implements SpecializationService {
     public Specialization updateSpecialization(int id, Specialization specialization) {
         if (specializationRepository.existsById(id)) {
             specialization.setSpId(id);
-            return specializationRepository.createSpecialization(specialization);
+            Specialization saved = specializationRepository.createSpecialization(specialization);
+            entityVersions.bump(EntityVersions.SPECIALIZATIONS);
+            return saved;
         }
         throw new RuntimeException("Specialization not found with id: " + id);
     }
@@ -42,6 +50,9 @@ public class SpecializationServiceImpl implements SpecializationService {
     @Override
     public void deleteSpecialization(int id) {
         specializationRepository.deleteSpecialization(id);
+        entityVersions.bump(EntityVersions.SPECIALIZATIONS);
+        // doctor.Sp_Id is ON DELETE SET NULL
+        entityVersions.bump(EntityVersions.DOCTORS);
     }
 
     @Override
@@ -0,0 +1,121 @@
+package com.hospital.backend.serviceImpl;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Units on hand for one medicine, split across stripes so concurrent dispenses of
+ * the same drug CAS on different cache lines instead of all retrying on a single
+ * word. A thread takes from its own stripe first and moves on to the others when
+ * that one is empty, so stock never goes below zero and no unit is lost. Only a
+ * take larger than any single stripe falls back to a lock.
+ */
+public final class StripedStockCounter {
+
+    // 16 ints = 64 bytes: each stripe gets a cache line of its own
+    private static final int PAD = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int mask;
+
+    public StripedStockCounter(int stripes, int initial) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        this.cells = new AtomicIntegerArray(stripes * PAD);
+        this.mask = stripes - 1;
+        add(initial);
+    }
+
+    /** Stripes for this machine: a power of two, at least twice the CPU count. */
+    public static int defaultStripes() {
+        int wanted = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        return Math.min(64, Integer.highestOneBit(wanted - 1) << 1);
+    }
+
+    /** Removes units if that many are on hand; never blocks other stripes. */
+    public boolean tryTake(int units) {
+        int home = home();
+        for (int k = 0; k <= mask; k++) {
+            int index = ((home + k) & mask) * PAD;
+            int current;
+            while ((current = cells.get(index)) >= units) {
+                if (cells.compareAndSet(index, current, current - units)) {
+                    return true;
+                }
+            }
+        }
+        return units > 1 && takeAcrossStripes(units, false) == units;
+    }
+
+    /**
+     * Adds units, or removes them when negative. A removal larger than what is on
+     * hand empties the counter rather than going below zero.
+     */
+    public void add(int units) {
+        if (units >= 0) {
+            int stripes = mask + 1;
+            // Spread bulk additions so every stripe has stock again
+            int share = units / stripes;
+            int remainder = units % stripes;
+            int home = home();
+            for (int k = 0; k < stripes; k++) {
+                int delta = share + (k < remainder ? 1 : 0);
+                if (delta > 0) {
+                    cells.getAndAdd(((home + k) & mask) * PAD, delta);
+                }
+            }
+        } else {
+            takeAcrossStripes(-units, true);
+        }
+    }
+
+    /** Sum of the stripes; exact only while nothing is being taken or added. */
+    public int available() {
+        int total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.get(i * PAD);
+        }
+        return total;
+    }
+
+    /** Takes everything on hand and returns how much that was. */
+    public int drain() {
+        return takeAcrossStripes(Integer.MAX_VALUE, true);
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    // Collects units from several stripes; all-or-nothing unless partial is allowed
+    private synchronized int takeAcrossStripes(int units, boolean partial) {
+        int taken = 0;
+        int[] takenFrom = new int[mask + 1];
+        for (int i = 0; i <= mask && taken < units; i++) {
+            int index = i * PAD;
+            int current;
+            while ((current = cells.get(index)) > 0) {
+                int take = Math.min(current, units - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    takenFrom[i] = take;
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken < units && !partial) {
+            for (int i = 0; i <= mask; i++) {
+                if (takenFrom[i] > 0) {
+                    cells.getAndAdd(i * PAD, takenFrom[i]);
+                }
+            }
+            return 0;
+        }
+        return taken;
+    }
+
+    private int home() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
@@ -26,8 +26,7 @@ CREATE TABLE IF NOT EXISTS patient (
     Email VARCHAR(150) NULL,
     Address VARCHAR(255) NULL,
     Password VARCHAR(255) NULL,
-    reset_token VARCHAR(255) NULL,
-    reset_token_expiry TIMESTAMP NULL,
+    version INT NOT NULL DEFAULT 0,
     UNIQUE KEY uk_patient_email (Email)
 );
 
@@ -55,14 +54,17 @@ CREATE TABLE IF NOT EXISTS appointment (
     cancel_confirm INT NULL,
     appointment_date DATE NULL,
     appointment_time TIME NULL,
-    status VARCHAR(30) NULL,
+    status_code TINYINT NOT NULL DEFAULT 0,
+    version INT NOT NULL DEFAULT 0,
     CONSTRAINT fk_appt_patient FOREIGN KEY (P_ID) REFERENCES patient(P_ID)
         ON UPDATE CASCADE ON DELETE CASCADE,
     CONSTRAINT fk_appt_doctor FOREIGN KEY (DR_ID) REFERENCES doctor(DR_ID)
         ON UPDATE CASCADE ON DELETE CASCADE,
     INDEX idx_appt_doctor (DR_ID),
     INDEX idx_appt_patient (P_ID),
-    INDEX idx_appt_date (appointment_date)
+    INDEX idx_appt_date (appointment_date),
+    INDEX idx_appt_patient_date (P_ID, appointment_date, appointment_time),
+    INDEX idx_appt_status_date (status_code, appointment_date)
 );
 
 CREATE TABLE IF NOT EXISTS prescription (
@@ -80,6 +82,86 @@ CREATE TABLE IF NOT EXISTS prescription (
     INDEX idx_rx_appointment (Ap_Id)
 );
 
+-- Analytics rollups, kept current by the appointment/review repositories and
+-- rebuilt nightly from the source tables
+CREATE TABLE IF NOT EXISTS appointment_status_daily_stats (
+    stat_date DATE NOT NULL,
+    DR_ID INT NOT NULL,
+    status_code TINYINT NOT NULL,
+    appointment_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, DR_ID, status_code),
+    INDEX idx_appt_status_stats_doctor (DR_ID, stat_date)
+);
+
+CREATE TABLE IF NOT EXISTS review_daily_stats (
+    stat_date DATE NOT NULL,
+    DR_ID INT NOT NULL,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, DR_ID),
+    INDEX idx_review_stats_doctor (DR_ID, stat_date)
+);
+
+-- Responses remembered per Idempotency-Key so client retries of a POST are
+-- replayed instead of re-executed; purged after the TTL
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(50) NOT NULL,
+    idem_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response_body MEDIUMTEXT NOT NULL,
+    pending BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (scope, idem_key),
+    INDEX idx_idempotency_created (created_at)
+);
+
+-- Password reset tokens for patients, doctors and admins, stored as SHA-256
+-- hashes; single use, purged in batches once expired
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    token_hash CHAR(64) NOT NULL PRIMARY KEY,
+    user_type VARCHAR(10) NOT NULL,
+    user_id INT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    INDEX idx_reset_user (user_type, user_id),
+    INDEX idx_reset_expires (expires_at)
+);
+
+-- Pharmacy stock per drug name (the same lowercase term the medicine index uses).
+-- Dispenses are applied to in-memory counters and written back as batched deltas.
+CREATE TABLE IF NOT EXISTS medicine_stock (
+    Med_ID INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    quantity INT NOT NULL DEFAULT 0,
+    reorder_level INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NULL,
+    UNIQUE KEY uk_medicine_stock_name (name)
+);
+
+-- Per-resource write counters behind the ETags of the doctor, specialization
+-- and review endpoints; shared so every app instance hands out the same tags.
+CREATE TABLE IF NOT EXISTS entity_versions (
+    resource VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Appointment slices invalidated by each app instance, polled by the others to
+-- evict their local slice cache; rows are purged after an hour.
+CREATE TABLE IF NOT EXISTS slice_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    slice_key VARCHAR(64) NOT NULL,
+    origin CHAR(36) NOT NULL,
+    created_millis BIGINT NOT NULL,
+    INDEX idx_slice_invalidations_created (created_millis)
+);
+
+-- Written by the primary every second when read replicas are configured; a
+-- replica's copy of beat_millis shows how far behind it is.
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id TINYINT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
 -- Optional additional indexes (uncomment if needed for lookups)
 -- CREATE INDEX idx_patient_name ON patient(Name);
 -- CREATE INDEX idx_doctor_name ON doctor(Dr_name);
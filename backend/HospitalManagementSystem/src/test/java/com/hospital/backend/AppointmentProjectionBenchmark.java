@@ -0,0 +1,77 @@
+package com.hospital.backend;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hospital.backend.repositoryImpl.AppointmentRepositoryImpl;
+
+/**
+ * Bytes allocated per row to read a doctor's appointments and write them as JSON,
+ * comparing the full Appointment entity with the AppointmentSlot projection.
+ * Runs against in-memory H2, so it measures mapping and serialization only.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.AppointmentProjectionBenchmark
+ */
+public class AppointmentProjectionBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE appointment (Ap_ID INT AUTO_INCREMENT PRIMARY KEY, P_ID INT, DR_ID INT, " +
+                "Descript VARCHAR(255), cancel_confirm INT, appointment_date DATE, appointment_time TIME, status_code TINYINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.batchUpdate("INSERT INTO appointment (P_ID, DR_ID, Descript, cancel_confirm, appointment_date, " +
+                "appointment_time, status_code) VALUES (?, 1, 'Follow-up consultation regarding ongoing treatment', 0, " +
+                "DATEADD('DAY', ?, DATE '2025-01-01'), TIME '09:30:00', 1)",
+                java.util.stream.IntStream.range(0, ROWS)
+                        .mapToObj(i -> new Object[] { i % 500, i % 60 })
+                        .toList());
+
+        AppointmentRepositoryImpl repository = new AppointmentRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        java.time.LocalDate from = java.time.LocalDate.of(2025, 1, 1);
+        java.time.LocalDate to = from.plusDays(60);
+
+        report("Appointment entity", mapper, () -> repository.getAppointmentsByDoctor(1));
+        report("AppointmentSlot projection", mapper, () -> repository.getSlotsByDoctorBetween(1, from, to));
+    }
+
+    private static void report(String label, ObjectMapper mapper, Supplier<List<?>> query) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), query.get());
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<?> result = query.get();
+            rows += result.size();
+            mapper.writeValue(OutputStream.nullOutputStream(), result);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("%-28s %8d bytes/row %8.0f ns/row%n", label, allocated / rows, (double) elapsed / rows);
+    }
+}
@@ -0,0 +1,178 @@
+package com.hospital.backend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hospital.backend.config.ExecutorConfig;
+import com.hospital.backend.serviceImpl.MailDeliveryServiceImpl;
+
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Messages per second delivered to a local SMTP sink, sending each message on
+ * its own connection (what JavaMailSender.send(message) does) against
+ * MailDeliveryServiceImpl's pooled, batched sessions. Both use 3 concurrent
+ * connections. The sink has no TLS or AUTH, so the handshake cost of a real
+ * server is modelled as a delay before the greeting; 0 ms shows pure protocol
+ * overhead, 25 ms is closer to TLS + AUTH to a remote relay.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.MailDeliveryBenchmark
+ */
+public class MailDeliveryBenchmark {
+
+    private static final int MESSAGES = 2_000;
+    private static final int CONNECTIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        for (long handshakeMillis : new long[] { 0, 25 }) {
+            try (LocalSmtpServer server = new LocalSmtpServer(handshakeMillis)) {
+                JavaMailSenderImpl sender = new JavaMailSenderImpl();
+                sender.setHost("localhost");
+                sender.setPort(server.port());
+
+                sendEach(sender, messages(sender, 100));
+                long start = System.nanoTime();
+                sendEach(sender, messages(sender, MESSAGES));
+                report("connection per message", handshakeMillis, start, server);
+
+                MailDeliveryServiceImpl pooled = pooled(sender);
+                join(pooled.sendAll(messages(sender, 100)));
+                start = System.nanoTime();
+                join(pooled.sendAll(messages(sender, MESSAGES)));
+                report("pooled, batched", handshakeMillis, start, server);
+                System.out.println("    " + pooled.getStats());
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void sendEach(JavaMailSenderImpl sender, List<MimeMessage> messages) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONNECTIONS);
+        for (MimeMessage message : messages) {
+            pool.submit(() -> sender.send(message));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    private static MailDeliveryServiceImpl pooled(JavaMailSenderImpl sender) {
+        ThreadPoolTaskExecutor executor = new ExecutorConfig().mailExecutor(CONNECTIONS);
+        executor.initialize();
+        MailDeliveryServiceImpl service = new MailDeliveryServiceImpl();
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "maxMessagesPerConnection", 100);
+        ReflectionTestUtils.setField(service, "idleTimeoutMillis", 30_000L);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10_000);
+        ReflectionTestUtils.setField(service, "mailSender", sender);
+        ReflectionTestUtils.setField(service, "mailExecutor", executor);
+        ReflectionTestUtils.invokeMethod(service, "start");
+        return service;
+    }
+
+    private static List<MimeMessage> messages(JavaMailSenderImpl sender, int count) throws Exception {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = sender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom("noreply@hospital.local");
+            helper.setTo("patient" + i + "@example.com");
+            helper.setSubject("Appointment reminder");
+            helper.setText("<p>Your appointment is tomorrow at 09:30.</p>", true);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static void join(List<CompletableFuture<Void>> futures) {
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void report(String label, long handshakeMillis, long start, LocalSmtpServer server) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("handshake %2d ms | %-22s | %7.0f messages/s | %d connections so far%n",
+                handshakeMillis, label, MESSAGES / seconds, server.connections.get());
+    }
+
+    /** Accepts everything; just enough SMTP for JavaMail. */
+    private static final class LocalSmtpServer implements AutoCloseable {
+        final AtomicLong connections = new AtomicLong();
+        private final ServerSocket serverSocket;
+        private final ExecutorService handlers = Executors.newCachedThreadPool();
+        private final long handshakeMillis;
+
+        LocalSmtpServer(long handshakeMillis) throws IOException {
+            this.handshakeMillis = handshakeMillis;
+            serverSocket = new ServerSocket(0);
+            handlers.submit(() -> {
+                while (!serverSocket.isClosed()) {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    handlers.submit(() -> session(socket));
+                }
+                return null;
+            });
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private Void session(Socket socket) throws Exception {
+            try (socket) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                Thread.sleep(handshakeMillis);
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // discard body
+                            }
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return null;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static void reply(OutputStream out, String text) throws IOException {
+            out.write((text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            handlers.shutdownNow();
+        }
+    }
+}
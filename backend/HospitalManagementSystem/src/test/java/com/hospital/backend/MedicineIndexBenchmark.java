@@ -0,0 +1,123 @@
+package com.hospital.backend;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hospital.backend.config.MedicineIndex;
+import com.hospital.backend.repositoryImpl.PrescriptionRepositoryImpl;
+
+/**
+ * Drug usage queries over 500k prescriptions written by 200 doctors across two
+ * years: "patients prescribed X in the last 30 days" as the LIKE '%x%' scan it
+ * would otherwise be, against the same answer from MedicineIndex, plus "top
+ * medicines for a doctor", which SQL cannot answer without tokenizing every row.
+ * Also prints the index build time and posting list sizes. Runs against
+ * in-memory H2; on MySQL the scan is slower still.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.MedicineIndexBenchmark
+ */
+public class MedicineIndexBenchmark {
+
+    private static final int PRESCRIPTIONS = 500_000;
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 50_000;
+    private static final int DRUGS = 400;
+    private static final int SCAN_QUERIES = 20;
+    private static final int INDEX_QUERIES = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:medbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE appointment (Ap_ID INT AUTO_INCREMENT PRIMARY KEY, P_ID INT NOT NULL, " +
+                "DR_ID INT NOT NULL, appointment_date DATE NULL, INDEX idx_appt_date (appointment_date))");
+        jdbcTemplate.execute("CREATE TABLE prescription (Pr_ID INT AUTO_INCREMENT PRIMARY KEY, Ap_Id INT NULL, " +
+                "P_ID INT NOT NULL, medicine VARCHAR(255) NULL, INDEX idx_rx_appointment (Ap_Id))");
+
+        List<String> drugs = new ArrayList<>(DRUGS);
+        Random names = new Random(7);
+        for (int i = 0; i < DRUGS; i++) {
+            drugs.add(drugName(names));
+        }
+        LocalDate today = LocalDate.now();
+        Random random = new Random(42);
+        for (int from = 0; from < PRESCRIPTIONS; from += 50_000) {
+            int start = from;
+            List<Object[]> appointments = IntStream.range(start, start + 50_000).mapToObj(i -> new Object[] {
+                    random.nextInt(PATIENTS) + 1, random.nextInt(DOCTORS) + 1,
+                    Date.valueOf(today.minusDays(random.nextInt(730))) }).toList();
+            jdbcTemplate.batchUpdate("INSERT INTO appointment (P_ID, DR_ID, appointment_date) VALUES (?, ?, ?)", appointments);
+            jdbcTemplate.batchUpdate("INSERT INTO prescription (Ap_Id, P_ID, medicine) VALUES (?, ?, ?)",
+                    IntStream.range(0, appointments.size()).mapToObj(i -> new Object[] {
+                            start + i + 1, appointments.get(i)[0], medicine(drugs, random) }).toList());
+        }
+        System.out.println("Loaded " + PRESCRIPTIONS + " prescriptions");
+
+        PrescriptionRepositoryImpl repository = new PrescriptionRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        MedicineIndex index = new MedicineIndex();
+        MedicineIndex.Builder builder = index.newBuilder();
+        repository.streamMedicineRows(rs -> builder.add(rs.getInt("Pr_ID"), rs.getInt("P_ID"),
+                rs.getObject("DR_ID", Integer.class), rs.getDate("appointment_date").toLocalDate(), rs.getString("medicine")));
+        index.install(builder);
+        System.out.println("Index: " + index.getStats());
+
+        Date since = Date.valueOf(today.minusDays(30));
+        report("LIKE scan, patients of drug X", SCAN_QUERIES, () -> jdbcTemplate.queryForList(
+                "SELECT p.P_ID, COUNT(*), MAX(a.appointment_date) FROM prescription p " +
+                        "JOIN appointment a ON p.Ap_Id = a.Ap_ID WHERE p.medicine LIKE ? AND a.appointment_date >= ? " +
+                        "GROUP BY p.P_ID", "%" + drugs.get(random.nextInt(DRUGS)) + "%", since));
+        report("index, patients of drug X", INDEX_QUERIES, () -> index.patientsPrescribed(
+                drugs.get(random.nextInt(DRUGS)), today.minusDays(30)));
+        report("index, top 10 for a doctor", INDEX_QUERIES, () -> index.topMedicines(
+                random.nextInt(DOCTORS) + 1, null, 10));
+        report("index, top 10 overall 30 days", 50, () -> index.topMedicines(null, today.minusDays(30), 10));
+    }
+
+    private static String drugName(Random random) {
+        String[] parts = { "amo", "xi", "cil", "lin", "para", "ce", "ta", "mol", "met", "for", "min", "ator", "va",
+                "sta", "tin", "pan", "to", "pra", "zole", "cef", "ri", "axo", "ne", "lo", "sar", "tan" };
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3 + random.nextInt(2); i++) {
+            name.append(parts[random.nextInt(parts.length)]);
+        }
+        return name.toString();
+    }
+
+    // One to three drugs with dose and frequency, skewed towards the common ones
+    private static String medicine(List<String> drugs, Random random) {
+        StringBuilder medicine = new StringBuilder();
+        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+            int drug = (int) (DRUGS * Math.pow(random.nextDouble(), 2));
+            medicine.append(i > 0 ? ", " : "").append(Character.toUpperCase(drugs.get(drug).charAt(0)))
+                    .append(drugs.get(drug).substring(1)).append(' ').append(50 * (1 + random.nextInt(10)))
+                    .append("mg ").append(random.nextBoolean() ? "twice daily" : "once daily after food");
+        }
+        return medicine.toString();
+    }
+
+    private static void report(String label, int queries, Runnable query) {
+        for (int i = 0; i < Math.min(queries, 200); i++) {
+            query.run();
+        }
+        List<Long> latencies = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            query.run();
+            latencies.add(System.nanoTime() - start);
+        }
+        Collections.sort(latencies);
+        System.out.printf("%-32s p50 %9.3f ms | p99 %9.3f ms%n", label,
+                latencies.get(queries / 2) / 1_000_000.0, latencies.get(queries * 99 / 100) / 1_000_000.0);
+    }
+}
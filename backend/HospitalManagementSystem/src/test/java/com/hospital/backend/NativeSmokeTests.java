@@ -0,0 +1,86 @@
+package com.hospital.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * End-to-end smoke checks against an embedded database. Run on the JVM with
+ * mvn test, or against the native binary with mvn -PnativeTest test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:hospital;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=always",
+        "openai.api.url=http://localhost/unused",
+        "openai.api.key=unused",
+        "openai.api.model=unused"
+})
+class NativeSmokeTests {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> OBJECT = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> LIST = new ParameterizedTypeReference<>() {
+    };
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void listsSeededSpecializations() {
+        ResponseEntity<List<Map<String, Object>>> response = get("/api/specializations", LIST);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotEmpty();
+    }
+
+    @Test
+    void adminCanLogIn() {
+        Map<String, String> login = Map.of("email", "admin@hospital.com", "password", "admin123");
+        ResponseEntity<Map<String, Object>> response = post("/api/auth/admin/login", login);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("success")).isEqualTo(true);
+    }
+
+    @Test
+    void appointmentRoundTripsSqlDateAndTime() {
+        Map<String, Object> patient = Map.of("name", "Smoke Patient", "email", "smoke@example.com",
+                "password", "secret", "dob", "1990-01-01");
+        assertThat(post("/api/patients", patient).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Map<String, Object> doctor = Map.of("drName", "Smoke Doctor", "emailId", "dr.smoke@example.com",
+                "password", "secret", "spId", 1);
+        post("/api/doctors", doctor);
+
+        int patientId = (Integer) get("/api/patients/email?email=smoke@example.com", OBJECT).getBody().get("pId");
+        int doctorId = (Integer) get("/api/doctors/email/dr.smoke@example.com", OBJECT).getBody().get("drId");
+
+        Map<String, Object> appointment = Map.of("pId", patientId, "drId", doctorId,
+                "appointmentDate", "2030-05-01", "appointmentTime", "09:30");
+        assertThat(post("/api/appointments", appointment).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        List<Map<String, Object>> slots = get("/api/appointments/doctor/" + doctorId + "/date/2030-05-01", LIST)
+                .getBody();
+        assertThat(slots).hasSize(1);
+        assertThat(slots.get(0).get("appointmentTime")).isEqualTo("09:30:00");
+    }
+
+    private <T> ResponseEntity<T> get(String url, ParameterizedTypeReference<T> type) {
+        return restTemplate.exchange(url, HttpMethod.GET, null, type);
+    }
+
+    private ResponseEntity<Map<String, Object>> post(String url, Object body) {
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body), OBJECT);
+    }
+}
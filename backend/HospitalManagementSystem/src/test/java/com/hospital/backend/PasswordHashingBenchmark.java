@@ -0,0 +1,108 @@
+package com.hospital.backend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hospital.backend.config.ExecutorConfig;
+import com.hospital.backend.exceptions.ServiceBusyException;
+import com.hospital.backend.serviceImpl.PasswordServiceImpl;
+
+/**
+ * Login password checks per second and their latency for a range of BCrypt cost
+ * factors, with many request threads calling into PasswordServiceImpl at once.
+ * Uses the same CPU-sized passwordExecutor as the application, so the numbers
+ * show how far a given cost can go on this machine before logins queue, time out
+ * (5 s) or are rejected. Pick the highest cost whose p99 is still acceptable at
+ * the expected peak concurrency and set hospital.password.bcrypt-cost.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.PasswordHashingBenchmark
+ */
+public class PasswordHashingBenchmark {
+
+    private static final int[] COSTS = { 8, 10, 11, 12 };
+    private static final int[] CONCURRENCY = { 16, 64 };
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long RUN_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("password executor threads: " + Runtime.getRuntime().availableProcessors());
+        for (int cost : COSTS) {
+            for (int concurrency : CONCURRENCY) {
+                run(cost, concurrency);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(int cost, int concurrency) throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        ThreadPoolTaskExecutor executor = new ExecutorConfig().passwordExecutor(0, 256);
+        executor.initialize();
+        PasswordServiceImpl passwordService = new PasswordServiceImpl();
+        ReflectionTestUtils.setField(passwordService, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(passwordService, "passwordExecutor", executor);
+        ReflectionTestUtils.setField(passwordService, "timeoutMillis", 5_000L);
+        ReflectionTestUtils.setField(passwordService, "cost", cost);
+        String stored = encoder.encode("correct horse battery staple");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong busy = new AtomicLong();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.submit(() -> {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    try {
+                        passwordService.matches("correct horse battery staple", stored);
+                        if (measuring.get()) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    } catch (ServiceBusyException e) {
+                        if (measuring.get()) {
+                            busy.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        Thread.sleep(WARMUP_MILLIS);
+        measuring.set(true);
+        Thread.sleep(RUN_MILLIS);
+        measuring.set(false);
+        running.set(false);
+        clients.shutdown();
+        clients.awaitTermination(60, TimeUnit.SECONDS);
+        Object peakQueue = passwordService.getStats().get("peakQueueDepth");
+        executor.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("cost %2d | %3d concurrent logins | %7.1f logins/s | p50 %7.1f ms | p99 %7.1f ms | "
+                        + "busy/timed out %d | peak queue %s%n",
+                cost, concurrency, sorted.size() * 1000.0 / RUN_MILLIS,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), busy.get(), peakQueue);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
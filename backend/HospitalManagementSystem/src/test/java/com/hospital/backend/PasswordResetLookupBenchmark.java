@@ -0,0 +1,95 @@
+package com.hospital.backend;
+
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hospital.backend.repositoryImpl.PasswordResetTokenRepositoryImpl;
+
+/**
+ * Reset-token confirmation latency with 1M patients: the old lookup on the
+ * unindexed patient.reset_token column against the hashed primary-key lookup in
+ * password_reset_tokens. 1% of patients hold an outstanding token in both
+ * layouts. Runs against in-memory H2; MySQL shows the same shape (full scan
+ * against one index probe), with larger absolute numbers for the scan.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.PasswordResetLookupBenchmark
+ */
+public class PasswordResetLookupBenchmark {
+
+    private static final int PATIENTS = 1_000_000;
+    private static final int OUTSTANDING = PATIENTS / 100;
+    private static final int LEGACY_LOOKUPS = 50;
+    private static final int HASHED_LOOKUPS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:resetbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE patient (P_ID INT AUTO_INCREMENT PRIMARY KEY, Name VARCHAR(100), " +
+                "Email VARCHAR(150), Password VARCHAR(255), reset_token VARCHAR(255) NULL, reset_token_expiry TIMESTAMP NULL)");
+        jdbcTemplate.execute("CREATE TABLE password_reset_tokens (token_hash CHAR(64) NOT NULL PRIMARY KEY, " +
+                "user_type VARCHAR(10) NOT NULL, user_id INT NOT NULL, expires_at TIMESTAMP NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL, INDEX idx_reset_user (user_type, user_id), INDEX idx_reset_expires (expires_at))");
+
+        Timestamp expiry = new Timestamp(System.currentTimeMillis() + 15 * 60_000);
+        List<String> tokens = new ArrayList<>(OUTSTANDING);
+        for (int from = 0; from < PATIENTS; from += 50_000) {
+            int start = from;
+            jdbcTemplate.batchUpdate("INSERT INTO patient (Name, Email, Password, reset_token, reset_token_expiry) " +
+                    "VALUES (?, ?, 'x', ?, ?)", IntStream.range(start, start + 50_000).mapToObj(i -> {
+                        String token = i % 100 == 0 ? "TOKEN" + i : null;
+                        return new Object[] { "Patient " + i, "p" + i + "@example.com", token, token != null ? expiry : null };
+                    }).toList());
+        }
+        for (int i = 0; i < PATIENTS; i += 100) {
+            tokens.add("TOKEN" + i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO password_reset_tokens VALUES (?, 'PATIENT', ?, ?, ?)",
+                IntStream.range(0, tokens.size()).mapToObj(i -> new Object[] {
+                        sha256(tokens.get(i)), i * 100 + 1, expiry, new Timestamp(System.currentTimeMillis()) }).toList());
+        System.out.println("Loaded " + PATIENTS + " patients, " + tokens.size() + " outstanding tokens");
+
+        PasswordResetTokenRepositoryImpl repository = new PasswordResetTokenRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+
+        Random random = new Random(42);
+        report("patient.reset_token scan", LEGACY_LOOKUPS, () -> jdbcTemplate.queryForList(
+                "SELECT * FROM patient WHERE reset_token = ?", tokens.get(random.nextInt(tokens.size()))));
+        report("password_reset_tokens by hash", HASHED_LOOKUPS, () -> repository.findByHash(
+                sha256(tokens.get(random.nextInt(tokens.size())))));
+    }
+
+    private static void report(String label, int lookups, Runnable lookup) {
+        for (int i = 0; i < Math.min(lookups, 1_000); i++) {
+            lookup.run();
+        }
+        List<Long> latencies = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            lookup.run();
+            latencies.add(System.nanoTime() - start);
+        }
+        Collections.sort(latencies);
+        System.out.printf("%-32s p50 %9.3f ms | p99 %9.3f ms%n", label,
+                latencies.get(lookups / 2) / 1_000_000.0, latencies.get(lookups * 99 / 100) / 1_000_000.0);
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.hospital.backend;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.repositoryImpl.MedicineStockRepositoryImpl;
+import com.hospital.backend.serviceImpl.PharmacyServiceImpl;
+import com.hospital.backend.serviceImpl.StripedStockCounter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Hundreds of threads dispensing the same popular drug at once. Compares a
+ * conditional UPDATE per dispense (a row lock on medicine_stock, through a
+ * 10-connection pool), one AtomicInteger shared by every thread,
+ * StripedStockCounter alone, and the full PharmacyServiceImpl path with its
+ * reserved allotments. Stock is smaller than demand, so every variant must also
+ * stop at exactly zero: no unit is dispensed twice and none goes missing. Runs
+ * against in-memory H2; with MySQL over the network the row-lock numbers get
+ * much worse, the in-memory ones do not change.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.PharmacyContentionBenchmark
+ */
+public class PharmacyContentionBenchmark {
+
+    private static final int THREADS = 400;
+    private static final int ATTEMPTS_PER_THREAD = 2_500;
+    private static final int DB_ATTEMPTS_PER_THREAD = 25;
+    private static final int STOCK = 800_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("CPUs: " + Runtime.getRuntime().availableProcessors()
+                + ", stripes: " + StripedStockCounter.defaultStripes() + ", threads: " + THREADS);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:pharmacybench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(10);
+        dataSource.setConnectionTimeout(120_000);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE medicine_stock (Med_ID INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "quantity INT NOT NULL DEFAULT 0, reorder_level INT NOT NULL DEFAULT 0, updated_at TIMESTAMP NULL, "
+                + "UNIQUE KEY uk_medicine_stock_name (name))");
+
+        int dbStock = THREADS * DB_ATTEMPTS_PER_THREAD * 4 / 5;
+        jdbcTemplate.update("INSERT INTO medicine_stock (name, quantity) VALUES ('rowlock', ?)", dbStock);
+        run("row lock UPDATE per dispense", DB_ATTEMPTS_PER_THREAD, dbStock,
+                () -> jdbcTemplate.update("UPDATE medicine_stock SET quantity = quantity - 1 "
+                        + "WHERE name = 'rowlock' AND quantity > 0") == 1,
+                () -> jdbcTemplate.queryForObject("SELECT quantity FROM medicine_stock WHERE name = 'rowlock'", Integer.class));
+        jdbcTemplate.update("DELETE FROM medicine_stock WHERE name = 'rowlock'");
+
+        int stock = STOCK;
+        AtomicInteger single = new AtomicInteger(stock);
+        run("single AtomicInteger CAS", ATTEMPTS_PER_THREAD, stock, () -> {
+            int current;
+            while ((current = single.get()) > 0) {
+                if (single.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }, single::get);
+
+        StripedStockCounter striped = new StripedStockCounter(StripedStockCounter.defaultStripes(), stock);
+        run("StripedStockCounter", ATTEMPTS_PER_THREAD, stock, () -> striped.tryTake(1), striped::available);
+
+        MedicineStockRepositoryImpl repository = new MedicineStockRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        PharmacyServiceImpl pharmacy = new PharmacyServiceImpl();
+        ReflectionTestUtils.setField(pharmacy, "medicineStockRepository", repository);
+        ReflectionTestUtils.setField(pharmacy, "allotment", 1_000);
+        // The flusher gives every allotment back, so the final count is exact
+        ReflectionTestUtils.setField(pharmacy, "allotmentIdleMillis", 0L);
+        MedicineStock popular = new MedicineStock();
+        popular.setName("Paracetamol");
+        popular.setQuantity(stock);
+        popular.setReorderLevel(1_000);
+        pharmacy.createStock(popular);
+        Prescription prescription = new Prescription();
+        prescription.setMedicine("Paracetamol 500mg twice daily");
+        Thread flusher = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                pharmacy.flush();
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        flusher.start();
+        run("PharmacyServiceImpl.dispense", ATTEMPTS_PER_THREAD, stock,
+                () -> !pharmacy.dispense(prescription).dispensed().isEmpty(),
+                () -> {
+                    pharmacy.flush();
+                    return jdbcTemplate.queryForObject("SELECT quantity FROM medicine_stock WHERE name = 'paracetamol'",
+                            Integer.class);
+                });
+        flusher.interrupt();
+        System.out.println("service stats: " + pharmacy.getStats());
+        System.out.println("alerts: " + pharmacy.getLowStockAlerts());
+        dataSource.close();
+    }
+
+    interface Attempt {
+        boolean dispense();
+    }
+
+    interface Remaining {
+        int get();
+    }
+
+    private static void run(String label, int attemptsPerThread, int stock, Attempt attempt, Remaining remaining)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder dispensed = new LongAdder();
+        LongAdder refused = new LongAdder();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (attempt.dispense()) {
+                        dispensed.increment();
+                    } else {
+                        refused.increment();
+                    }
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long attempts = (long) THREADS * attemptsPerThread;
+        int left = remaining.get();
+        boolean exact = dispensed.sum() == Math.min(stock, attempts) && left == stock - dispensed.sum();
+        System.out.printf("%-30s %,12.0f dispenses/s | %,9d dispensed %,9d refused | %d left | %s%n", label,
+                attempts / seconds, dispensed.sum(), refused.sum(), left, exact ? "exact" : "MISMATCH");
+    }
+}
@@ -0,0 +1,146 @@
+package com.hospital.backend;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency seen by well-behaved clients while a few abusive clients hammer
+ * GET /api/patients, with the rate limiter on and then off. Normal users stay
+ * inside their budget; the abusers do not. Boots the app on in-memory H2 and
+ * discards a warm-up period before measuring. Clients are told apart by
+ * X-Forwarded-For, since the limiter keys on the client address.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.hospital.backend.RateLimitLoadTest
+ */
+public class RateLimitLoadTest {
+
+    private static final int PATIENTS = 5_000;
+    private static final int ABUSERS = 16;
+    private static final int NORMAL_USERS = 8;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration RUN = Duration.ofSeconds(30);
+    // 20 requests/minute per normal user, inside the default 30/minute patients budget
+    private static final long NORMAL_PAUSE_MILLIS = 3_000;
+
+    public static void main(String[] args) throws Exception {
+        run(false);
+        run(true);
+        System.exit(0);
+    }
+
+    private static void run(boolean limiterEnabled) throws Exception {
+        // Command-line arguments, so a local application.properties cannot point this at MySQL
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HospitalApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:ratelimit" + limiterEnabled
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.sql.init.mode=always",
+                "--openai.api.url=http://localhost/unused",
+                "--openai.api.key=unused",
+                "--openai.api.model=unused",
+                "--logging.level.root=WARN",
+                "--hospital.rate-limit.trust-forwarded-for=true",
+                "--hospital.rate-limit.enabled=" + limiterEnabled);
+        try {
+            context.getBean(JdbcTemplate.class).batchUpdate(
+                    "INSERT INTO patient (Name, Email, Blood_Group, Address) VALUES (?, ?, 'O+', '1 Long Street, Some Town')",
+                    IntStream.range(0, PATIENTS)
+                            .mapToObj(i -> new Object[] { "Patient " + i, "load" + i + "@example.com" })
+                            .toList());
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/patients");
+            report(limiterEnabled, uri);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void report(boolean limiterEnabled, URI uri) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong abusiveOk = new AtomicLong();
+        AtomicLong abusiveRejected = new AtomicLong();
+        List<Long> normalLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong normalRejected = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(ABUSERS + NORMAL_USERS);
+        for (int i = 0; i < ABUSERS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri).header("X-Forwarded-For", "10.0.0." + (i % 2)).build();
+            pool.submit(() -> {
+                while (running.get()) {
+                    int status = send(client, request);
+                    if (measuring.get()) {
+                        (status == 429 ? abusiveRejected : abusiveOk).incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        for (int i = 0; i < NORMAL_USERS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri).header("X-Forwarded-For", "10.0.1." + i).build();
+            pool.submit(() -> {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    int status = send(client, request);
+                    if (measuring.get()) {
+                        if (status == 429) {
+                            normalRejected.incrementAndGet();
+                        } else {
+                            normalLatencies.add(System.nanoTime() - start);
+                        }
+                    }
+                    Thread.sleep(NORMAL_PAUSE_MILLIS);
+                }
+                return null;
+            });
+        }
+
+        Thread.sleep(WARMUP.toMillis());
+        measuring.set(true);
+        Thread.sleep(RUN.toMillis());
+        running.set(false);
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+
+        List<Long> sorted = new ArrayList<>(normalLatencies);
+        Collections.sort(sorted);
+        System.out.printf("limiter %-3s | normal users: %d ok, %d rejected, p50 %.1f ms, p99 %.1f ms | "
+                        + "abusers: %d served, %d rejected%n",
+                limiterEnabled ? "on" : "off", sorted.size(), normalRejected.get(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), abusiveOk.get(), abusiveRejected.get());
+    }
+
+    private static int send(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.hospital.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "clientAddressResolver", new ClientAddressResolver());
+        ReflectionTestUtils.setField(filter, "maxClients", 100);
+        ReflectionTestUtils.setField(filter, "chatPerMinute", 10);
+        ReflectionTestUtils.setField(filter, "chatBurst", 5);
+        ReflectionTestUtils.setField(filter, "loginPerMinute", 10);
+        ReflectionTestUtils.setField(filter, "loginBurst", 5);
+        ReflectionTestUtils.setField(filter, "passwordResetPerMinute", 10);
+        ReflectionTestUtils.setField(filter, "passwordResetBurst", 3);
+        ReflectionTestUtils.setField(filter, "patientsPerMinute", 30);
+        ReflectionTestUtils.setField(filter, "patientsBurst", 10);
+        ReflectionTestUtils.setField(filter, "defaultPerMinute", 600);
+        ReflectionTestUtils.setField(filter, "defaultBurst", 100);
+        filter.init();
+    }
+
+    @Test
+    void rotatingTheBearerTokenDoesNotResetTheLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, login("10.0.0.1", "forged-" + i));
+        }
+        assertEquals(429, login("10.0.0.1", "forged-5"));
+        assertEquals(429, login("10.0.0.1", null));
+    }
+
+    @Test
+    void clientsAreLimitedSeparately() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, login("10.0.0.1", null));
+        }
+        assertEquals(429, login("10.0.0.1", null));
+        assertEquals(200, login("10.0.0.2", null));
+    }
+
+    @Test
+    void fullTableRefusesNewClientsWithoutSharingABucket() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxClients", 2);
+        assertEquals(200, login("10.0.0.1", null));
+        assertEquals(200, login("10.0.0.2", null));
+
+        assertEquals(429, login("10.0.0.3", null));
+        // Existing clients keep their own budgets
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, login("10.0.0.1", null));
+        }
+        assertEquals(429, login("10.0.0.1", null));
+        assertEquals(200, login("10.0.0.2", null));
+    }
+
+    private int login(String address, String bearer) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/patient/login");
+        request.setRemoteAddr(address);
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,171 @@
+package com.hospital.backend.serviceImpl;
+
+import com.hospital.backend.entity.MedicineStock;
+import com.hospital.backend.entity.Prescription;
+import com.hospital.backend.repository.MedicineStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PharmacyServiceImplTest {
+
+    private InMemoryStockRepository repository;
+    private PharmacyServiceImpl first;
+    private PharmacyServiceImpl second;
+    private int medId;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryStockRepository();
+        first = instance(repository);
+        second = instance(repository);
+        MedicineStock stock = new MedicineStock();
+        stock.setName("Amoxicillin");
+        stock.setQuantity(30);
+        stock.setReorderLevel(5);
+        medId = first.createStock(stock).getMedId();
+        second.resync();
+    }
+
+    @Test
+    void twoInstancesNeverDispenseMoreThanTheTableHolds() {
+        int dispensed = 0;
+        for (int i = 0; i < 40; i++) {
+            dispensed += first.dispense(prescription()).dispensed().size();
+            dispensed += second.dispense(prescription()).dispensed().size();
+        }
+        assertEquals(30, dispensed);
+        assertEquals(0, repository.quantity(medId));
+        assertTrue(repository.neverNegative);
+    }
+
+    @Test
+    void reservedUnitsLeaveTheTableAndUnusedOnesComeBack() {
+        first.dispense(prescription());
+        int held = (int) (long) first.getStats().get("heldUnits");
+        assertTrue(held > 0);
+        assertEquals(30 - 1 - held, repository.quantity(medId));
+        // Reported quantity counts this instance's allotment
+        assertEquals(29, first.getStockById(medId).getQuantity());
+
+        ReflectionTestUtils.setField(first, "allotmentIdleMillis", 0L);
+        first.flush();
+        assertEquals(29, repository.quantity(medId));
+        assertEquals(0L, first.getStats().get("heldUnits"));
+    }
+
+    @Test
+    void allotmentsShrinkAsStockRunsLow() {
+        ReflectionTestUtils.setField(first, "allotment", 100);
+        first.dispense(prescription());
+        // A quarter of the 30 left, not the whole row
+        assertEquals(30 - 7, repository.quantity(medId));
+    }
+
+    @Test
+    void shutdownGivesTheAllotmentBack() {
+        first.dispense(prescription());
+        second.dispense(prescription());
+        first.shutdown();
+        second.shutdown();
+        assertEquals(28, repository.quantity(medId));
+    }
+
+    @Test
+    void resyncPicksUpRestocksFromOtherInstances() {
+        first.dispense(prescription());
+        second.restock(medId, 10);
+        first.resync();
+        second.resync();
+        assertEquals(39, first.getStockById(medId).getQuantity());
+        // The other instance cannot see the 3 units still held by the first
+        assertEquals(36, second.getStockById(medId).getQuantity());
+    }
+
+    private static PharmacyServiceImpl instance(MedicineStockRepository repository) {
+        PharmacyServiceImpl service = new PharmacyServiceImpl();
+        ReflectionTestUtils.setField(service, "medicineStockRepository", repository);
+        ReflectionTestUtils.setField(service, "allotment", 4);
+        ReflectionTestUtils.setField(service, "allotmentIdleMillis", 60_000L);
+        return service;
+    }
+
+    private static Prescription prescription() {
+        Prescription prescription = new Prescription();
+        prescription.setMedicine("Amoxicillin 500mg thrice daily");
+        return prescription;
+    }
+
+    // medicine_stock as the table would behave, shared by both instances
+    private static final class InMemoryStockRepository implements MedicineStockRepository {
+        private final Map<Integer, MedicineStock> rows = new TreeMap<>();
+        private int nextId = 1;
+        boolean neverNegative = true;
+
+        synchronized int quantity(int id) {
+            return rows.get(id).getQuantity();
+        }
+
+        @Override
+        public synchronized MedicineStock createMedicineStock(MedicineStock stock) {
+            stock.setMedId(nextId++);
+            rows.put(stock.getMedId(), copy(stock));
+            return stock;
+        }
+
+        @Override
+        public synchronized List<MedicineStock> getAllMedicineStock() {
+            List<MedicineStock> all = new ArrayList<>();
+            rows.values().forEach(row -> all.add(copy(row)));
+            return all;
+        }
+
+        @Override
+        public synchronized Optional<MedicineStock> getMedicineStockById(int id) {
+            return Optional.ofNullable(rows.get(id)).map(InMemoryStockRepository::copy);
+        }
+
+        @Override
+        public synchronized void updateReorderLevel(int id, int reorderLevel) {
+            rows.get(id).setReorderLevel(reorderLevel);
+        }
+
+        @Override
+        public synchronized void addQuantity(int id, int delta) {
+            MedicineStock row = rows.get(id);
+            row.setQuantity(row.getQuantity() + delta);
+            neverNegative &= row.getQuantity() >= 0;
+        }
+
+        @Override
+        public synchronized int reserve(int id, int units) {
+            MedicineStock row = rows.get(id);
+            int take = Math.min(units, Math.max(0, row.getQuantity()));
+            row.setQuantity(row.getQuantity() - take);
+            return take;
+        }
+
+        @Override
+        public synchronized void deleteMedicineStock(int id) {
+            rows.remove(id);
+        }
+
+        private static MedicineStock copy(MedicineStock row) {
+            MedicineStock copy = new MedicineStock();
+            copy.setMedId(row.getMedId());
+            copy.setName(row.getName());
+            copy.setQuantity(row.getQuantity());
+            copy.setReorderLevel(row.getReorderLevel());
+            return copy;
+        }
+    }
+}
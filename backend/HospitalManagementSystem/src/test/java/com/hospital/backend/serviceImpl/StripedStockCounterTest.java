@@ -0,0 +1,89 @@
+package com.hospital.backend.serviceImpl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedStockCounterTest {
+
+    @Test
+    void takesUntilEmptyAndThenRefuses() {
+        StripedStockCounter counter = new StripedStockCounter(4, 3);
+        assertTrue(counter.tryTake(1));
+        assertTrue(counter.tryTake(1));
+        assertTrue(counter.tryTake(1));
+        assertFalse(counter.tryTake(1));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void takeLargerThanAnyStripeIsAllOrNothing() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+        assertTrue(counter.tryTake(8));
+        assertEquals(2, counter.available());
+        assertFalse(counter.tryTake(3));
+        assertEquals(2, counter.available());
+    }
+
+    @Test
+    void removingMoreThanOnHandStopsAtZero() {
+        StripedStockCounter counter = new StripedStockCounter(4, 5);
+        counter.add(-3);
+        assertEquals(2, counter.available());
+        counter.add(-10);
+        assertEquals(0, counter.available());
+        counter.add(7);
+        assertEquals(7, counter.available());
+    }
+
+    @Test
+    void drainReturnsEverythingOnHand() {
+        StripedStockCounter counter = new StripedStockCounter(8, 13);
+        assertTrue(counter.tryTake(1));
+        assertEquals(12, counter.drain());
+        assertEquals(0, counter.available());
+        assertEquals(0, counter.drain());
+    }
+
+    @Test
+    void stripesMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedStockCounter(6, 0));
+    }
+
+    @Test
+    void concurrentTakesHandOutEveryUnitExactlyOnce() throws Exception {
+        int units = 20_000;
+        StripedStockCounter counter = new StripedStockCounter(8, units);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder taken = new LongAdder();
+        for (int t = 0; t < 16; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    if (counter.tryTake(1)) {
+                        taken.increment();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(units, taken.sum());
+        assertEquals(0, counter.available());
+    }
+}
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request for the plain jar and for the startup-optimized
+# (AOT + CDS) build produced by `mvn -Pstartup package`.
+#
+# Usage: ./startup-benchmark.sh [runs] [url]
+# Needs the usual DB_USER / DB_PASS / openai.* environment, same as a normal start.
+
+RUNS=${1:-5}
+URL=${2:-http://localhost:8081/api/specializations}
+JAR_NAME=HospitalManagementSystem-0.0.1-SNAPSHOT.jar
+PLAIN_JAR=target/$JAR_NAME
+CDS_DIR=target/cds
+
+if [ ! -f "$CDS_DIR/application.jsa" ]; then
+    echo "CDS archive not found, run: mvn -Pstartup -DskipTests package"
+    exit 1
+fi
+
+measure() {
+    local label=$1
+    shift
+    local total=0
+    for i in $(seq 1 "$RUNS"); do
+        local start=$(date +%s%N)
+        "$@" > /dev/null 2>&1 &
+        local pid=$!
+        until curl -s -o /dev/null -w "%{http_code}" "$URL" | grep -q 200; do
+            if ! kill -0 $pid 2>/dev/null; then
+                echo "[$label] application exited before answering, aborting"
+                exit 1
+            fi
+            sleep 0.05
+        done
+        local end=$(date +%s%N)
+        kill $pid
+        wait $pid 2>/dev/null
+        local ms=$(( (end - start) / 1000000 ))
+        total=$(( total + ms ))
+        echo "[$label] run $i: ${ms} ms"
+    done
+    echo "[$label] average time-to-first-request: $(( total / RUNS )) ms"
+    echo
+}
+
+measure "baseline" java -jar "$PLAIN_JAR"
+measure "aot+cds" java -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true -jar "$CDS_DIR/$JAR_NAME"
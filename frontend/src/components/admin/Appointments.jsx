@@ -813,13 +813,20 @@ const Appointments = () => {
           fetchAppointments(); // Refresh the appointments list
         } catch (error) {
           console.error('Complete update failed:', error);
+          if (error.response?.status === 409) {
+            toast.error('This appointment was changed by someone else; the list has been reloaded');
+            fetchAppointments();
+            setLoading(false);
+            return;
+          }
 
           // Fall back to simplified update if needed
           try {
             // Just try with date/time fields as fallback
             const dateTimeOnlyPayload = {
               appointmentDate: formData.appointmentDate,
-              appointmentTime: formattedTime
+              appointmentTime: formattedTime,
+              version: currentAppointment.version
             };
 
             console.log('Falling back to date/time only update:', dateTimeOnlyPayload);
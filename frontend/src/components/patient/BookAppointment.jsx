@@ -1,5 +1,5 @@
 
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
     CalendarIcon,
     ClockIcon,
@@ -8,7 +8,7 @@ import {
     CheckCircleIcon,
     PlusCircleIcon
 } from '@heroicons/react/24/outline';
-import { appointmentService, doctorService } from '../../services/api';
+import { appointmentService, doctorService, newIdempotencyKey } from '../../services/api';
 import { toast } from 'react-toastify';
 import { useNavigate } from 'react-router-dom';
 
@@ -31,6 +31,12 @@ const BookAppointment = () => {
         fetchDoctors();
     }, []);
 
+    // One key per filled-in form, so a repeated submit of the same booking is not duplicated
+    const idempotencyKeyRef = useRef(null);
+    useEffect(() => {
+        idempotencyKeyRef.current = null;
+    }, [formData]);
+
     // Fetch booked slots when doctor or date changes
     useEffect(() => {
         if (formData.doctorId && formData.appointmentDate) {
@@ -40,6 +46,18 @@ const BookAppointment = () => {
         }
     }, [formData.doctorId, formData.appointmentDate]);
 
+    // Keep availability current while the form is open instead of re-fetching
+    useEffect(() => {
+        if (!formData.doctorId || !formData.appointmentDate || typeof EventSource === 'undefined') {
+            return undefined;
+        }
+        return appointmentService.subscribeToDoctorDay(
+            formData.doctorId,
+            formData.appointmentDate,
+            (bookedApps) => setAvailableSlots(markBookedSlots(generateTimeSlots(), bookedApps))
+        );
+    }, [formData.doctorId, formData.appointmentDate]);
+
     const generateTimeSlots = () => {
         const slots = [];
         let start = 9 * 60; // 9:00 AM in minutes
@@ -66,6 +84,22 @@ const BookAppointment = () => {
         return slots;
     };
 
+    // Mark booked slots as unavailable
+    const markBookedSlots = (allSlots, bookedApps) => allSlots.map(slot => {
+        // Check if this slot time matches any booked appointment time
+        // Backend returns HH:mm:ss, our slot.time is HH:mm:ss
+        const isBooked = bookedApps.some(app => {
+            const appTime = app.appointmentTime || app.appointment_time;
+            // Robust check: match HH:mm part
+            return appTime && appTime.substring(0, 5) === slot.time.substring(0, 5);
+        });
+
+        return {
+            ...slot,
+            available: !isBooked
+        };
+    });
+
     const fetchBookedSlots = async () => {
         setIsLoadingSlots(true);
         try {
@@ -80,23 +114,7 @@ const BookAppointment = () => {
 
             const bookedApps = response.data || [];
 
-            // Mark booked slots as unavailable
-            const updatedSlots = allSlots.map(slot => {
-                // Check if this slot time matches any booked appointment time
-                // Backend returns HH:mm:ss, our slot.time is HH:mm:ss
-                const isBooked = bookedApps.some(app => {
-                    const appTime = app.appointmentTime || app.appointment_time;
-                    // Robust check: match HH:mm part
-                    return appTime && appTime.substring(0, 5) === slot.time.substring(0, 5);
-                });
-
-                return {
-                    ...slot,
-                    available: !isBooked
-                };
-            });
-
-            setAvailableSlots(updatedSlots);
+            setAvailableSlots(markBookedSlots(allSlots, bookedApps));
         } catch (error) {
             console.error('Error fetching booked slots:', error);
             toast.error('Failed to check availability');
@@ -152,7 +170,10 @@ const BookAppointment = () => {
             };
 
             console.log('Sending appointment data:', appointmentData); // Debug log
-            await appointmentService.createAppointment(appointmentData);
+            if (!idempotencyKeyRef.current) {
+                idempotencyKeyRef.current = newIdempotencyKey();
+            }
+            await appointmentService.createAppointment(appointmentData, idempotencyKeyRef.current);
             toast.success('Appointment booked successfully');
             navigate('/patient/appointments');
         } catch (error) {
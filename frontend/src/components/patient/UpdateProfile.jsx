@@ -25,7 +25,9 @@ const UpdateProfile = () => {
         gender: '',
         bloodGroup: '',
         address: '',
-        dob: ''
+        dob: '',
+        // Sent back on save so the server can reject it if the profile changed in the meantime
+        version: null
     });
     const [isLoading, setIsLoading] = useState(false);
     const [isSaving, setIsSaving] = useState(false);
@@ -66,7 +68,8 @@ const UpdateProfile = () => {
                 gender: patient.gender || patient.Gender || '',
                 bloodGroup: patient.bloodGroup || patient.Blood_Group || '',
                 address: patient.address || patient.Address || '',
-                dob: patient.dob || patient.DOB || ''
+                dob: patient.dob || patient.DOB || '',
+                version: patient.version ?? null
             });
         } catch (error) {
             console.error('Error fetching profile:', error);
@@ -92,7 +95,8 @@ const UpdateProfile = () => {
             const userData = JSON.parse(userStr);
             const patientId = userData.id;
 
-            await patientService.updatePatient(patientId, formData);
+            const response = await patientService.updatePatient(patientId, formData);
+            setFormData(prev => ({ ...prev, version: response.data?.version ?? prev.version }));
             toast.success('Profile updated successfully');
 
             // Update localStorage user data
@@ -100,7 +104,12 @@ const UpdateProfile = () => {
             localStorage.setItem('user', JSON.stringify(updatedUser));
         } catch (error) {
             console.error('Error updating profile:', error);
-            toast.error('Failed to update profile');
+            if (error.response?.status === 409) {
+                toast.error('Your profile was changed elsewhere; it has been reloaded, please apply your edit again');
+                fetchProfile();
+            } else {
+                toast.error('Failed to update profile');
+            }
         } finally {
             setIsSaving(false);
         }
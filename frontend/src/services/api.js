@@ -15,6 +15,12 @@ const api = axios.create({
 });
 
 
+// Key for POSTs the backend de-duplicates (crypto.randomUUID needs a secure context)
+export const newIdempotencyKey = () =>
+  (window.crypto && window.crypto.randomUUID)
+    ? window.crypto.randomUUID()
+    : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+
 // REQUEST INTERCEPTOR (JWT FIX)
 api.interceptors.request.use(
   (config) => {
@@ -283,14 +289,23 @@ export const specialtyService = {
 export const appointmentService = {
   getAllAppointments: () => api.get('/appointments'),
   getAppointmentById: (id) => api.get(`/appointments/${id}`),
-  createAppointment: (appointmentData) => api.post('/appointments', appointmentData),
+  // A retried request carrying the same key gets the original response back instead of a duplicate
+  createAppointment: (appointmentData, idempotencyKey = newIdempotencyKey()) =>
+    api.post('/appointments', appointmentData, { headers: { 'Idempotency-Key': idempotencyKey } }),
   updateAppointment: (id, data) => api.put(`/appointments/${id}`, data),
   deleteAppointment: (id) => api.delete(`/appointments/${id}`),
   getAppointmentsByDoctor: (doctorId) => api.get(`/appointments/doctor/${doctorId}`),
   getAppointmentsByPatient: (patientId) => api.get(`/appointments/patient/${patientId}`),
   getAppointmentsByStatus: (status) => api.get(`/appointments/status/${status}`),
   getAppointmentsByDate: (date) => api.get(`/appointments/date/${date}`),
-  getAppointmentsByDoctorAndDate: (doctorId, date) => api.get(`/appointments/doctor/${doctorId}/date/${date}`),
+  getAppointmentsByDoctorAndDate: (doctorId, date) => api.get(`/appointments/doctor/${doctorId}/date/${date}/slots`),
+  // Server-sent events: onUpdate receives the day's slots on connect and after every change.
+  // Returns a function that closes the stream.
+  subscribeToDoctorDay: (doctorId, date, onUpdate) => {
+    const source = new EventSource(`${API_BASE_URL}/appointments/doctor/${doctorId}/live?date=${date}`);
+    source.addEventListener('appointments', (event) => onUpdate(JSON.parse(event.data)));
+    return () => source.close();
+  },
   updateAppointmentStatus: (id, status) => {
     console.log(`Updating appointment ${id} status to ${status}`);
 
@@ -319,9 +334,9 @@ export const prescriptionService = {
   getPrescriptionsByPatient: (patientId) => api.get(`/prescriptions/patient/${patientId}`),
   getPrescriptionsByDoctor: (doctorId) => api.get(`/prescriptions/doctor/${doctorId}`),
   getPrescriptionsByAppointment: (appointmentId) => api.get(`/prescriptions/appointment/${appointmentId}`),
-  createPrescription: (prescriptionData) => {
+  createPrescription: (prescriptionData, idempotencyKey = newIdempotencyKey()) => {
     console.log('Sending prescription data:', prescriptionData);
-    return api.post('/prescriptions', prescriptionData);
+    return api.post('/prescriptions', prescriptionData, { headers: { 'Idempotency-Key': idempotencyKey } });
   },
   updatePrescription: (id, data) => api.put(`/prescriptions/${id}`, data),
   deletePrescription: (id) => api.delete(`/prescriptions/${id}`),